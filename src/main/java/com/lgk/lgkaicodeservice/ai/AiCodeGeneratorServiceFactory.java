@@ -3,65 +3,109 @@ package com.lgk.lgkaicodeservice.ai;
 import cn.hutool.json.JSONUtil;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.lgk.lgkaicodeservice.ai.guardrail.PromptSafetyInputGuardrail;
+import com.lgk.lgkaicodeservice.ai.memory.ChatMessageCompactor;
+import com.lgk.lgkaicodeservice.ai.memory.ChatTokenEstimator;
+import com.lgk.lgkaicodeservice.ai.memory.CompactingTokenWindowChatMemory;
+import com.lgk.lgkaicodeservice.ai.memory.TieredChatMemoryStore;
 import com.lgk.lgkaicodeservice.ai.guardrail.RetryOutputGuardrail;
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
 import com.lgk.lgkaicodeservice.ai.model.message.AiResponseMessage;
 import com.lgk.lgkaicodeservice.ai.model.message.ToolExecutedMessage;
 import com.lgk.lgkaicodeservice.ai.model.message.ToolRequestMessage;
 import com.lgk.lgkaicodeservice.ai.tool.*;
+import com.lgk.lgkaicodeservice.config.ChatMemoryBudgetConfig;
 import com.lgk.lgkaicodeservice.exception.BusinessException;
 import com.lgk.lgkaicodeservice.exception.ErrorCode;
-import com.lgk.lgkaicodeservice.service.ChatHistoryService;
 import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
-import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.service.AiServices;
 import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.tool.ToolExecution;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import reactor.core.publisher.Flux;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 @Slf4j
 public class AiCodeGeneratorServiceFactory {
 
+    /**
+     * 每条绑定关系的基础权重（字节），覆盖代理与记忆对象本身的开销
+     */
+    private static final int BASE_MEMORY_WEIGHT = 16 * 1024;
+
     @Resource(name = "openAiChatModel")
     private ChatModel chatModel;
 
     @Resource
-    private RedisChatMemoryStore redisChatMemoryStore;
+    private TieredChatMemoryStore tieredChatMemoryStore;
+
+    @Resource
+    private ChatMemoryBudgetConfig chatMemoryBudgetConfig;
+
+    @Resource
+    private ChatTokenEstimator chatTokenEstimator;
 
     @Resource
-    private ChatHistoryService chatHistoryService;
+    private ChatMessageCompactor chatMessageCompactor;
 
     @Resource
     private ToolManager toolManager;
 
     /**
-     * AI 服务实例缓存
+     * 每种生成类型的共享服务实例数
+     */
+    @Value("${ai.generator.pool-size:4}")
+    private int poolSize;
+
+    /**
+     * 已绑定对话记忆的估算占用上限（字节）
+     */
+    @Value("${ai.generator.memory-cache-max-bytes:67108864}")
+    private long memoryCacheMaxBytes;
+
+    /**
+     * 共享服务池：服务实例无状态，数量只与生成类型有关，不随应用数增长
+     */
+    private final Map<CodeGenTypeEnum, AiCodeGeneratorService[]> servicePool = new ConcurrentHashMap<>();
+
+    /**
+     * 应用与服务实例内对话记忆的绑定关系
      * 缓存策略：
-     * - 最大缓存 1000 个实例
-     * - 写入后 30 分钟过期
+     * - 按估算内存占用加权，总量不超过 memoryCacheMaxBytes
      * - 访问后 10 分钟过期
+     * - 被淘汰时从服务实例中移除该应用的对话记忆（存储中的记忆不受影响）
      */
-    private final Cache<String, AiCodeGeneratorService> serviceCache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(Duration.ofMinutes(30))
-            .expireAfterAccess(Duration.ofMinutes(10))
-            .removalListener((key, value, cause) -> {
-                log.debug("AI 服务实例被移除，缓存键: {}, 原因: {}", key, cause);
-            })
-            .build();
+    private Cache<String, BoundChatMemory> boundMemoryCache;
+
+    @PostConstruct
+    public void init() {
+        boundMemoryCache = Caffeine.newBuilder()
+                .maximumWeight(memoryCacheMaxBytes)
+                .weigher((String key, BoundChatMemory boundChatMemory) -> boundChatMemory.weight())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .removalListener((String key, BoundChatMemory boundChatMemory, RemovalCause cause) -> {
+                    if (boundChatMemory != null && cause.wasEvicted()) {
+                        boundChatMemory.service().evictChatMemory(boundChatMemory.appId());
+                        log.debug("对话记忆绑定被移除，缓存键: {}, 原因: {}", key, cause);
+                    }
+                })
+                .build();
+    }
 
     /**
      * 根据 appId 获取服务（带缓存）这个方法是为了兼容历史逻辑
@@ -71,11 +115,17 @@ public class AiCodeGeneratorServiceFactory {
     }
 
     /**
-     * 根据 appId 和代码生成类型获取服务（带缓存）
+     * 根据 appId 和代码生成类型获取服务
+     * 同一应用固定落在池中同一个实例上，使其对话记忆只存在一份
      */
     public AiCodeGeneratorService getAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenType) {
-        String cacheKey = buildCacheKey(appId, codeGenType);
-        return serviceCache.get(cacheKey, key -> createAiCodeGeneratorService(appId, codeGenType));
+        AiCodeGeneratorService[] services = servicePool.computeIfAbsent(codeGenType, this::createServicePool);
+        AiCodeGeneratorService service = services[(int) Math.floorMod(appId, (long) services.length)];
+        // 刷新绑定关系及其权重
+        long footprint = BASE_MEMORY_WEIGHT + tieredChatMemoryStore.estimateFootprint(appId);
+        int weight = (int) Math.min(Integer.MAX_VALUE, footprint);
+        boundMemoryCache.put(buildCacheKey(appId, codeGenType), new BoundChatMemory(appId, service, weight));
+        return service;
     }
 
     /**
@@ -85,30 +135,42 @@ public class AiCodeGeneratorServiceFactory {
         return appId + "_" + codeGenType.getValue();
     }
 
+    /**
+     * 创建某种生成类型的服务池
+     */
+    private AiCodeGeneratorService[] createServicePool(CodeGenTypeEnum codeGenType) {
+        AiCodeGeneratorService[] services = new AiCodeGeneratorService[Math.max(1, poolSize)];
+        for (int i = 0; i < services.length; i++) {
+            services[i] = createAiCodeGeneratorService(codeGenType);
+        }
+        log.info("创建 AI 服务池，类型: {}, 实例数: {}", codeGenType.getValue(), services.length);
+        return services;
+    }
 
     /**
      * 创建新的 AI 服务实例
      */
-    private AiCodeGeneratorService createAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenType) {
-        // 根据 appId 构建独立的对话记忆
-        MessageWindowChatMemory chatMemory = MessageWindowChatMemory
+    private AiCodeGeneratorService createAiCodeGeneratorService(CodeGenTypeEnum codeGenType) {
+        // 对话记忆按 memoryId（即 appId）创建，历史由分层存储按需加载，按生成类型的 token 预算裁剪
+        int maxTokens = chatMemoryBudgetConfig.getMaxTokens(codeGenType);
+        ChatMemoryProvider chatMemoryProvider = memoryId -> CompactingTokenWindowChatMemory
                 .builder()
-                .id(appId)
-                .chatMemoryStore(redisChatMemoryStore)
-                .maxMessages(50)
+                .id(memoryId)
+                .store(tieredChatMemoryStore)
+                .maxTokens(maxTokens)
+                .recentTurns(chatMemoryBudgetConfig.getRecentTurns())
+                .tokenEstimator(chatTokenEstimator)
+                .compactor(chatMessageCompactor)
                 .build();
 
-        // 从数据库加载历史对话到记忆中
-        chatHistoryService.loadChatHistoryToMemory(appId, chatMemory, 50);
-
         // 根据代码生成类型选择不同的模型配置
         return switch (codeGenType) {
             case VUE_PROJECT -> {
-                // 使用多例模式的 StreamingChatModel 解决并发问题
+                // 模型不保存会话状态，池中的服务实例（及其模型）由多个应用并发共享，多例只为每个实例各自持有一个 HTTP 客户端
                 StreamingChatModel reasoningStreamingChatModel = SpringContextUtil.getBean("reasoningStreamingChatModelPrototype", StreamingChatModel.class);
                 yield AiServices.builder(AiCodeGeneratorService.class)
                         .streamingChatModel(reasoningStreamingChatModel)
-                        .chatMemoryProvider(memoryId -> chatMemory)
+                        .chatMemoryProvider(chatMemoryProvider)
                         .inputGuardrails(new PromptSafetyInputGuardrail()) //添加输入护轨
                         //.outputGuardrails(new RetryOutputGuardrail()) //添加输出护轨，为了流式输出，这里不使用
                         .tools(toolManager.getAllTools())
@@ -119,12 +181,12 @@ public class AiCodeGeneratorServiceFactory {
                         .build();
             }
             case HTML, MULTI_FILE -> {
-                // 使用多例模式的 StreamingChatModel 解决并发问题
+                // 模型不保存会话状态，池中的服务实例（及其模型）由多个应用并发共享，多例只为每个实例各自持有一个 HTTP 客户端
                 StreamingChatModel openAiStreamingChatModel = SpringContextUtil.getBean("streamingChatModelPrototype", StreamingChatModel.class);
                 yield AiServices.builder(AiCodeGeneratorService.class)
                         .chatModel(chatModel)
                         .streamingChatModel(openAiStreamingChatModel)
-                        .chatMemory(chatMemory)
+                        .chatMemoryProvider(chatMemoryProvider)
                         .inputGuardrails(new PromptSafetyInputGuardrail()) //添加输入护轨
                         //.outputGuardrails(new RetryOutputGuardrail()) //添加输出护轨
                         .build();
@@ -144,9 +206,10 @@ public class AiCodeGeneratorServiceFactory {
         return getAiCodeGeneratorService(0L);
     }
 
-
-
+    /**
+     * 应用与服务实例的对话记忆绑定
+     */
+    private record BoundChatMemory(long appId, AiCodeGeneratorService service, int weight) {
+    }
 
 }
-
-
@@ -0,0 +1,151 @@
+package com.lgk.lgkaicodeservice.ai.memory;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 对话消息压缩器
+ * 将较早轮次中的大段工具结果、工具参数（如写入文件的完整内容）和代码块替换为存根：路径 + 哈希 + 大小。
+ * 存根足以让模型知道“做过什么”，需要具体内容时可以再读文件。
+ */
+public class ChatMessageCompactor {
+
+    private static final Pattern CODE_FENCE_PATTERN = Pattern.compile("```([\\w.+-]*)[^\\n]*\\n([\\s\\S]*?)```");
+
+    private static final String PATH_ARGUMENT = "relativeFilePath";
+
+    /**
+     * 超过该字符数的内容才会被压缩
+     */
+    private final int threshold;
+
+    public ChatMessageCompactor(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * 压缩单条消息，无需压缩时返回原对象
+     *
+     * @param message 消息
+     * @return 压缩后的消息
+     */
+    public ChatMessage compact(ChatMessage message) {
+        return switch (message) {
+            case ToolExecutionResultMessage resultMessage -> compactToolResult(resultMessage);
+            case AiMessage aiMessage -> compactAiMessage(aiMessage);
+            default -> message;
+        };
+    }
+
+    private ChatMessage compactToolResult(ToolExecutionResultMessage resultMessage) {
+        String text = resultMessage.text();
+        if (text == null || text.length() <= threshold) {
+            return resultMessage;
+        }
+        String stub = stub(resultMessage.toolName() + " 结果", null, text);
+        return ToolExecutionResultMessage.from(resultMessage.id(), resultMessage.toolName(), stub);
+    }
+
+    private ChatMessage compactAiMessage(AiMessage aiMessage) {
+        String text = aiMessage.text();
+        String compactedText = text == null ? null : compactCodeFences(text);
+        boolean changed = !StrUtil.equals(text, compactedText);
+        List<ToolExecutionRequest> requests = aiMessage.toolExecutionRequests();
+        if (aiMessage.hasToolExecutionRequests()) {
+            List<ToolExecutionRequest> compactedRequests = new ArrayList<>(requests.size());
+            for (ToolExecutionRequest request : requests) {
+                ToolExecutionRequest compactedRequest = compactToolRequest(request);
+                changed |= compactedRequest != request;
+                compactedRequests.add(compactedRequest);
+            }
+            requests = compactedRequests;
+        }
+        if (!changed) {
+            return aiMessage;
+        }
+        if (!aiMessage.hasToolExecutionRequests()) {
+            return AiMessage.from(compactedText);
+        }
+        return compactedText == null ? AiMessage.from(requests) : AiMessage.from(compactedText, requests);
+    }
+
+    /**
+     * 压缩工具参数中的长字符串，保持参数仍为合法 JSON
+     */
+    private ToolExecutionRequest compactToolRequest(ToolExecutionRequest request) {
+        String arguments = request.arguments();
+        if (arguments == null || arguments.length() <= threshold || !JSONUtil.isTypeJSONObject(arguments)) {
+            return request;
+        }
+        JSONObject compactedObject = compactObject(JSONUtil.parseObj(arguments));
+        return ToolExecutionRequest.builder()
+                .id(request.id())
+                .name(request.name())
+                .arguments(compactedObject.toString())
+                .build();
+    }
+
+    /**
+     * 压缩对象中的长字符串，数组中的对象（如批量写入的文件列表）逐个压缩
+     */
+    private JSONObject compactObject(JSONObject object) {
+        String path = object.getStr(PATH_ARGUMENT);
+        JSONObject compactedObject = new JSONObject();
+        for (Map.Entry<String, Object> entry : object.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof String stringValue && stringValue.length() > threshold) {
+                compactedObject.set(entry.getKey(), stub(entry.getKey(), path, stringValue));
+            } else if (value instanceof JSONArray array) {
+                JSONArray compactedArray = new JSONArray();
+                for (Object element : array) {
+                    compactedArray.add(element instanceof JSONObject elementObject ? compactObject(elementObject) : element);
+                }
+                compactedObject.set(entry.getKey(), compactedArray);
+            } else {
+                compactedObject.set(entry.getKey(), value);
+            }
+        }
+        return compactedObject;
+    }
+
+    /**
+     * 压缩文本中的大代码块，保留语言标记
+     */
+    private String compactCodeFences(String text) {
+        if (text.length() <= threshold || !text.contains("```")) {
+            return text;
+        }
+        Matcher matcher = CODE_FENCE_PATTERN.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String code = matcher.group(2);
+            String replacement = code.length() <= threshold
+                    ? matcher.group()
+                    : "```" + matcher.group(1) + "\n" + stub("代码", null, code) + "\n```";
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private String stub(String label, String path, String content) {
+        String hash = DigestUtil.sha256Hex(content).substring(0, 12);
+        if (StrUtil.isBlank(path)) {
+            return StrUtil.format("[已压缩 {}] size={} chars, sha256={}", label, content.length(), hash);
+        }
+        return StrUtil.format("[已压缩 {}] path={}, size={} chars, sha256={}", label, path, content.length(), hash);
+    }
+}
@@ -0,0 +1,78 @@
+package com.lgk.lgkaicodeservice.ai.memory;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+
+/**
+ * 对话 token 数估算器
+ * 不依赖具体模型的分词器：ASCII 字符约 4 个一个 token，其余字符（中文等）按 1 个 token 计，
+ * 每条消息额外计入固定开销。用于记忆预算控制，偏保守即可。
+ */
+public class ChatTokenEstimator {
+
+    /**
+     * 每条消息的角色、分隔符等固定开销
+     */
+    private static final int MESSAGE_OVERHEAD = 4;
+
+    /**
+     * 估算文本 token 数
+     */
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int asciiCount = 0;
+        int otherCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) {
+                asciiCount++;
+            } else {
+                otherCount++;
+            }
+        }
+        return (asciiCount + 3) / 4 + otherCount;
+    }
+
+    /**
+     * 估算单条消息 token 数
+     */
+    public int estimate(ChatMessage message) {
+        int tokens = MESSAGE_OVERHEAD;
+        switch (message) {
+            case UserMessage userMessage -> {
+                if (userMessage.hasSingleText()) {
+                    tokens += estimate(userMessage.singleText());
+                }
+            }
+            case AiMessage aiMessage -> {
+                tokens += estimate(aiMessage.text());
+                if (aiMessage.hasToolExecutionRequests()) {
+                    for (ToolExecutionRequest request : aiMessage.toolExecutionRequests()) {
+                        tokens += MESSAGE_OVERHEAD + estimate(request.name()) + estimate(request.arguments());
+                    }
+                }
+            }
+            case ToolExecutionResultMessage resultMessage -> tokens += estimate(resultMessage.text());
+            case SystemMessage systemMessage -> tokens += estimate(systemMessage.text());
+            default -> {
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 估算消息列表 token 数
+     */
+    public int estimate(Iterable<ChatMessage> messages) {
+        int tokens = 0;
+        for (ChatMessage message : messages) {
+            tokens += estimate(message);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,120 @@
+package com.lgk.lgkaicodeservice.ai.memory;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import lombok.Builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 按 token 预算控制的对话记忆
+ * 最近若干轮对话原样保留；更早的工具结果、工具参数和代码块压缩为存根；
+ * 压缩后仍超出预算时从最早的消息开始淘汰（系统消息除外，连带淘汰对应的工具结果，避免出现孤立的工具结果）。
+ * 压缩结果会写回存储，存储中的记忆也不会无限增长。
+ */
+public class CompactingTokenWindowChatMemory implements ChatMemory {
+
+    private final Object id;
+
+    private final ChatMemoryStore store;
+
+    private final int maxTokens;
+
+    private final int recentTurns;
+
+    private final ChatTokenEstimator tokenEstimator;
+
+    private final ChatMessageCompactor compactor;
+
+    @Builder
+    private CompactingTokenWindowChatMemory(Object id, ChatMemoryStore store, int maxTokens, int recentTurns,
+                                            ChatTokenEstimator tokenEstimator, ChatMessageCompactor compactor) {
+        this.id = id;
+        this.store = store;
+        this.maxTokens = maxTokens;
+        this.recentTurns = recentTurns;
+        this.tokenEstimator = tokenEstimator;
+        this.compactor = compactor;
+    }
+
+    @Override
+    public Object id() {
+        return id;
+    }
+
+    @Override
+    public void add(ChatMessage message) {
+        List<ChatMessage> messages = new ArrayList<>(store.getMessages(id));
+        if (message instanceof SystemMessage) {
+            Optional<ChatMessage> systemMessage = messages.stream().filter(SystemMessage.class::isInstance).findFirst();
+            if (systemMessage.isPresent()) {
+                if (systemMessage.get().equals(message)) {
+                    // 相同的系统消息不重复添加
+                    return;
+                }
+                messages.remove(systemMessage.get());
+            }
+        }
+        messages.add(message);
+        fitBudget(messages);
+        store.updateMessages(id, messages);
+    }
+
+    @Override
+    public List<ChatMessage> messages() {
+        List<ChatMessage> messages = new ArrayList<>(store.getMessages(id));
+        fitBudget(messages);
+        return messages;
+    }
+
+    @Override
+    public void clear() {
+        store.deleteMessages(id);
+    }
+
+    /**
+     * 先压缩较早轮次，仍超出预算再淘汰最早的消息
+     */
+    private void fitBudget(List<ChatMessage> messages) {
+        int recentStart = recentTurnsStartIndex(messages);
+        for (int i = 0; i < recentStart; i++) {
+            messages.set(i, compactor.compact(messages.get(i)));
+        }
+        int tokenCount = tokenEstimator.estimate(messages);
+        // 至少保留最新一条消息
+        while (tokenCount > maxTokens) {
+            int evictIndex = messages.get(0) instanceof SystemMessage ? 1 : 0;
+            if (messages.size() <= evictIndex + 1) {
+                break;
+            }
+            ChatMessage evicted = messages.remove(evictIndex);
+            tokenCount -= tokenEstimator.estimate(evicted);
+            // 工具调用请求被淘汰时，其后的工具结果一并淘汰
+            if (evicted instanceof AiMessage aiMessage && aiMessage.hasToolExecutionRequests()) {
+                while (messages.size() > evictIndex + 1 && messages.get(evictIndex) instanceof ToolExecutionResultMessage) {
+                    tokenCount -= tokenEstimator.estimate(messages.remove(evictIndex));
+                }
+            }
+        }
+    }
+
+    /**
+     * 最近 recentTurns 轮（以用户消息为轮次起点）的起始下标
+     */
+    private int recentTurnsStartIndex(List<ChatMessage> messages) {
+        int turns = 0;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof UserMessage && ++turns >= recentTurns) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
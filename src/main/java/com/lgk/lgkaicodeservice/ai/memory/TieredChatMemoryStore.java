@@ -0,0 +1,175 @@
+package com.lgk.lgkaicodeservice.ai.memory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lgk.lgkaicodeservice.constant.RedisConstant;
+import com.lgk.lgkaicodeservice.service.ChatHistoryService;
+import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 分层对话记忆存储
+ * 读取顺序：本地缓存 -> Redis -> MySQL（仅当 Redis 中没有该记忆时冷加载一次，并整体回写 Redis）。
+ * Redis 为准：每段记忆在 Redis 中有一个版本号，每次写入或删除都会递增。
+ * 本地缓存记录读到的版本号，只有与 Redis 当前版本一致时才使用；其他实例写入后本实例会重新从 Redis 读取，
+ * 不会在旧列表上追加后覆盖 Redis 中更新的记忆。
+ */
+@Slf4j
+@Component
+public class TieredChatMemoryStore implements ChatMemoryStore {
+
+    /**
+     * 冷加载时从数据库读取的最大历史条数
+     */
+    private static final int COLD_LOAD_MAX_COUNT = 50;
+
+    @Resource
+    private RedisChatMemoryStore redisChatMemoryStore;
+
+    @Resource
+    private ChatHistoryService chatHistoryService;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 版本号的过期时间（秒），与 Redis 中对话记忆的过期时间一致
+     */
+    @Value("${spring.data.redis.ttl:3600}")
+    private long ttlSeconds;
+
+    private final Cache<Object, CachedMessages> localCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        long version = getVersion(memoryId).get();
+        CachedMessages cached = localCache.getIfPresent(memoryId);
+        if (cached != null && cached.version() == version) {
+            return cached.messages();
+        }
+        List<ChatMessage> messages = redisChatMemoryStore.getMessages(memoryId);
+        if (!messages.isEmpty()) {
+            // 先读版本号后读内容，内容只可能比版本号新，此时下次读取会因版本不一致重新加载
+            messages = List.copyOf(messages);
+            localCache.put(memoryId, new CachedMessages(version, messages));
+            return messages;
+        }
+        return coldLoad(memoryId, version);
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        CachedMessages cached = localCache.getIfPresent(memoryId);
+        redisChatMemoryStore.updateMessages(memoryId, messages);
+        cacheAfterWrite(memoryId, cached == null ? null : cached.version(), incrementVersion(memoryId), messages);
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        redisChatMemoryStore.deleteMessages(memoryId);
+        incrementVersion(memoryId);
+        localCache.invalidate(memoryId);
+    }
+
+    /**
+     * 估算本地缓存中某段记忆的内存占用（字节），未缓存时返回 0
+     *
+     * @param memoryId 记忆 ID
+     * @return 估算字节数
+     */
+    public long estimateFootprint(Object memoryId) {
+        CachedMessages cached = localCache.getIfPresent(memoryId);
+        if (cached == null) {
+            return 0;
+        }
+        long chars = 0;
+        for (ChatMessage message : cached.messages()) {
+            chars += textLength(message);
+        }
+        // Java 字符串按每字符 2 字节估算
+        return chars * 2;
+    }
+
+    private static int textLength(ChatMessage message) {
+        return switch (message) {
+            case UserMessage userMessage -> userMessage.hasSingleText() ? userMessage.singleText().length() : 0;
+            case AiMessage aiMessage -> {
+                int length = aiMessage.text() == null ? 0 : aiMessage.text().length();
+                if (aiMessage.hasToolExecutionRequests()) {
+                    for (ToolExecutionRequest request : aiMessage.toolExecutionRequests()) {
+                        length += request.arguments() == null ? 0 : request.arguments().length();
+                    }
+                }
+                yield length;
+            }
+            case ToolExecutionResultMessage resultMessage -> resultMessage.text().length();
+            case SystemMessage systemMessage -> systemMessage.text().length();
+            default -> 0;
+        };
+    }
+
+    /**
+     * Redis 为空时从数据库冷加载
+     */
+    private List<ChatMessage> coldLoad(Object memoryId, long version) {
+        Long appId = Long.valueOf(memoryId.toString());
+        List<ChatMessage> history = chatHistoryService.loadChatHistoryMessages(appId, COLD_LOAD_MAX_COUNT);
+        if (history.isEmpty()) {
+            localCache.put(memoryId, new CachedMessages(version, List.of()));
+            return List.of();
+        }
+        // 一次性回写，避免逐条写入
+        redisChatMemoryStore.updateMessages(memoryId, history);
+        cacheAfterWrite(memoryId, version, incrementVersion(memoryId), history);
+        log.info("对话记忆冷加载完成，appId: {}, 条数: {}", appId, history.size());
+        return List.copyOf(history);
+    }
+
+    /**
+     * 写入后更新本地缓存：版本号恰好从写入前读到的版本递增 1 时，说明期间没有其他写入，缓存本次内容；否则让下次读取回源
+     */
+    private void cacheAfterWrite(Object memoryId, Long versionBeforeWrite, long versionAfterWrite, List<ChatMessage> messages) {
+        if (versionBeforeWrite != null && versionAfterWrite == versionBeforeWrite + 1) {
+            localCache.put(memoryId, new CachedMessages(versionAfterWrite, List.copyOf(messages)));
+        } else {
+            localCache.invalidate(memoryId);
+        }
+    }
+
+    private long incrementVersion(Object memoryId) {
+        RAtomicLong version = getVersion(memoryId);
+        long next = version.incrementAndGet();
+        if (ttlSeconds > 0) {
+            version.expire(Duration.ofSeconds(ttlSeconds));
+        }
+        return next;
+    }
+
+    private RAtomicLong getVersion(Object memoryId) {
+        return redissonClient.getAtomicLong(RedisConstant.getChatMemoryVersionRedisKey(memoryId));
+    }
+
+    /**
+     * 本地缓存的记忆及其对应的 Redis 版本号
+     */
+    private record CachedMessages(long version, List<ChatMessage> messages) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.lgk.lgkaicodeservice.ai.model.entity;
+
+import dev.langchain4j.model.output.structured.Description;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Description("要写入的单个文件")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileWriteItem {
+
+    @Description("文件的相对路径")
+    private String relativeFilePath;
+
+    @Description("要写入文件的内容")
+    private String content;
+}
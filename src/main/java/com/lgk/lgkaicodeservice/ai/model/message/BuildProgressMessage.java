@@ -0,0 +1,31 @@
+package com.lgk.lgkaicodeservice.ai.model.message;
+
+import com.lgk.lgkaicodeservice.model.enums.VueBuildStatusEnum;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * 项目构建进度消息
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@NoArgsConstructor
+public final class BuildProgressMessage extends StreamMessage {
+
+    /**
+     * 构建状态
+     */
+    private String status;
+
+    /**
+     * 状态描述
+     */
+    private String statusText;
+
+    public BuildProgressMessage(VueBuildStatusEnum statusEnum) {
+        super(StreamMessageTypeEnum.BUILD_PROGRESS.getValue());
+        this.status = statusEnum.getValue();
+        this.statusText = statusEnum.getText();
+    }
+}
@@ -0,0 +1,43 @@
+package com.lgk.lgkaicodeservice.ai.model.message;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文件内容片段消息
+ * 写入文件的工具参数还在流式生成时，逐段推送文件内容
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@NoArgsConstructor
+public final class FileContentMessage extends StreamMessage {
+
+    /**
+     * 工具调用 ID
+     */
+    private String toolId;
+
+    /**
+     * 文件名（相对于项目根目录）
+     */
+    private String fileName;
+
+    /**
+     * 内容片段
+     */
+    private String content;
+
+    /**
+     * 是否为最后一段（文件内容已完整）
+     */
+    private boolean finished;
+
+    public FileContentMessage(String toolId, String fileName, String content, boolean finished) {
+        super(StreamMessageTypeEnum.FILE_CONTENT.getValue());
+        this.toolId = toolId;
+        this.fileName = fileName;
+        this.content = content;
+        this.finished = finished;
+    }
+}
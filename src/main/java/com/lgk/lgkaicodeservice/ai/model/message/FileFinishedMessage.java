@@ -0,0 +1,30 @@
+package com.lgk.lgkaicodeservice.ai.model.message;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文件写入完成消息
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@NoArgsConstructor
+public final class FileFinishedMessage extends StreamMessage {
+
+    /**
+     * 文件名（相对于项目根目录）
+     */
+    private String fileName;
+
+    /**
+     * 写入的字符数，为 0 表示内容为空未落盘
+     */
+    private long size;
+
+    public FileFinishedMessage(String fileName, long size) {
+        super(StreamMessageTypeEnum.FILE_FINISHED.getValue());
+        this.fileName = fileName;
+        this.size = size;
+    }
+}
@@ -0,0 +1,24 @@
+package com.lgk.lgkaicodeservice.ai.model.message;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文件开始写入消息
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@NoArgsConstructor
+public final class FileStartedMessage extends StreamMessage {
+
+    /**
+     * 文件名（相对于项目根目录）
+     */
+    private String fileName;
+
+    public FileStartedMessage(String fileName) {
+        super(StreamMessageTypeEnum.FILE_STARTED.getValue());
+        this.fileName = fileName;
+    }
+}
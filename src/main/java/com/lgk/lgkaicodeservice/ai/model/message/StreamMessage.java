@@ -6,10 +6,12 @@ import lombok.NoArgsConstructor;
 
 /**
  * 流式消息响应基类
+ * 密封层级：从 TokenStream 到 SSE 出口全程以对象形式传递，只在控制层序列化一次
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class StreamMessage {
+public abstract sealed class StreamMessage permits AiResponseMessage, ToolRequestMessage, ToolExecutedMessage,
+        FileStartedMessage, FileFinishedMessage, FileContentMessage, BuildProgressMessage {
     private String type;
 }
@@ -10,7 +10,11 @@ public enum StreamMessageTypeEnum {
 
     AI_RESPONSE("ai_response", "AI响应"),
     TOOL_REQUEST("tool_request", "工具请求"),
-    TOOL_EXECUTED("tool_executed", "工具执行结果");
+    TOOL_EXECUTED("tool_executed", "工具执行结果"),
+    FILE_STARTED("file_started", "文件开始写入"),
+    FILE_FINISHED("file_finished", "文件写入完成"),
+    FILE_CONTENT("file_content", "文件内容片段"),
+    BUILD_PROGRESS("build_progress", "项目构建进度");
 
     private final String value;
     private final String text;
@@ -38,4 +38,15 @@ public abstract class BaseTool {
      * @return 格式化的工具执行结果
      */
     public abstract String generateToolExecutedResult(JSONObject arguments);
+
+    /**
+     * 生成工具执行结果格式（保存到数据库），可结合工具的返回值
+     *
+     * @param arguments 工具执行参数
+     * @param result    工具返回值
+     * @return 格式化的工具执行结果
+     */
+    public String generateToolExecutedResult(JSONObject arguments, String result) {
+        return generateToolExecutedResult(arguments);
+    }
 }
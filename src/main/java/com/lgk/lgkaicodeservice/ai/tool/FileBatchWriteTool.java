@@ -0,0 +1,86 @@
+package com.lgk.lgkaicodeservice.ai.tool;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import com.lgk.lgkaicodeservice.ai.model.entity.FileWriteItem;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspace;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspaceManager;
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 批量文件写入工具
+ * 一次工具调用写入多个文件，减少模型往返次数
+ */
+@Slf4j
+@Component
+public class FileBatchWriteTool extends BaseTool {
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Tool("一次写入多个文件到指定路径，适合同时创建多个新文件")
+    public String writeFiles(
+            @P("要写入的文件列表")
+            List<FileWriteItem> files,
+            @ToolMemoryId Long appId
+    ) {
+        if (files == null || files.isEmpty()) {
+            return "错误：文件列表为空";
+        }
+        ProjectWorkspace workspace = projectWorkspaceManager.getWorkspace(appId);
+        // 先校验全部路径，任一路径非法则整批不写入
+        for (FileWriteItem file : files) {
+            try {
+                if (StrUtil.isBlank(file.getRelativeFilePath())) {
+                    return "批量写入文件失败，未写入任何文件: 存在空的文件路径";
+                }
+                workspace.normalize(file.getRelativeFilePath());
+            } catch (IllegalArgumentException e) {
+                String errorMessage = "批量写入文件失败，未写入任何文件: " + file.getRelativeFilePath() + ", 错误: " + e.getMessage();
+                log.error(errorMessage, e);
+                return errorMessage;
+            }
+        }
+        StringBuilder result = new StringBuilder("批量写入文件成功，共 ").append(files.size()).append(" 个文件:");
+        for (FileWriteItem file : files) {
+            workspace.write(file.getRelativeFilePath(), StrUtil.nullToEmpty(file.getContent()));
+            result.append("\n- ").append(file.getRelativeFilePath());
+        }
+        log.info("成功批量写入 {} 个文件: {}", files.size(), workspace.getRoot());
+        return result.toString();
+    }
+
+    @Override
+    public String getToolName() {
+        return "writeFiles";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "批量写入文件";
+    }
+
+    @Override
+    public String generateToolExecutedResult(JSONObject arguments) {
+        JSONArray files = arguments.getJSONArray("files");
+        StringBuilder summary = new StringBuilder();
+        int count = 0;
+        if (files != null) {
+            for (int i = 0; i < files.size(); i++) {
+                JSONObject file = files.getJSONObject(i);
+                String content = StrUtil.nullToEmpty(file.getStr("content"));
+                summary.append(String.format("\n- %s（%d 行）", file.getStr("relativeFilePath"), StrUtil.count(content, '\n') + 1));
+                count++;
+            }
+        }
+        return String.format("[工具调用] %s 共 %d 个文件%s", getDisplayName(), count, summary);
+    }
+}
@@ -1,16 +1,15 @@
 package com.lgk.lgkaicodeservice.ai.tool;
 
 import cn.hutool.json.JSONObject;
-import com.lgk.lgkaicodeservice.constant.AppConstant;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspace;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspaceManager;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
@@ -21,6 +20,9 @@ import java.nio.file.Paths;
 @Component
 public class FileDeleteTool extends BaseTool {
 
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
     @Tool("删除指定路径的文件")
     public String deleteFile(
             @P("文件的相对路径")
@@ -28,27 +30,23 @@ public class FileDeleteTool extends BaseTool {
             @ToolMemoryId Long appId
     ) {
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
-            }
-            if (!Files.exists(path)) {
+            ProjectWorkspace workspace = projectWorkspaceManager.getWorkspace(appId);
+            if (!workspace.isFile(relativeFilePath)) {
+                if (workspace.isDirectory(relativeFilePath)) {
+                    return "错误：指定路径不是文件，无法删除 - " + relativeFilePath;
+                }
                 return "警告：文件不存在，无需删除 - " + relativeFilePath;
             }
-            if (!Files.isRegularFile(path)) {
-                return "错误：指定路径不是文件，无法删除 - " + relativeFilePath;
-            }
             // 安全检查：避免删除重要文件
-            String fileName = path.getFileName().toString();
+            String fileName = Paths.get(relativeFilePath).getFileName().toString();
             if (isImportantFile(fileName)) {
                 return "错误：不允许删除重要文件 - " + fileName;
             }
-            Files.delete(path);
-            log.info("成功删除文件: {}", path.toAbsolutePath());
+            // 仅在内存工作区中标记删除，本轮对话结束时统一落盘
+            workspace.delete(relativeFilePath);
+            log.info("成功删除文件: {}", workspace.getRoot().resolve(relativeFilePath));
             return "文件删除成功: " + relativeFilePath;
-        } catch (IOException e) {
+        } catch (IllegalArgumentException e) {
             String errorMessage = "删除文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
             return errorMessage;
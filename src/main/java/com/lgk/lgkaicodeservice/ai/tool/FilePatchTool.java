@@ -0,0 +1,90 @@
+package com.lgk.lgkaicodeservice.ai.tool;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import com.lgk.lgkaicodeservice.ai.tool.patch.FilePatcher;
+import com.lgk.lgkaicodeservice.ai.tool.patch.PatchEdit;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspace;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspaceManager;
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 文件补丁工具
+ * 一次调用完成同一文件的多处修改，返回只包含改动片段的差异
+ */
+@Slf4j
+@Component
+public class FilePatchTool extends BaseTool {
+
+    private static final String SUCCESS_PREFIX = "文件补丁成功: ";
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Tool("对同一文件一次进行多处修改，每处修改通过原内容（需唯一）或行号范围定位，行号均以修改前的文件为准，返回修改的差异")
+    public String patchFile(
+            @P("文件的相对路径")
+            String relativeFilePath,
+            @P("修改列表，各处修改互不重叠")
+            List<PatchEdit> edits,
+            @ToolMemoryId Long appId
+    ) {
+        try {
+            ProjectWorkspace workspace = projectWorkspaceManager.getWorkspace(appId);
+            String originalContent = workspace.read(relativeFilePath);
+            if (originalContent == null) {
+                return "错误：文件不存在或不是文件 - " + relativeFilePath;
+            }
+            FilePatcher.PatchResult result = FilePatcher.apply(workspace.normalize(relativeFilePath), originalContent, edits);
+            if (originalContent.equals(result.content())) {
+                return "信息：补丁应用后文件内容未发生变化 - " + relativeFilePath;
+            }
+            workspace.write(relativeFilePath, result.content());
+            log.info("成功修改文件: {}，共 {} 处修改", workspace.getRoot().resolve(relativeFilePath), edits.size());
+            return SUCCESS_PREFIX + relativeFilePath + "\n" + result.diff();
+        } catch (IOException | IllegalArgumentException e) {
+            String errorMessage = "补丁修改文件失败，文件未修改: " + relativeFilePath + ", 错误: " + e.getMessage();
+            log.warn(errorMessage);
+            return errorMessage;
+        }
+    }
+
+    @Override
+    public String getToolName() {
+        return "patchFile";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "补丁修改文件";
+    }
+
+    @Override
+    public String generateToolExecutedResult(JSONObject arguments) {
+        return String.format("[工具调用] %s %s", getDisplayName(), arguments.getStr("relativeFilePath"));
+    }
+
+    @Override
+    public String generateToolExecutedResult(JSONObject arguments, String result) {
+        String relativeFilePath = arguments.getStr("relativeFilePath");
+        if (result == null || !result.startsWith(SUCCESS_PREFIX)) {
+            return String.format("[工具调用] %s %s\n\n%s", getDisplayName(), relativeFilePath, StrUtil.nullToEmpty(result));
+        }
+        // 只回显差异，不回显整段修改内容
+        return String.format("""
+                [工具调用] %s %s
+
+                ```diff
+                %s
+                ```
+                """, getDisplayName(), relativeFilePath, StrUtil.subAfter(result, "\n", false).stripTrailing());
+    }
+}
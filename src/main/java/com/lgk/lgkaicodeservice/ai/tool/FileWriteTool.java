@@ -2,19 +2,15 @@ package com.lgk.lgkaicodeservice.ai.tool;
 
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.json.JSONObject;
-import com.lgk.lgkaicodeservice.constant.AppConstant;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspace;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspaceManager;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-
 /**
  * 文件写入工具
  * 支持 AI 通过工具调用的方式写入文件
@@ -27,6 +23,14 @@ import java.nio.file.StandardOpenOption;
 @Component
 public class FileWriteTool extends BaseTool {
 
+    /**
+     * 写入成功时返回给模型的结果前缀
+     */
+    private static final String SUCCESS_PREFIX = "文件写入成功: ";
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
     @Tool("写入文件到指定路径")
     public String writeFile(
             @P("文件的相对路径")
@@ -36,26 +40,13 @@ public class FileWriteTool extends BaseTool {
             @ToolMemoryId Long appId
     ) {
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                // 相对路径处理，创建基于 appId 的项目目录
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
-            }
-            // 创建父目录（如果不存在）
-            Path parentDir = path.getParent();
-            if (parentDir != null) {
-                Files.createDirectories(parentDir);
-            }
-            // 写入文件内容
-            Files.write(path, content.getBytes(),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
-            log.info("成功写入文件: {}", path.toAbsolutePath());
+            // 写入内存工作区，本轮对话结束时统一落盘
+            ProjectWorkspace workspace = projectWorkspaceManager.getWorkspace(appId);
+            workspace.write(relativeFilePath, content);
+            log.info("成功写入文件: {}", workspace.getRoot().resolve(relativeFilePath));
             // 注意要返回相对路径，不能让 AI 把文件绝对路径返回给用户
-            return "文件写入成功: " + relativeFilePath;
-        } catch (IOException e) {
+            return SUCCESS_PREFIX + relativeFilePath;
+        } catch (IllegalArgumentException e) {
             String errorMessage = "文件写入失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
             return errorMessage;
@@ -75,14 +66,47 @@ public class FileWriteTool extends BaseTool {
     @Override
     public String generateToolExecutedResult(JSONObject arguments) {
         String relativeFilePath = arguments.getStr("relativeFilePath");
-        String suffix = FileUtil.getSuffix(relativeFilePath);
         String content = arguments.getStr("content");
-        return String.format("""
-                        [工具调用] %s %s
-                        ```%s
-                        %s
-                        ```
-                        """, getDisplayName(), relativeFilePath, suffix, content);
+        return generateContentHeader(relativeFilePath) + content + generateContentFooter();
+    }
+
+    /**
+     * 判断工具返回值是否表示写入成功
+     *
+     * @param result 工具返回值
+     * @return 是否写入成功
+     */
+    public boolean isWriteSucceeded(String result) {
+        return result != null && result.startsWith(SUCCESS_PREFIX);
     }
-}
 
+    /**
+     * 生成写入失败的结果格式（文件内容已流式输出时只补充失败原因）
+     *
+     * @param result 工具返回值
+     * @return 失败结果
+     */
+    public String generateFailedResult(String result) {
+        return String.format("[工具调用] %s 失败: %s", getDisplayName(), result);
+    }
+
+    /**
+     * 生成文件内容展示的开头（文件内容流式推送时先输出）
+     *
+     * @param relativeFilePath 文件相对路径
+     * @return 开头部分
+     */
+    public String generateContentHeader(String relativeFilePath) {
+        String suffix = FileUtil.getSuffix(relativeFilePath);
+        return String.format("[工具调用] %s %s\n```%s\n", getDisplayName(), relativeFilePath, suffix);
+    }
+
+    /**
+     * 生成文件内容展示的结尾
+     *
+     * @return 结尾部分
+     */
+    public String generateContentFooter() {
+        return "\n```\n";
+    }
+}
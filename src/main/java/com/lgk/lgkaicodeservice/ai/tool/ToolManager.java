@@ -1,12 +1,27 @@
 package com.lgk.lgkaicodeservice.ai.tool;
 
+import com.lgk.lgkaicodeservice.config.ToolExecutionConfig;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.ParallelToolExecutor;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 工具管理器
@@ -21,19 +36,53 @@ public class ToolManager {
      */
     private final Map<String, BaseTool> toolMap = new HashMap<>();
 
+    /**
+     * 工具规格到执行器的映射，交给 AI 服务使用
+     */
+    private final Map<ToolSpecification, ToolExecutor> toolExecutors = new LinkedHashMap<>();
+
+    /**
+     * 执行工具方法的虚拟线程，超时的工具会被中断
+     */
+    private final ExecutorService toolExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tool-", 0).factory());
+
     /**
      * 自动注入所有工具
      */
     @Resource
     private BaseTool[] tools;
 
+    @Resource
+    private ToolExecutionConfig toolExecutionConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
     /**
      * 初始化工具映射
      */
     @PostConstruct
     public void initTools() {
+        // 互不冲突的工具调用并行执行，并发上限、并发隔离、超时、输出长度上限和执行指标随工具一起交给 AI 服务
+        ParallelToolExecutor parallelToolExecutor = ParallelToolExecutor.builder()
+                .executor(toolExecutor)
+                .maxConcurrency(toolExecutionConfig.getMaxConcurrency())
+                .globalMaxConcurrency(toolExecutionConfig.getGlobalMaxConcurrency())
+                .perMemoryMaxConcurrency(toolExecutionConfig.getPerAppMaxConcurrency())
+                .permitTimeout(Duration.ofMillis(toolExecutionConfig.getAcquireTimeoutMillis()))
+                .timeouts(toolName -> Duration.ofSeconds(toolExecutionConfig.getTimeoutSeconds(toolName)))
+                .maxOutputChars(toolExecutionConfig.getMaxOutputChars())
+                .meterRegistry(meterRegistry)
+                .build();
         for (BaseTool tool : tools) {
             toolMap.put(tool.getToolName(), tool);
+            for (Method method : tool.getClass().getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    ToolSpecification specification = ToolSpecifications.toolSpecificationFrom(method);
+                    toolExecutors.put(specification, parallelToolExecutor.bind(new DefaultToolExecutor(tool, method)));
+                }
+            }
             log.info("注册工具: {} -> {}", tool.getToolName(), tool.getDisplayName());
         }
         log.info("工具管理器初始化完成，共注册 {} 个工具", toolMap.size());
@@ -50,11 +99,17 @@ public class ToolManager {
     }
 
     /**
-     * 获取已注册的工具集合
+     * 获取所有工具方法及其执行器，交给 AI 服务使用
+     * 执行时附加并行调度、并发隔离、超时、输出长度上限和执行指标
      *
-     * @return 工具实例集合
+     * @return 工具规格到执行器的映射
      */
-    public BaseTool[] getAllTools() {
-        return tools;
+    public Map<ToolSpecification, ToolExecutor> getAllTools() {
+        return Collections.unmodifiableMap(toolExecutors);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        toolExecutor.shutdownNow();
     }
 }
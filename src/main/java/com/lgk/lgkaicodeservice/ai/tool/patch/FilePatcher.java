@@ -0,0 +1,327 @@
+package com.lgk.lgkaicodeservice.ai.tool.patch;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 文件补丁
+ * 一次定位多处修改（全部基于原文件坐标，互不重叠），在片段表上应用，并生成只包含改动片段的统一差异（unified diff）
+ */
+public final class FilePatcher {
+
+    /**
+     * 差异中每个改动片段前后保留的上下文行数
+     */
+    private static final int CONTEXT_LINES = 3;
+
+    private FilePatcher() {
+    }
+
+    /**
+     * 补丁结果
+     *
+     * @param content 修改后的内容
+     * @param diff    统一差异，只包含改动片段
+     */
+    public record PatchResult(String content, String diff) {
+    }
+
+    /**
+     * 在原文件上定位的一处修改，[start, end) 为原文件偏移
+     */
+    private record Located(int start, int end, String text) {
+    }
+
+    /**
+     * 一组落在相邻行上的修改，oldLines / newLines 为修改前后的完整行
+     */
+    private record Change(int firstLine, List<String> oldLines, List<String> newLines) {
+    }
+
+    /**
+     * 应用补丁
+     *
+     * @param path    文件相对路径（用于差异头）
+     * @param content 原文件内容
+     * @param edits   修改列表
+     * @return 补丁结果
+     * @throws IllegalArgumentException 修改无法定位或相互重叠
+     */
+    public static PatchResult apply(String path, String content, List<PatchEdit> edits) {
+        if (edits == null || edits.isEmpty()) {
+            throw new IllegalArgumentException("修改列表为空");
+        }
+        LineIndex lines = new LineIndex(content);
+        List<Located> located = new ArrayList<>(edits.size());
+        for (int i = 0; i < edits.size(); i++) {
+            try {
+                located.add(locate(content, lines, edits.get(i)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 处修改" + e.getMessage(), e);
+            }
+        }
+        located.sort(Comparator.comparingInt(Located::start).thenComparingInt(Located::end));
+        for (int i = 1; i < located.size(); i++) {
+            if (located.get(i).start() < located.get(i - 1).end()) {
+                throw new IllegalArgumentException("存在相互重叠的修改");
+            }
+        }
+        // 从后往前应用，前面修改的原文件偏移保持有效
+        PieceTable table = new PieceTable(content);
+        for (int i = located.size() - 1; i >= 0; i--) {
+            Located edit = located.get(i);
+            table.replace(edit.start(), edit.end() - edit.start(), edit.text());
+        }
+        List<Change> changes = group(content, lines, located);
+        return new PatchResult(table.toString(), diff(path, lines, changes));
+    }
+
+    /**
+     * 把单处修改定位到原文件偏移
+     */
+    private static Located locate(String content, LineIndex lines, PatchEdit edit) {
+        String oldText = StrUtil.nullToEmpty(edit.getOldText());
+        String newText = StrUtil.nullToEmpty(edit.getNewText());
+        Integer startLine = edit.getStartLine();
+        Integer endLine = edit.getEndLine();
+        int from = 0;
+        int to = content.length();
+        if (startLine != null || endLine != null) {
+            int start = startLine != null ? startLine : endLine;
+            int end = endLine != null ? endLine : startLine;
+            if (start < 1 || start > lines.count() + 1 || end < start - 1 || end > lines.count()) {
+                throw new IllegalArgumentException("行号范围无效: " + start + "-" + end + "（文件共 " + lines.count() + " 行）");
+            }
+            if (end == start - 1) {
+                if (!oldText.isEmpty()) {
+                    throw new IllegalArgumentException("插入时不能指定原内容");
+                }
+                return insertBefore(content, lines, start, newText);
+            }
+            from = lines.start(start - 1);
+            to = lines.endWithBreak(end - 1);
+            if (oldText.isEmpty()) {
+                return new Located(from, lines.endWithoutBreak(end - 1), newText);
+            }
+        } else if (oldText.isEmpty()) {
+            throw new IllegalArgumentException("未指定原内容或行号范围");
+        }
+        int index = content.indexOf(oldText, from);
+        if (index < 0 || index + oldText.length() > to) {
+            throw new IllegalArgumentException("未找到原内容");
+        }
+        int next = content.indexOf(oldText, index + 1);
+        if (next >= 0 && next + oldText.length() <= to) {
+            throw new IllegalArgumentException("原内容出现多次，请补充上下文或指定行号范围");
+        }
+        return new Located(index, index + oldText.length(), newText);
+    }
+
+    /**
+     * 在指定行之前插入整行内容
+     */
+    private static Located insertBefore(String content, LineIndex lines, int line, String newText) {
+        if (newText.isEmpty()) {
+            throw new IllegalArgumentException("插入内容为空");
+        }
+        if (line - 1 < lines.startCount()) {
+            int offset = lines.start(line - 1);
+            String text = newText.endsWith("\n") ? newText : newText + "\n";
+            return new Located(offset, offset, text);
+        }
+        // 追加到没有换行结尾的最后一行之后
+        return new Located(content.length(), content.length(), "\n" + StrUtil.removeSuffix(newText, "\n"));
+    }
+
+    /**
+     * 把落在同一行或相邻行的修改合并成整行改动
+     */
+    private static List<Change> group(String content, LineIndex lines, List<Located> located) {
+        List<Change> changes = new ArrayList<>();
+        int i = 0;
+        while (i < located.size()) {
+            int firstLine = lines.lineOf(located.get(i).start());
+            int lastLine = lastLineOf(lines, located.get(i));
+            int j = i + 1;
+            while (j < located.size() && lines.lineOf(located.get(j).start()) <= lastLine) {
+                lastLine = Math.max(lastLine, lastLineOf(lines, located.get(j)));
+                j++;
+            }
+            int segmentStart = lines.start(firstLine);
+            int segmentEnd = lines.endWithBreak(lastLine);
+            StringBuilder updated = new StringBuilder();
+            int position = segmentStart;
+            for (Located edit : located.subList(i, j)) {
+                updated.append(content, position, edit.start()).append(edit.text());
+                position = edit.end();
+            }
+            updated.append(content, position, segmentEnd);
+            List<String> oldLines = splitLines(content.substring(segmentStart, segmentEnd));
+            List<String> newLines = splitLines(updated);
+            // 首尾未变化的整行作为上下文，不计入改动
+            int prefix = 0;
+            while (prefix < oldLines.size() && prefix < newLines.size() && oldLines.get(prefix).equals(newLines.get(prefix))) {
+                prefix++;
+            }
+            int suffix = 0;
+            while (suffix < oldLines.size() - prefix && suffix < newLines.size() - prefix
+                    && oldLines.get(oldLines.size() - 1 - suffix).equals(newLines.get(newLines.size() - 1 - suffix))) {
+                suffix++;
+            }
+            if (prefix + suffix < Math.max(oldLines.size(), newLines.size())) {
+                changes.add(new Change(firstLine + prefix,
+                        oldLines.subList(prefix, oldLines.size() - suffix),
+                        newLines.subList(prefix, newLines.size() - suffix)));
+            }
+            i = j;
+        }
+        return changes;
+    }
+
+    private static int lastLineOf(LineIndex lines, Located edit) {
+        return edit.end() > edit.start() ? lines.lineOf(edit.end() - 1) : lines.lineOf(edit.start());
+    }
+
+    /**
+     * 生成统一差异，相距较近的改动合并到同一个片段
+     */
+    private static String diff(String path, LineIndex lines, List<Change> changes) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- a/").append(path).append('\n');
+        sb.append("+++ b/").append(path).append('\n');
+        int delta = 0;
+        int i = 0;
+        while (i < changes.size()) {
+            int hunkStart = Math.max(0, changes.get(i).firstLine() - CONTEXT_LINES);
+            int newHunkStart = hunkStart + delta;
+            List<String> body = new ArrayList<>();
+            int oldCount = 0;
+            int newCount = 0;
+            int position = hunkStart;
+            int start = i;
+            while (i < changes.size()) {
+                Change change = changes.get(i);
+                if (i > start && change.firstLine() - position > 2 * CONTEXT_LINES) {
+                    break;
+                }
+                for (int line = position; line < change.firstLine(); line++) {
+                    body.add(" " + lines.text(line));
+                }
+                oldCount += change.firstLine() - position + change.oldLines().size();
+                newCount += change.firstLine() - position + change.newLines().size();
+                change.oldLines().forEach(line -> body.add("-" + line));
+                change.newLines().forEach(line -> body.add("+" + line));
+                delta += change.newLines().size() - change.oldLines().size();
+                position = change.firstLine() + change.oldLines().size();
+                i++;
+            }
+            int hunkEnd = Math.min(lines.count(), position + CONTEXT_LINES);
+            for (int line = position; line < hunkEnd; line++) {
+                body.add(" " + lines.text(line));
+            }
+            oldCount += Math.max(0, hunkEnd - position);
+            newCount += Math.max(0, hunkEnd - position);
+            sb.append("@@ -").append(range(hunkStart, oldCount))
+                    .append(" +").append(range(newHunkStart, newCount)).append(" @@\n");
+            body.forEach(line -> sb.append(line).append('\n'));
+        }
+        return sb.toString();
+    }
+
+    private static String range(int start, int count) {
+        return (count == 0 ? start : start + 1) + "," + count;
+    }
+
+    private static List<String> splitLines(CharSequence text) {
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                result.add(text.subSequence(start, i).toString());
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            result.add(text.subSequence(start, text.length()).toString());
+        }
+        return result;
+    }
+
+    /**
+     * 行偏移索引（行号从 0 开始）
+     */
+    private static final class LineIndex {
+
+        private final String content;
+
+        /**
+         * 每行起始偏移；内容为空或以换行结尾时末尾多一个空行起点
+         */
+        private final List<Integer> starts = new ArrayList<>();
+
+        private final int count;
+
+        LineIndex(String content) {
+            this.content = content;
+            starts.add(0);
+            for (int i = 0; i < content.length(); i++) {
+                if (content.charAt(i) == '\n') {
+                    starts.add(i + 1);
+                }
+            }
+            boolean trailingEmpty = content.isEmpty() || content.endsWith("\n");
+            this.count = trailingEmpty ? starts.size() - 1 : starts.size();
+        }
+
+        /**
+         * 实际行数
+         */
+        int count() {
+            return count;
+        }
+
+        int startCount() {
+            return starts.size();
+        }
+
+        int start(int line) {
+            return starts.get(line);
+        }
+
+        /**
+         * 行结束偏移（包含换行符）
+         */
+        int endWithBreak(int line) {
+            return line + 1 < starts.size() ? starts.get(line + 1) : content.length();
+        }
+
+        /**
+         * 行结束偏移（不包含换行符）
+         */
+        int endWithoutBreak(int line) {
+            int end = endWithBreak(line);
+            return end > starts.get(line) && content.charAt(end - 1) == '\n' ? end - 1 : end;
+        }
+
+        int lineOf(int offset) {
+            int low = 0;
+            int high = starts.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (starts.get(mid) <= offset) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        String text(int line) {
+            return content.substring(start(line), endWithoutBreak(line));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.lgk.lgkaicodeservice.ai.tool.patch;
+
+import dev.langchain4j.model.output.structured.Description;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Description("单处文件修改，行号均相对于修改前的原文件")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatchEdit {
+
+    @Description("起始行号（从 1 开始，包含），可选；与 endLine 一起限定修改范围")
+    private Integer startLine;
+
+    @Description("结束行号（包含），可选；在第 N 行之前插入时 startLine 为 N、endLine 为 N-1")
+    private Integer endLine;
+
+    @Description("要替换的原内容，必须在文件（或行号范围）中唯一出现；为空时替换整个行号范围")
+    private String oldText;
+
+    @Description("替换后的新内容，为空表示删除")
+    private String newText;
+}
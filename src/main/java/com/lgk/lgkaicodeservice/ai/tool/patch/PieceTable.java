@@ -0,0 +1,86 @@
+package com.lgk.lgkaicodeservice.ai.tool.patch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 片段表（Piece Table）
+ * 原始内容只读，新增内容追加到独立缓冲区，文档由指向两个缓冲区的片段序列组成；
+ * 多次编辑只调整片段，不复制整个文件，最后一次性拼出结果。
+ */
+public class PieceTable {
+
+    private final String original;
+
+    private final StringBuilder added = new StringBuilder();
+
+    private final List<Piece> pieces = new ArrayList<>();
+
+    private int length;
+
+    public PieceTable(String original) {
+        this.original = original;
+        this.length = original.length();
+        if (!original.isEmpty()) {
+            pieces.add(new Piece(false, 0, original.length()));
+        }
+    }
+
+    /**
+     * 当前文档长度
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 将 [offset, offset + deleteLength) 替换为 text（坐标为当前文档坐标）
+     */
+    public void replace(int offset, int deleteLength, String text) {
+        if (offset < 0 || deleteLength < 0 || offset + deleteLength > length) {
+            throw new IndexOutOfBoundsException("替换范围越界: offset=" + offset + ", length=" + deleteLength);
+        }
+        int index = split(offset);
+        int end = split(offset + deleteLength);
+        pieces.subList(index, end).clear();
+        if (!text.isEmpty()) {
+            pieces.add(index, new Piece(true, added.length(), text.length()));
+            added.append(text);
+        }
+        length += text.length() - deleteLength;
+    }
+
+    /**
+     * 在指定位置切分片段，返回从该位置开始的片段下标
+     */
+    private int split(int offset) {
+        int position = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            Piece piece = pieces.get(i);
+            if (offset == position) {
+                return i;
+            }
+            if (offset < position + piece.length) {
+                int leftLength = offset - position;
+                pieces.set(i, new Piece(piece.added, piece.start, leftLength));
+                pieces.add(i + 1, new Piece(piece.added, piece.start + leftLength, piece.length - leftLength));
+                return i + 1;
+            }
+            position += piece.length;
+        }
+        return pieces.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length);
+        for (Piece piece : pieces) {
+            CharSequence buffer = piece.added ? added : original;
+            sb.append(buffer, piece.start, piece.start + piece.length);
+        }
+        return sb.toString();
+    }
+
+    private record Piece(boolean added, int start, int length) {
+    }
+}
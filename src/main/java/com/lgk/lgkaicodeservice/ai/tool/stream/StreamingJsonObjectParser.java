@@ -0,0 +1,237 @@
+package com.lgk.lgkaicodeservice.ai.tool.stream;
+
+/**
+ * 增量 JSON 对象解析器
+ * 按片段喂入工具参数（模型流式输出的 JSON 对象），顶层字符串字段的值一边到达一边解码回调，无需等待整个对象完整；
+ * 非字符串的值（数字、布尔、嵌套对象/数组等）只跳过，不回调。
+ */
+public class StreamingJsonObjectParser {
+
+    /**
+     * 字段值回调
+     */
+    public interface Listener {
+
+        /**
+         * 字符串字段值的一段（已解码）
+         *
+         * @param field 字段名
+         * @param chunk 值片段
+         */
+        void onValue(String field, String chunk);
+
+        /**
+         * 字符串字段值结束
+         *
+         * @param field 字段名
+         */
+        void onValueEnd(String field);
+    }
+
+    private enum State {
+        BEFORE_OBJECT, BEFORE_KEY, IN_KEY, AFTER_KEY, BEFORE_VALUE, IN_STRING_VALUE, IN_OTHER_VALUE, AFTER_VALUE, DONE
+    }
+
+    private final Listener listener;
+
+    private State state = State.BEFORE_OBJECT;
+
+    private final StringBuilder key = new StringBuilder();
+
+    private String field;
+
+    /**
+     * 本次喂入中已解码、尚未回调的值
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    private boolean escape;
+
+    /**
+     * 正在读取的 \\uXXXX 转义，-1 表示不在转义中
+     */
+    private int unicodeDigits = -1;
+
+    private int unicodeValue;
+
+    /**
+     * 跳过非字符串值时的嵌套深度和字符串状态
+     */
+    private int otherDepth;
+
+    private boolean otherInString;
+
+    private boolean otherEscape;
+
+    public StreamingJsonObjectParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 喂入一段参数
+     *
+     * @param delta 参数片段
+     */
+    public void feed(String delta) {
+        for (int i = 0; i < delta.length(); i++) {
+            accept(delta.charAt(i));
+        }
+        flushPending();
+    }
+
+    /**
+     * 对象是否已完整
+     */
+    public boolean isDone() {
+        return state == State.DONE;
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case BEFORE_OBJECT -> {
+                if (c == '{') {
+                    state = State.BEFORE_KEY;
+                }
+            }
+            case BEFORE_KEY -> {
+                if (c == '"') {
+                    key.setLength(0);
+                    state = State.IN_KEY;
+                } else if (c == '}') {
+                    state = State.DONE;
+                }
+            }
+            case IN_KEY -> {
+                if (decodeStringChar(c, key)) {
+                    field = key.toString();
+                    state = State.AFTER_KEY;
+                }
+            }
+            case AFTER_KEY -> {
+                if (c == ':') {
+                    state = State.BEFORE_VALUE;
+                }
+            }
+            case BEFORE_VALUE -> {
+                if (c == '"') {
+                    state = State.IN_STRING_VALUE;
+                } else if (!Character.isWhitespace(c)) {
+                    otherDepth = 0;
+                    otherInString = false;
+                    otherEscape = false;
+                    state = State.IN_OTHER_VALUE;
+                    skipOther(c);
+                }
+            }
+            case IN_STRING_VALUE -> {
+                if (decodeStringChar(c, pending)) {
+                    state = State.AFTER_VALUE;
+                    flushPending();
+                    listener.onValueEnd(field);
+                }
+            }
+            case IN_OTHER_VALUE -> skipOther(c);
+            case AFTER_VALUE -> afterValue(c);
+            case DONE -> {
+            }
+        }
+    }
+
+    /**
+     * 解码 JSON 字符串中的一个字符
+     *
+     * @return 是否遇到字符串结束的引号
+     */
+    private boolean decodeStringChar(char c, StringBuilder target) {
+        if (unicodeDigits >= 0) {
+            unicodeValue = (unicodeValue << 4) | Character.digit(c, 16);
+            if (++unicodeDigits == 4) {
+                target.append((char) unicodeValue);
+                unicodeDigits = -1;
+            }
+            return false;
+        }
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case 'n' -> target.append('\n');
+                case 't' -> target.append('\t');
+                case 'r' -> target.append('\r');
+                case 'b' -> target.append('\b');
+                case 'f' -> target.append('\f');
+                case 'u' -> {
+                    unicodeDigits = 0;
+                    unicodeValue = 0;
+                }
+                default -> target.append(c);
+            }
+            return false;
+        }
+        if (c == '\\') {
+            escape = true;
+            return false;
+        }
+        if (c == '"') {
+            return true;
+        }
+        target.append(c);
+        return false;
+    }
+
+    /**
+     * 跳过非字符串值，值结束时处理其后的分隔符
+     */
+    private void skipOther(char c) {
+        if (otherInString) {
+            if (otherEscape) {
+                otherEscape = false;
+            } else if (c == '\\') {
+                otherEscape = true;
+            } else if (c == '"') {
+                otherInString = false;
+            }
+            return;
+        }
+        switch (c) {
+            case '"' -> otherInString = true;
+            case '{', '[' -> otherDepth++;
+            case '}', ']' -> {
+                if (otherDepth == 0) {
+                    state = State.AFTER_VALUE;
+                    afterValue(c);
+                } else {
+                    otherDepth--;
+                }
+            }
+            case ',' -> {
+                if (otherDepth == 0) {
+                    state = State.BEFORE_KEY;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void afterValue(char c) {
+        if (c == ',') {
+            state = State.BEFORE_KEY;
+        } else if (c == '}') {
+            state = State.DONE;
+        }
+    }
+
+    /**
+     * 回调已解码的值片段，末尾的高代理字符留到下次与低代理字符一起回调
+     */
+    private void flushPending() {
+        int length = pending.length();
+        if (length > 0 && state == State.IN_STRING_VALUE && Character.isHighSurrogate(pending.charAt(length - 1))) {
+            length--;
+        }
+        if (length > 0) {
+            listener.onValue(field, pending.substring(0, length));
+            pending.delete(0, length);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.lgk.lgkaicodeservice.ai.tool.stream;
+
+import com.lgk.lgkaicodeservice.ai.model.message.FileContentMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspace;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.StagedFile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 写入文件工具参数的流式处理
+ * 一次 writeFile 调用对应一个实例：文件路径解析完成后，文件内容一边生成一边推送给前端，并预写入临时文件
+ * 要求 relativeFilePath 先于 content 生成，否则不做流式处理，等工具执行后再展示
+ */
+@Slf4j
+public class WriteFileArgumentStreamer implements StreamingJsonObjectParser.Listener {
+
+    private static final String PATH_FIELD = "relativeFilePath";
+
+    private static final String CONTENT_FIELD = "content";
+
+    private final String toolId;
+
+    private final ProjectWorkspace workspace;
+
+    private final StreamingJsonObjectParser parser = new StreamingJsonObjectParser(this);
+
+    private final StringBuilder pathBuilder = new StringBuilder();
+
+    private String relativeFilePath;
+
+    private StagedFile stagedFile;
+
+    private boolean streaming;
+
+    private boolean skipped;
+
+    /**
+     * 本次喂入产生的消息
+     */
+    private final List<StreamMessage> pendingMessages = new ArrayList<>();
+
+    public WriteFileArgumentStreamer(String toolId, ProjectWorkspace workspace) {
+        this.toolId = toolId;
+        this.workspace = workspace;
+    }
+
+    /**
+     * 喂入一段工具参数
+     *
+     * @param partialArguments 参数片段
+     * @return 需要推送的文件内容消息
+     */
+    public List<StreamMessage> feed(String partialArguments) {
+        parser.feed(partialArguments);
+        List<StreamMessage> messages = new ArrayList<>(pendingMessages);
+        pendingMessages.clear();
+        return messages;
+    }
+
+    @Override
+    public void onValue(String field, String chunk) {
+        if (PATH_FIELD.equals(field)) {
+            pathBuilder.append(chunk);
+        } else if (CONTENT_FIELD.equals(field) && start()) {
+            if (stagedFile != null) {
+                try {
+                    stagedFile.append(chunk);
+                } catch (IOException e) {
+                    dropStagedFile(e);
+                }
+            }
+            pendingMessages.add(new FileContentMessage(toolId, relativeFilePath, chunk, false));
+        }
+    }
+
+    @Override
+    public void onValueEnd(String field) {
+        if (PATH_FIELD.equals(field)) {
+            relativeFilePath = pathBuilder.toString();
+        } else if (CONTENT_FIELD.equals(field) && start()) {
+            if (stagedFile != null) {
+                try {
+                    stagedFile.close();
+                } catch (IOException e) {
+                    dropStagedFile(e);
+                }
+            }
+            pendingMessages.add(new FileContentMessage(toolId, relativeFilePath, "", true));
+        }
+    }
+
+    /**
+     * 文件内容开始时创建预写入文件
+     *
+     * @return 是否流式处理该文件
+     */
+    private boolean start() {
+        if (streaming || skipped) {
+            return streaming;
+        }
+        if (relativeFilePath == null) {
+            skipped = true;
+            return false;
+        }
+        streaming = true;
+        try {
+            stagedFile = workspace.stage(relativeFilePath);
+        } catch (IOException | IllegalArgumentException e) {
+            // 预写入失败不影响推送，工具执行时照常写入
+            log.warn("预写入文件失败: {}, {}", relativeFilePath, e.getMessage());
+        }
+        return true;
+    }
+
+    private void dropStagedFile(IOException e) {
+        log.warn("预写入文件失败: {}, {}", relativeFilePath, e.getMessage());
+        stagedFile = null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.lgk.lgkaicodeservice.ai.tool.workspace;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 项目目录树索引
+ * 构建时遍历一次磁盘（跳过忽略的目录），之后由工作区的写入、删除增量维护；
+ * 目录列表渲染结果按目录缓存，文件变化时只失效其所在的各级父目录。
+ */
+@Slf4j
+public class ProjectTreeIndex {
+
+    /**
+     * 需要忽略的文件和目录
+     */
+    private static final Set<String> IGNORED_NAMES = Set.of(
+            "node_modules", ".git", "dist", "build", ".DS_Store",
+            ".env", "target", ".mvn", ".idea", ".vscode", "coverage"
+    );
+
+    /**
+     * 需要忽略的文件扩展名
+     */
+    private static final Set<String> IGNORED_EXTENSIONS = Set.of(
+            ".log", ".tmp", ".cache", ".lock"
+    );
+
+    /**
+     * 按深度、再按路径排序
+     */
+    private static final Comparator<Entry> DISPLAY_ORDER =
+            Comparator.comparingInt(Entry::depth).thenComparing(Entry::path);
+
+    /**
+     * 项目内的所有文件，相对路径（/ 分隔）
+     */
+    private final NavigableSet<String> files = new ConcurrentSkipListSet<>();
+
+    /**
+     * 目录渲染缓存，key 为目录相对路径（根目录为空串）
+     */
+    private final Map<String, String> renderCache = new ConcurrentHashMap<>();
+
+    /**
+     * 修改计数，用于丢弃渲染期间发生修改的结果
+     */
+    private final AtomicLong modCount = new AtomicLong();
+
+    /**
+     * 遍历磁盘构建索引
+     *
+     * @param root 项目根目录
+     */
+    public static ProjectTreeIndex build(Path root) throws IOException {
+        ProjectTreeIndex index = new ProjectTreeIndex();
+        if (!Files.isDirectory(root)) {
+            return index;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(root) && isIgnored(dir.getFileName().toString())
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !isIgnored(file.getFileName().toString())) {
+                    index.files.add(root.relativize(file).toString().replace('\\', '/'));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        log.debug("目录树索引构建完成: {}，共 {} 个文件", root, index.files.size());
+        return index;
+    }
+
+    /**
+     * 判断是否应该忽略该文件或目录
+     */
+    public static boolean isIgnored(String fileName) {
+        return IGNORED_NAMES.contains(fileName) || IGNORED_EXTENSIONS.stream().anyMatch(fileName::endsWith);
+    }
+
+    /**
+     * 记录新增或修改的文件
+     */
+    public void add(String relativePath) {
+        if (isIgnoredPath(relativePath)) {
+            return;
+        }
+        if (files.add(relativePath)) {
+            invalidate(relativePath);
+        }
+    }
+
+    /**
+     * 记录删除的文件
+     */
+    public void remove(String relativePath) {
+        if (files.remove(relativePath)) {
+            invalidate(relativePath);
+        }
+    }
+
+    /**
+     * 目录下是否有文件
+     */
+    public boolean containsDirectory(String relativeDir) {
+        if (relativeDir.isEmpty()) {
+            return true;
+        }
+        String prefix = relativeDir + "/";
+        String next = files.ceiling(prefix);
+        return next != null && next.startsWith(prefix);
+    }
+
+    /**
+     * 渲染目录下所有文件（递归），每行按相对深度缩进显示文件名
+     *
+     * @param relativeDir 目录相对路径（根目录为空串）
+     * @return 目录结构
+     */
+    public String render(String relativeDir) {
+        String cached = renderCache.get(relativeDir);
+        if (cached != null) {
+            return cached;
+        }
+        long expectedModCount = modCount.get();
+        String prefix = relativeDir.isEmpty() ? "" : relativeDir + "/";
+        List<Entry> entries = new ArrayList<>();
+        for (String path : prefix.isEmpty() ? files : files.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            String relative = path.substring(prefix.length());
+            entries.add(new Entry(path, relative.length() - relative.replace("/", "").length(),
+                    relative.substring(relative.lastIndexOf('/') + 1)));
+        }
+        entries.sort(DISPLAY_ORDER);
+        StringBuilder structure = new StringBuilder("项目目录结构:\n");
+        for (Entry entry : entries) {
+            structure.append("  ".repeat(entry.depth())).append(entry.name()).append('\n');
+        }
+        String rendered = structure.toString();
+        if (modCount.get() == expectedModCount) {
+            renderCache.put(relativeDir, rendered);
+            // 写入缓存的同时发生了修改，撤销这次缓存
+            if (modCount.get() != expectedModCount) {
+                renderCache.remove(relativeDir, rendered);
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * 失效文件所在的各级目录的渲染缓存
+     */
+    private void invalidate(String relativePath) {
+        modCount.incrementAndGet();
+        int index = relativePath.lastIndexOf('/');
+        while (index > 0) {
+            renderCache.remove(relativePath.substring(0, index));
+            index = relativePath.lastIndexOf('/', index - 1);
+        }
+        renderCache.remove("");
+    }
+
+    private static boolean isIgnoredPath(String relativePath) {
+        for (String name : relativePath.split("/")) {
+            if (isIgnored(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Entry(String path, int depth, String name) {
+    }
+}
@@ -0,0 +1,357 @@
+package com.lgk.lgkaicodeservice.ai.tool.workspace;
+
+import cn.hutool.core.io.FileUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 项目工作区（写时复制）
+ * 工具的读写都在内存中进行：修改和删除记录在覆盖层中，未修改的文件读穿到磁盘并缓存；
+ * 一轮对话结束（或构建前）再一次性落盘，失败的一轮直接丢弃覆盖层，不会留下写了一半的项目。
+ */
+@Slf4j
+public class ProjectWorkspace {
+
+    /**
+     * 预写入临时文件所在的暂存目录（与项目目录同级，保证原子移动在同一文件系统内）
+     */
+    private static final String STAGING_DIR_NAME = ".staging";
+
+    /**
+     * 项目根目录
+     */
+    @Getter
+    private final Path root;
+
+    /**
+     * 已修改的文件，key 为相对路径（/ 分隔）
+     */
+    private final Map<String, String> dirtyFiles = new ConcurrentHashMap<>();
+
+    /**
+     * 已删除的文件
+     */
+    private final Set<String> deletedFiles = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 读取过的未修改文件
+     */
+    private final Map<String, String> cleanFiles = new ConcurrentHashMap<>();
+
+    /**
+     * 目录树索引，沿用上一轮落盘后的索引，没有则在首次读取目录时构建
+     */
+    private volatile ProjectTreeIndex treeIndex;
+
+    private final Object treeIndexLock = new Object();
+
+    /**
+     * 工具参数流式生成时预写入的临时文件
+     */
+    private final Map<String, StagedFile> stagedFiles = new ConcurrentHashMap<>();
+
+    public ProjectWorkspace(Path root) {
+        this(root, null);
+    }
+
+    /**
+     * @param treeIndex 与磁盘一致的目录树索引，为空则首次读取目录时构建
+     */
+    public ProjectWorkspace(Path root, ProjectTreeIndex treeIndex) {
+        this.root = root.toAbsolutePath().normalize();
+        this.treeIndex = treeIndex;
+    }
+
+    /**
+     * 规范化为项目内的相对路径
+     *
+     * @throws IllegalArgumentException 路径超出项目目录
+     */
+    public String normalize(String path) {
+        Path resolved = root.resolve(path == null ? "" : path).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IllegalArgumentException("路径超出项目目录 - " + path);
+        }
+        return root.relativize(resolved).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * 读取文件内容，文件不存在时返回 null
+     */
+    public String read(String relativePath) throws IOException {
+        String key = normalize(relativePath);
+        String dirty = dirtyFiles.get(key);
+        if (dirty != null) {
+            return dirty;
+        }
+        if (deletedFiles.contains(key)) {
+            return null;
+        }
+        String clean = cleanFiles.get(key);
+        if (clean != null) {
+            return clean;
+        }
+        Path path = root.resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        String content = Files.readString(path);
+        cleanFiles.put(key, content);
+        return content;
+    }
+
+    /**
+     * 写入文件（仅内存）
+     */
+    public void write(String relativePath, String content) {
+        String key = normalize(relativePath);
+        StagedFile staged = stagedFiles.get(key);
+        if (staged != null && !staged.matches(content)) {
+            stagedFiles.remove(key, staged);
+            staged.discard();
+        }
+        dirtyFiles.put(key, content);
+        deletedFiles.remove(key);
+        cleanFiles.remove(key);
+        synchronized (treeIndexLock) {
+            if (treeIndex != null) {
+                treeIndex.add(key);
+            }
+        }
+    }
+
+    /**
+     * 删除文件（仅内存）
+     *
+     * @return 文件原本是否存在
+     */
+    public boolean delete(String relativePath) {
+        String key = normalize(relativePath);
+        boolean existed = dirtyFiles.remove(key) != null || (!deletedFiles.contains(key) && Files.isRegularFile(root.resolve(key)));
+        cleanFiles.remove(key);
+        if (Files.exists(root.resolve(key))) {
+            deletedFiles.add(key);
+        }
+        synchronized (treeIndexLock) {
+            if (treeIndex != null) {
+                treeIndex.remove(key);
+            }
+        }
+        return existed;
+    }
+
+    /**
+     * 文件是否存在（合并覆盖层）
+     */
+    public boolean isFile(String relativePath) {
+        String key = normalize(relativePath);
+        if (dirtyFiles.containsKey(key)) {
+            return true;
+        }
+        return !deletedFiles.contains(key) && Files.isRegularFile(root.resolve(key));
+    }
+
+    /**
+     * 目录是否存在（合并覆盖层）
+     */
+    public boolean isDirectory(String relativePath) {
+        String key = normalize(relativePath);
+        if (key.isEmpty() || Files.isDirectory(root.resolve(key))) {
+            return true;
+        }
+        String prefix = key + "/";
+        return dirtyFiles.keySet().stream().anyMatch(path -> path.startsWith(prefix));
+    }
+
+    /**
+     * 获取目录树索引（合并覆盖层），首次调用时遍历磁盘构建
+     */
+    public ProjectTreeIndex getTreeIndex() throws IOException {
+        ProjectTreeIndex index = treeIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (treeIndexLock) {
+            if (treeIndex == null) {
+                index = ProjectTreeIndex.build(root);
+                deletedFiles.forEach(index::remove);
+                dirtyFiles.keySet().forEach(index::add);
+                treeIndex = index;
+            }
+            return treeIndex;
+        }
+    }
+
+    /**
+     * 已构建的目录树索引，未构建时返回 null
+     */
+    ProjectTreeIndex peekTreeIndex() {
+        return treeIndex;
+    }
+
+    /**
+     * 为文件创建预写入的临时文件，临时文件位于项目目录外的暂存目录，落盘前不影响项目
+     *
+     * @param relativePath 目标文件相对路径
+     * @return 预写入文件
+     */
+    public StagedFile stage(String relativePath) throws IOException {
+        String key = normalize(relativePath);
+        Path stagingDir = root.resolveSibling(STAGING_DIR_NAME);
+        Files.createDirectories(stagingDir);
+        StagedFile staged = new StagedFile(Files.createTempFile(stagingDir, root.getFileName() + ".", ".tmp"));
+        StagedFile previous = stagedFiles.put(key, staged);
+        if (previous != null) {
+            previous.discard();
+        }
+        return staged;
+    }
+
+    /**
+     * 删除所有预写入的临时文件
+     */
+    public void discardStaged() {
+        stagedFiles.values().forEach(StagedFile::discard);
+        stagedFiles.clear();
+    }
+
+    /**
+     * 是否有未落盘的修改
+     */
+    public boolean isDirty() {
+        return !dirtyFiles.isEmpty() || !deletedFiles.isEmpty();
+    }
+
+    /**
+     * 一次性落盘：先把所有修改写入临时文件，全部成功后再替换和删除文件
+     * 被替换和删除的原文件先移到备份目录，中途失败时按备份回滚，项目保持落盘前的状态
+     */
+    public synchronized void flush() throws IOException {
+        if (!isDirty()) {
+            discardStaged();
+            return;
+        }
+        Map<Path, Path> staged = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, String> entry : dirtyFiles.entrySet()) {
+                Path target = root.resolve(entry.getKey());
+                Files.createDirectories(target.getParent());
+                StagedFile stagedFile = stagedFiles.remove(entry.getKey());
+                if (stagedFile != null && stagedFile.matches(entry.getValue())) {
+                    // 流式生成时已写好的临时文件直接使用
+                    staged.put(stagedFile.getPath(), target);
+                    continue;
+                }
+                if (stagedFile != null) {
+                    stagedFile.discard();
+                }
+                Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+                Files.writeString(temp, entry.getValue(), StandardCharsets.UTF_8);
+                staged.put(temp, target);
+            }
+        } catch (IOException e) {
+            deleteQuietly(staged.keySet());
+            discardStaged();
+            throw e;
+        }
+        discardStaged();
+        Path stagingDir = root.resolveSibling(STAGING_DIR_NAME);
+        Files.createDirectories(stagingDir);
+        Path backupDir = Files.createTempDirectory(stagingDir, root.getFileName() + ".backup.");
+        // 已移到备份目录的原文件（原路径 -> 备份路径）和已替换为新内容的文件，按发生顺序记录，用于回滚
+        Map<Path, Path> backups = new LinkedHashMap<>();
+        List<Path> replaced = new ArrayList<>();
+        try {
+            for (Map.Entry<Path, Path> entry : staged.entrySet()) {
+                backup(entry.getValue(), backupDir, backups);
+                move(entry.getKey(), entry.getValue());
+                replaced.add(entry.getValue());
+            }
+            for (String deleted : deletedFiles) {
+                backup(root.resolve(deleted), backupDir, backups);
+            }
+        } catch (IOException e) {
+            rollback(replaced, backups, backupDir, e);
+            deleteQuietly(staged.keySet());
+            throw e;
+        }
+        FileUtil.del(backupDir);
+        log.info("工作区落盘完成: {}，写入 {} 个文件，删除 {} 个文件", root, staged.size(), deletedFiles.size());
+        dirtyFiles.clear();
+        deletedFiles.clear();
+    }
+
+    /**
+     * 把将被替换或删除的原文件移到备份目录
+     */
+    private void backup(Path target, Path backupDir, Map<Path, Path> backups) throws IOException {
+        if (!Files.isRegularFile(target)) {
+            return;
+        }
+        Path backup = backupDir.resolve(root.relativize(target).toString());
+        Files.createDirectories(backup.getParent());
+        move(target, backup);
+        backups.put(target, backup);
+    }
+
+    /**
+     * 删除已写入的新文件，再把备份的原文件移回原处；回滚失败的文件保留在备份目录中
+     */
+    private void rollback(List<Path> replaced, Map<Path, Path> backups, Path backupDir, IOException cause) {
+        for (Path target : replaced) {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+            }
+        }
+        boolean restored = true;
+        for (Map.Entry<Path, Path> entry : backups.entrySet()) {
+            try {
+                move(entry.getValue(), entry.getKey());
+            } catch (IOException e) {
+                restored = false;
+                cause.addSuppressed(e);
+            }
+        }
+        if (restored) {
+            FileUtil.del(backupDir);
+        }
+        log.error("工作区落盘失败，已回滚: {}，{}", root, restored ? "原文件已全部恢复" : "部分原文件保留在备份目录中");
+    }
+
+    /**
+     * 原子移动，文件系统不支持时退回普通移动
+     */
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Iterable<Path> paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // 残留的临时文件不影响项目
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.lgk.lgkaicodeservice.ai.tool.workspace;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lgk.lgkaicodeservice.constant.AppConstant;
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import com.lgk.lgkaicodeservice.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 项目工作区管理器
+ * 每个 Vue 项目（按 appId）在一轮对话内共用一个内存工作区，轮次结束时落盘或丢弃；
+ * 落盘后与磁盘一致的目录树索引保留到下一轮，无需重新遍历项目目录
+ */
+@Slf4j
+@Component
+public class ProjectWorkspaceManager {
+
+    private final Map<Long, ProjectWorkspace> workspaces = new ConcurrentHashMap<>();
+
+    /**
+     * 跨轮次保留的目录树索引，长时间未使用的过期后重新构建
+     */
+    private final Cache<Long, ProjectTreeIndex> treeIndexes = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    /**
+     * 获取应用的工作区，不存在则创建
+     *
+     * @param appId 应用 ID
+     * @return 工作区
+     */
+    public ProjectWorkspace getWorkspace(Long appId) {
+        return workspaces.computeIfAbsent(appId, id ->
+                new ProjectWorkspace(Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, "vue_project_" + id),
+                        treeIndexes.getIfPresent(id)));
+    }
+
+    /**
+     * 将工作区的修改落盘并释放工作区，目录树索引已随写入更新，保留到下一轮
+     *
+     * @param appId 应用 ID
+     */
+    public void flush(Long appId) {
+        ProjectWorkspace workspace = workspaces.remove(appId);
+        if (workspace == null) {
+            return;
+        }
+        try {
+            workspace.flush();
+        } catch (IOException e) {
+            // 落盘已回滚，索引记录了未落盘的修改，不再可信
+            treeIndexes.invalidate(appId);
+            log.error("工作区落盘失败, appId: {}, {}", appId, e.getMessage(), e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "保存项目文件失败");
+        }
+        keepTreeIndex(appId, workspace);
+    }
+
+    /**
+     * 丢弃工作区中未落盘的修改
+     *
+     * @param appId 应用 ID
+     */
+    public void discard(Long appId) {
+        ProjectWorkspace workspace = workspaces.remove(appId);
+        if (workspace == null) {
+            return;
+        }
+        workspace.discardStaged();
+        if (workspace.isDirty()) {
+            // 索引已记录了被丢弃的修改
+            treeIndexes.invalidate(appId);
+            log.info("丢弃应用 {} 未落盘的工作区修改", appId);
+            return;
+        }
+        keepTreeIndex(appId, workspace);
+    }
+
+    private void keepTreeIndex(Long appId, ProjectWorkspace workspace) {
+        ProjectTreeIndex treeIndex = workspace.peekTreeIndex();
+        if (treeIndex != null) {
+            treeIndexes.put(appId, treeIndex);
+        }
+    }
+}
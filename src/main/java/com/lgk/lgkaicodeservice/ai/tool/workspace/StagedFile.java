@@ -0,0 +1,110 @@
+package com.lgk.lgkaicodeservice.ai.tool.workspace;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 预写入的临时文件
+ * 工具参数还在流式生成时就把文件内容写入临时文件；工具执行写入相同内容后，落盘时直接把临时文件原子移动到目标位置
+ */
+public class StagedFile implements Closeable {
+
+    /**
+     * 临时文件路径
+     */
+    @Getter
+    private final Path path;
+
+    private final Writer writer;
+
+    /**
+     * 已写入内容的 UTF-8 摘要，用于判断与最终写入的内容是否一致
+     */
+    private final MessageDigest digest = newDigest();
+
+    /**
+     * 分块末尾的高位代理字符，与下一块的低位代理字符一起编码
+     */
+    private final StringBuilder pendingSurrogate = new StringBuilder(1);
+
+    /**
+     * 写入完毕后的内容摘要
+     */
+    private volatile byte[] contentDigest;
+
+    private volatile boolean closed;
+
+    StagedFile(Path path) throws IOException {
+        this.path = path;
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 追加内容
+     */
+    public void append(String chunk) throws IOException {
+        writer.write(chunk);
+        String text = pendingSurrogate.isEmpty() ? chunk : pendingSurrogate + chunk;
+        pendingSurrogate.setLength(0);
+        if (!text.isEmpty() && Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pendingSurrogate.append(text.charAt(text.length() - 1));
+            text = text.substring(0, text.length() - 1);
+        }
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 内容写入完毕
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            writer.close();
+            // 关闭失败时没有摘要，不会被当作完整写入
+            digest.update(pendingSurrogate.toString().getBytes(StandardCharsets.UTF_8));
+            contentDigest = digest.digest();
+        }
+    }
+
+    /**
+     * 是否已完整写入指定内容
+     */
+    boolean matches(String content) {
+        byte[] expected = contentDigest;
+        return expected != null
+                && MessageDigest.isEqual(expected, newDigest().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 删除临时文件
+     */
+    void discard() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            // 临时文件即将删除，关闭失败无影响
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 残留的临时文件不影响项目
+        }
+    }
+}
@@ -1,29 +1,42 @@
 package com.lgk.lgkaicodeservice.code;
 
-import cn.hutool.json.JSONUtil;
 import com.lgk.lgkaicodeservice.ai.AiCodeGeneratorService;
 import com.lgk.lgkaicodeservice.ai.AiCodeGeneratorServiceFactory;
 import com.lgk.lgkaicodeservice.ai.model.entity.HtmlCodeResult;
 import com.lgk.lgkaicodeservice.ai.model.entity.MultiFileCodeResult;
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
 import com.lgk.lgkaicodeservice.ai.model.message.AiResponseMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.BuildProgressMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
 import com.lgk.lgkaicodeservice.ai.model.message.ToolExecutedMessage;
 import com.lgk.lgkaicodeservice.ai.model.message.ToolRequestMessage;
-import com.lgk.lgkaicodeservice.code.builder.VueProjectBuilder;
-import com.lgk.lgkaicodeservice.code.parser.CodeParserExecutor;
+import com.lgk.lgkaicodeservice.ai.tool.FileWriteTool;
+import com.lgk.lgkaicodeservice.ai.tool.stream.WriteFileArgumentStreamer;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspaceManager;
+import com.lgk.lgkaicodeservice.code.builder.VueBuildJob;
+import com.lgk.lgkaicodeservice.code.builder.VueBuildScheduler;
 import com.lgk.lgkaicodeservice.constant.AppConstant;
 import com.lgk.lgkaicodeservice.exception.BusinessException;
 import com.lgk.lgkaicodeservice.exception.ErrorCode;
 import com.lgk.lgkaicodeservice.code.saver.CodeFileSaverExecutor;
+import com.lgk.lgkaicodeservice.code.saver.CodePersistenceStage;
+import com.lgk.lgkaicodeservice.code.saver.StreamingCodeFileWriter;
 import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
 import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.tool.ToolExecution;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * AI 代码生成外观类，组合生成和保存功能
@@ -39,7 +52,16 @@ public class AiCodeGeneratorFacade {
     private AiCodeGeneratorServiceFactory aiCodeGeneratorServiceFactory;
 
     @Resource
-    private VueProjectBuilder vueProjectBuilder;
+    private VueBuildScheduler vueBuildScheduler;
+
+    @Resource
+    private CodePersistenceStage codePersistenceStage;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Resource
+    private FileWriteTool fileWriteTool;
 
     /**
      * 统一入口：根据类型生成并保存代码（使用 appId）
@@ -58,11 +80,11 @@ public class AiCodeGeneratorFacade {
 
         return switch (codeGenTypeEnum) {
             case HTML -> {
-                HtmlCodeResult result = aiCodeGeneratorService.generateHtmlCode(userMessage);
+                HtmlCodeResult result = aiCodeGeneratorService.generateHtmlCode(appId, userMessage);
                 yield CodeFileSaverExecutor.executeSaver(result, CodeGenTypeEnum.HTML, appId);
             }
             case MULTI_FILE -> {
-                MultiFileCodeResult result = aiCodeGeneratorService.generateMultiFileCode(userMessage);
+                MultiFileCodeResult result = aiCodeGeneratorService.generateMultiFileCode(appId, userMessage);
                 yield CodeFileSaverExecutor.executeSaver(result, CodeGenTypeEnum.MULTI_FILE, appId);
             }
             default -> {
@@ -78,8 +100,39 @@ public class AiCodeGeneratorFacade {
      * @param userMessage     用户提示词
      * @param codeGenTypeEnum 生成类型
      * @param appId           应用 ID
+     * @return 类型化的流式消息
+     */
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+        return generateAndSaveCodeStream(userMessage, codeGenTypeEnum, appId, usage -> {
+        });
+    }
+
+    /**
+     * 统一入口：根据类型生成并保存代码（流式，使用 appId），生成结束时回调模型返回的 token 用量
+     *
+     * @param userMessage     用户提示词
+     * @param codeGenTypeEnum 生成类型
+     * @param appId           应用 ID
+     * @param usageConsumer   token 用量回调，模型未返回用量时收到 null
+     * @return 类型化的流式消息
+     */
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId,
+                                                         Consumer<TokenUsage> usageConsumer) {
+        return generateAndSaveCodeStream(userMessage, codeGenTypeEnum, appId, false, usageConsumer);
+    }
+
+    /**
+     * 统一入口：根据类型生成并保存代码（流式，使用 appId），生成结束时回调模型返回的 token 用量
+     *
+     * @param userMessage     用户提示词
+     * @param codeGenTypeEnum 生成类型
+     * @param appId           应用 ID
+     * @param repair          是否为定向修复，修复时只输出出错的文件，多文件模式允许不输出 HTML
+     * @param usageConsumer   token 用量回调，模型未返回用量时收到 null
+     * @return 类型化的流式消息
      */
-    public Flux<String> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId,
+                                                         boolean repair, Consumer<TokenUsage> usageConsumer) {
         if (codeGenTypeEnum == null) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成类型为空");
         }
@@ -88,16 +141,16 @@ public class AiCodeGeneratorFacade {
         AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(appId, codeGenTypeEnum);
         return switch (codeGenTypeEnum) {
             case HTML -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.HTML, appId);
+                TokenStream tokenStream = aiCodeGeneratorService.generateHtmlCodeStream(appId, userMessage);
+                yield processCodeStream(toTextFlux(tokenStream, usageConsumer), CodeGenTypeEnum.HTML, appId, repair);
             }
             case MULTI_FILE -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.MULTI_FILE, appId);
+                TokenStream tokenStream = aiCodeGeneratorService.generateMultiFileCodeStream(appId, userMessage);
+                yield processCodeStream(toTextFlux(tokenStream, usageConsumer), CodeGenTypeEnum.MULTI_FILE, appId, repair);
             }
             case VUE_PROJECT -> {
                 TokenStream tokenStream = aiCodeGeneratorService.generateVueProjectCodeStream(appId, userMessage);
-                yield processTokenStream(tokenStream, appId);
+                yield processTokenStream(tokenStream, appId, usageConsumer);
             }
             default -> {
                 String errorMessage = "不支持的生成类型：" + codeGenTypeEnum.getValue();
@@ -107,63 +160,109 @@ public class AiCodeGeneratorFacade {
 
     }
 
+    /**
+     * 将纯文本生成的 TokenStream 转换为 Flux<String>
+     * 下游取消（如浏览器断开）时取消 TokenStream，中止进行中的模型请求
+     *
+     * @param tokenStream   TokenStream 对象
+     * @param usageConsumer token 用量回调
+     * @return 文本片段流
+     */
+    private Flux<String> toTextFlux(TokenStream tokenStream, Consumer<TokenUsage> usageConsumer) {
+        return Flux.create(sink -> {
+            sink.onCancel(tokenStream::cancel);
+            tokenStream.onPartialResponse(sink::next)
+                    .onCompleteResponse(response -> {
+                        usageConsumer.accept(response.tokenUsage());
+                        sink.complete();
+                    })
+                    .onError(sink::error)
+                    .start();
+        });
+    }
+
     /**
      * 通用流式代码处理方法（使用 appId）
+     * 边接收边解析代码块，文件写入交给持久化阶段，全部落盘后流才结束
      *
      * @param codeStream  代码流
      * @param codeGenType 代码生成类型
      * @param appId       应用 ID
+     * @param repair      是否为定向修复
      * @return 流式响应
      */
-    private Flux<String> processCodeStream(Flux<String> codeStream, CodeGenTypeEnum codeGenType, Long appId) {
-        StringBuilder codeBuilder = new StringBuilder();
-        return codeStream.doOnNext(chunk -> {
-            // 实时收集代码片段
-            codeBuilder.append(chunk);
-        }).doOnComplete(() -> {
-            // 流式返回完成后保存代码
-            try {
-                String completeCode = codeBuilder.toString();
-                // 使用执行器解析代码
-                Object parsedResult = CodeParserExecutor.executeParser(completeCode, codeGenType);
-                // 使用执行器保存代码
-                File savedDir = CodeFileSaverExecutor.executeSaver(parsedResult, codeGenType, appId);
-                log.info("保存成功，路径为：" + savedDir.getAbsolutePath());
-            } catch (Exception e) {
-                log.error("保存失败: {}", e.getMessage());
-            }
-        });
+    private Flux<StreamMessage> processCodeStream(Flux<String> codeStream, CodeGenTypeEnum codeGenType, Long appId, boolean repair) {
+        StreamingCodeFileWriter fileWriter = new StreamingCodeFileWriter(codeGenType, appId, repair, codePersistenceStage.openLane());
+        return codeStream.concatMapIterable(chunk -> {
+                    List<StreamMessage> messages = new ArrayList<>();
+                    messages.add(new AiResponseMessage(chunk));
+                    // 实时解析代码块并提交写入
+                    messages.addAll(fileWriter.write(chunk));
+                    return messages;
+                })
+                .concatWith(Flux.defer(() -> {
+                    // 闭合剩余文件，并等待全部落盘后再结束流（SSE done 事件在此之后发送）
+                    List<StreamMessage> messages = fileWriter.finish();
+                    return Flux.fromIterable(messages)
+                            .concatWith(Mono.fromFuture(fileWriter.completion())
+                                    .doOnSuccess(ignored -> log.info("保存成功，路径为：" + fileWriter.getBaseDir().getAbsolutePath()))
+                                    .then(Mono.<StreamMessage>empty()));
+                }))
+                .doOnError(error -> {
+                    log.error("保存失败: {}", error.getMessage());
+                    fileWriter.abort();
+                })
+                .doOnCancel(fileWriter::abort);
     }
 
     /**
-     * 将 TokenStream 转换为 Flux<String>，并传递工具调用信息
+     * 将 TokenStream 转换为 Flux<StreamMessage>，并传递工具调用信息
+     * 消息以对象形式向下游传递，不在此处做 JSON 序列化
+     * SSE 出口的帧合并器对上游不限需求、在自身缓冲中合并文本，慢客户端不会使此处的缓冲积压
+     * 下游取消时取消 TokenStream：中止进行中的模型请求，未执行的工具不再执行，也不再发起后续请求
      *
-     * @param tokenStream TokenStream 对象
-     * @return Flux<String> 流式响应
+     * @param tokenStream   TokenStream 对象
+     * @param usageConsumer token 用量回调，用量为包含工具调用在内的多轮请求之和
+     * @return Flux<StreamMessage> 流式响应
      */
-    private Flux<String> processTokenStream(TokenStream tokenStream,Long appId) {
+    private Flux<StreamMessage> processTokenStream(TokenStream tokenStream, Long appId, Consumer<TokenUsage> usageConsumer) {
         return Flux.create(sink -> {
+            // 写入文件的工具调用按工具 ID 流式解析参数
+            Map<String, WriteFileArgumentStreamer> writeFileStreamers = new HashMap<>();
+            sink.onCancel(() -> {
+                tokenStream.cancel();
+                // 未完成的一轮不落盘
+                projectWorkspaceManager.discard(appId);
+            });
             tokenStream.onPartialResponse((String partialResponse) -> {
-                        AiResponseMessage aiResponseMessage = new AiResponseMessage(partialResponse);
-                        sink.next(JSONUtil.toJsonStr(aiResponseMessage));
+                        sink.next(new AiResponseMessage(partialResponse));
                     })
                     .onPartialToolExecutionRequest((index, toolExecutionRequest) -> {
-                        ToolRequestMessage toolRequestMessage = new ToolRequestMessage(toolExecutionRequest);
-                        sink.next(JSONUtil.toJsonStr(toolRequestMessage));
+                        sink.next(new ToolRequestMessage(toolExecutionRequest));
+                        if (fileWriteTool.getToolName().equals(toolExecutionRequest.name()) && toolExecutionRequest.id() != null) {
+                            // 文件内容边生成边推送并预写入，不必等整个工具调用生成完
+                            writeFileStreamers.computeIfAbsent(toolExecutionRequest.id(), toolId ->
+                                            new WriteFileArgumentStreamer(toolId, projectWorkspaceManager.getWorkspace(appId)))
+                                    .feed(toolExecutionRequest.arguments())
+                                    .forEach(sink::next);
+                        }
                     })
                     .onToolExecuted((ToolExecution toolExecution) -> {
-                        ToolExecutedMessage toolExecutedMessage = new ToolExecutedMessage(toolExecution);
-                        sink.next(JSONUtil.toJsonStr(toolExecutedMessage));
+                        sink.next(new ToolExecutedMessage(toolExecution));
                     })
                     .onCompleteResponse((ChatResponse response) -> {
-                        // 执行 Vue 项目构建（同步执行，确保预览时项目已就绪）
+                        usageConsumer.accept(response.tokenUsage());
+                        // 本轮工具修改一次性落盘（构建提交时完成），再提交 Vue 项目构建，进度以事件推送，构建结束后再结束流（确保预览时项目已就绪）
                         String projectPath = AppConstant.CODE_OUTPUT_ROOT_DIR + File.separator + "vue_project_" + appId;
-                        vueProjectBuilder.buildProject(projectPath);
-                        sink.complete();
+                        VueBuildJob buildJob = vueBuildScheduler.submit(appId, projectPath);
+                        buildJob.subscribe(status -> sink.next(new BuildProgressMessage(status)));
+                        buildJob.getResult().whenComplete((success, error) -> sink.complete());
                     })
 
                     .onError((Throwable error) -> {
                         error.printStackTrace();
+                        // 失败的一轮丢弃工作区修改，不留下写了一半的项目
+                        projectWorkspaceManager.discard(appId);
                         sink.error(error);
                     })
                     .start();
@@ -0,0 +1,151 @@
+package com.lgk.lgkaicodeservice.code.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 项目构建清单（.build-manifest.json）
+ * 记录上次成功构建时的依赖哈希与源码哈希，用于跳过未变化的 npm install / npm run build
+ */
+@Data
+@Slf4j
+public class BuildManifest {
+
+    public static final String MANIFEST_FILE = ".build-manifest.json";
+
+    private static final String PACKAGE_JSON = "package.json";
+
+    private static final String PACKAGE_LOCK = "package-lock.json";
+
+    /**
+     * 不参与源码哈希的文件和目录
+     */
+    private static final Set<String> SOURCE_EXCLUDES = Set.of(
+            "node_modules", "dist", ".git", MANIFEST_FILE, PACKAGE_LOCK
+    );
+
+    /**
+     * package.json 与 lockfile 的哈希
+     */
+    private String dependencyHash;
+
+    /**
+     * 源码文件（相对路径 + 内容）的哈希
+     */
+    private String sourceHash;
+
+    /**
+     * 构建完成时间戳
+     */
+    private Long buildTime;
+
+    /**
+     * 读取项目的构建清单
+     *
+     * @param projectDir 项目目录
+     * @return 构建清单，不存在或损坏时返回 null
+     */
+    public static BuildManifest read(File projectDir) {
+        File manifestFile = new File(projectDir, MANIFEST_FILE);
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+        try {
+            return JSONUtil.toBean(FileUtil.readUtf8String(manifestFile), BuildManifest.class);
+        } catch (Exception e) {
+            log.warn("构建清单损坏，忽略: {}", manifestFile.getAbsolutePath());
+            return null;
+        }
+    }
+
+    /**
+     * 写入构建清单
+     */
+    public void write(File projectDir) {
+        FileUtil.writeUtf8String(JSONUtil.toJsonStr(this), new File(projectDir, MANIFEST_FILE));
+    }
+
+    /**
+     * 删除构建清单（构建失败时调用，避免旧产物被误判为最新）
+     */
+    public static void delete(File projectDir) {
+        FileUtil.del(new File(projectDir, MANIFEST_FILE));
+    }
+
+    /**
+     * 计算依赖哈希：package.json 与 lockfile（如存在）的 SHA-256
+     */
+    public static String dependencyHash(File projectDir) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(Files.readAllBytes(projectDir.toPath().resolve(PACKAGE_JSON)));
+        Path lockFile = projectDir.toPath().resolve(PACKAGE_LOCK);
+        if (Files.exists(lockFile)) {
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(lockFile));
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    /**
+     * 计算源码哈希：按相对路径排序后依次计入路径与内容
+     */
+    public static String sourceHash(File projectDir) throws IOException {
+        Path root = projectDir.toPath();
+        List<Path> files = new ArrayList<>();
+        // 排除的目录整体跳过，不遍历 node_modules、dist 下的文件
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return isExcluded(root.relativize(dir)) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (Files.isRegularFile(file) && !isExcluded(root.relativize(file))) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.sort(Comparator.naturalOrder());
+        MessageDigest digest = newDigest();
+        for (Path file : files) {
+            String relativePath = root.relativize(file).toString().replace(File.separatorChar, '/');
+            digest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(file));
+            digest.update((byte) 0);
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    private static boolean isExcluded(Path relativePath) {
+        return relativePath.getNameCount() > 0 && SOURCE_EXCLUDES.contains(relativePath.getName(0).toString());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.lgk.lgkaicodeservice.code.builder;
+
+import cn.hutool.core.io.FileUtil;
+import com.lgk.lgkaicodeservice.constant.AppConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * 按内容寻址的 node_modules 共享存储
+ * 以 package.json（及 lockfile）的哈希为键，同一份依赖只安装一次，之后以符号链接挂到各个项目下；
+ * 存储总量超过磁盘预算时按最近使用时间淘汰。
+ * 构建期间通过 {@link #retain} 持有条目的引用，有引用的条目不会被淘汰；
+ * 未在构建的项目中的链接可能因淘汰而失效，下次构建时会检测到并重新安装。
+ */
+@Slf4j
+@Component
+public class NodeModulesStore {
+
+    private static final String NODE_MODULES = "node_modules";
+
+    private static final String PACKAGE_JSON = "package.json";
+
+    private static final String PACKAGE_LOCK = "package-lock.json";
+
+    /**
+     * 安装完成标记，同时记录占用字节数；其修改时间即最近使用时间
+     */
+    private static final String READY_MARKER = ".ready";
+
+    private static final String STAGING_SUFFIX = ".installing";
+
+    @Value("${vue.build.npm-store.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 存储磁盘预算（MB）
+     */
+    @Value("${vue.build.npm-store.max-size-mb:5120}")
+    private long maxSizeMb;
+
+    /**
+     * 每份依赖一把锁，避免并发安装同一份依赖
+     */
+    private final Map<String, ReentrantLock> entryLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 每份依赖被正在进行的构建引用的次数，在对应条目的锁内修改
+     */
+    private final Map<String, Integer> references = new ConcurrentHashMap<>();
+
+    /**
+     * 持有一份依赖的引用，持有期间该条目不会被淘汰
+     * 若该条目正在被淘汰，会等待淘汰完成后再返回
+     *
+     * @param hash 依赖哈希
+     * @return 释放引用的方法，只能调用一次
+     */
+    public Runnable retain(String hash) {
+        ReentrantLock lock = entryLocks.computeIfAbsent(hash, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            references.merge(hash, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+        return () -> {
+            lock.lock();
+            try {
+                references.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    /**
+     * 为项目准备 node_modules：命中存储直接链接，否则在存储中安装一次后链接
+     *
+     * @param projectDir 项目目录
+     * @param installer  在给定目录执行 npm install 的方法
+     * @return 是否已就绪；返回 false 时调用方应回退到在项目内直接安装
+     */
+    public boolean linkOrInstall(File projectDir, Predicate<File> installer) {
+        if (!enabled) {
+            return false;
+        }
+        String hash;
+        try {
+            hash = BuildManifest.dependencyHash(projectDir);
+        } catch (IOException e) {
+            log.warn("计算依赖哈希失败，回退到直接安装: {}", e.getMessage());
+            return false;
+        }
+        Path storeRoot = Path.of(AppConstant.NPM_STORE_ROOT_DIR);
+        Path entryDir = storeRoot.resolve(hash);
+        ReentrantLock lock = entryLocks.computeIfAbsent(hash, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (Files.exists(entryDir.resolve(READY_MARKER))) {
+                log.info("命中 npm 依赖存储: {}", hash);
+            } else if (!install(projectDir, entryDir, installer)) {
+                return false;
+            }
+            if (!link(projectDir.toPath().resolve(NODE_MODULES), entryDir.resolve(NODE_MODULES))) {
+                return false;
+            }
+            Files.setLastModifiedTime(entryDir.resolve(READY_MARKER), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.warn("链接 npm 依赖存储失败，回退到直接安装: {}", e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+        evictIfNecessary(storeRoot);
+        return true;
+    }
+
+    /**
+     * 在存储的临时目录中安装依赖，成功后整体重命名为正式目录
+     */
+    private boolean install(File projectDir, Path entryDir, Predicate<File> installer) throws IOException {
+        Path stagingDir = entryDir.resolveSibling(entryDir.getFileName() + STAGING_SUFFIX);
+        FileUtil.del(stagingDir);
+        FileUtil.del(entryDir);
+        Files.createDirectories(stagingDir);
+        Files.copy(projectDir.toPath().resolve(PACKAGE_JSON), stagingDir.resolve(PACKAGE_JSON));
+        Path lockFile = projectDir.toPath().resolve(PACKAGE_LOCK);
+        if (Files.exists(lockFile)) {
+            Files.copy(lockFile, stagingDir.resolve(PACKAGE_LOCK));
+        }
+        log.info("npm 依赖存储未命中，安装到: {}", entryDir);
+        if (!installer.test(stagingDir.toFile())) {
+            FileUtil.del(stagingDir);
+            return false;
+        }
+        long size = FileUtil.size(stagingDir.toFile());
+        Files.writeString(stagingDir.resolve(READY_MARKER), String.valueOf(size), StandardCharsets.UTF_8);
+        Files.move(stagingDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    /**
+     * 将项目的 node_modules 指向存储目录，已有的目录或失效链接会被替换
+     */
+    private boolean link(Path projectNodeModules, Path storeNodeModules) throws IOException {
+        if (Files.isSymbolicLink(projectNodeModules)) {
+            if (Files.readSymbolicLink(projectNodeModules).equals(storeNodeModules)) {
+                return true;
+            }
+            Files.delete(projectNodeModules);
+        } else if (Files.exists(projectNodeModules)) {
+            FileUtil.del(projectNodeModules);
+        }
+        try {
+            Files.createSymbolicLink(projectNodeModules, storeNodeModules);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            // Windows 未开启开发者模式时无法创建符号链接
+            log.warn("无法创建符号链接 {}: {}", projectNodeModules, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 超出磁盘预算时按最近使用时间淘汰，正在安装、链接或被构建引用的条目跳过
+     */
+    private void evictIfNecessary(Path storeRoot) {
+        long budget = maxSizeMb * 1024 * 1024;
+        List<StoreEntry> entries = new ArrayList<>();
+        long totalSize = 0;
+        File[] dirs = storeRoot.toFile().listFiles(File::isDirectory);
+        if (dirs == null) {
+            return;
+        }
+        for (File dir : dirs) {
+            Path marker = dir.toPath().resolve(READY_MARKER);
+            if (!Files.exists(marker)) {
+                continue;
+            }
+            try {
+                long size = Long.parseLong(Files.readString(marker, StandardCharsets.UTF_8).trim());
+                entries.add(new StoreEntry(dir.getName(), dir.toPath(), size, Files.getLastModifiedTime(marker).toMillis()));
+                totalSize += size;
+            } catch (IOException | NumberFormatException e) {
+                log.warn("读取 npm 依赖存储条目失败: {}", dir);
+            }
+        }
+        if (totalSize <= budget) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(StoreEntry::lastUsed));
+        for (StoreEntry entry : entries) {
+            if (totalSize <= budget) {
+                break;
+            }
+            ReentrantLock lock = entryLocks.computeIfAbsent(entry.hash(), key -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (references.containsKey(entry.hash())) {
+                    continue;
+                }
+                FileUtil.del(entry.dir());
+                totalSize -= entry.size();
+                log.info("淘汰 npm 依赖存储: {}, 释放 {} MB", entry.hash(), entry.size() / 1024 / 1024);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private record StoreEntry(String hash, Path dir, long size, long lastUsed) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.lgk.lgkaicodeservice.code.builder;
+
+import com.lgk.lgkaicodeservice.model.enums.VueBuildStatusEnum;
+import com.lgk.lgkaicodeservice.model.vo.VueBuildStatusVO;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Vue 项目构建任务
+ * 状态变更会通知所有订阅者，被新任务替代时订阅者与结果一并转交给新任务
+ */
+@Slf4j
+public class VueBuildJob {
+
+    @Getter
+    private final Long appId;
+
+    @Getter
+    private final String projectPath;
+
+    /**
+     * 构建结果，被替代时以新任务的结果完成
+     */
+    @Getter
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    private final List<Consumer<VueBuildStatusEnum>> listeners = new ArrayList<>();
+
+    private final LocalDateTime queuedTime = LocalDateTime.now();
+
+    private VueBuildStatusEnum status = VueBuildStatusEnum.QUEUED;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime finishTime;
+
+    /**
+     * 是否已提交到线程池
+     */
+    boolean dispatched;
+
+    VueBuildJob(Long appId, String projectPath) {
+        this.appId = appId;
+        this.projectPath = projectPath;
+    }
+
+    /**
+     * 订阅状态变更，订阅时会立即收到当前状态
+     *
+     * @param listener 监听器
+     */
+    public synchronized void subscribe(Consumer<VueBuildStatusEnum> listener) {
+        listeners.add(listener);
+        notifyListener(listener, status);
+    }
+
+    public synchronized VueBuildStatusEnum getStatus() {
+        return status;
+    }
+
+    /**
+     * 构建状态视图
+     */
+    public synchronized VueBuildStatusVO toStatusVO() {
+        VueBuildStatusVO statusVO = new VueBuildStatusVO();
+        statusVO.setAppId(appId);
+        statusVO.setStatus(status.getValue());
+        statusVO.setStatusText(status.getText());
+        statusVO.setQueuedTime(queuedTime);
+        statusVO.setStartTime(startTime);
+        statusVO.setFinishTime(finishTime);
+        return statusVO;
+    }
+
+    /**
+     * 更新状态并通知订阅者
+     */
+    synchronized void updateStatus(VueBuildStatusEnum newStatus) {
+        if (status.isTerminal()) {
+            return;
+        }
+        status = newStatus;
+        if (newStatus == VueBuildStatusEnum.INSTALLING && startTime == null) {
+            startTime = LocalDateTime.now();
+        }
+        if (newStatus.isTerminal()) {
+            finishTime = LocalDateTime.now();
+        }
+        for (Consumer<VueBuildStatusEnum> listener : listeners) {
+            notifyListener(listener, newStatus);
+        }
+    }
+
+    /**
+     * 被新任务替代：订阅者转交给新任务，结果跟随新任务
+     */
+    synchronized void supersededBy(VueBuildJob newerJob) {
+        updateStatus(VueBuildStatusEnum.SUPERSEDED);
+        for (Consumer<VueBuildStatusEnum> listener : listeners) {
+            newerJob.subscribe(listener);
+        }
+        listeners.clear();
+        newerJob.result.whenComplete((success, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(success);
+            }
+        });
+    }
+
+    private void notifyListener(Consumer<VueBuildStatusEnum> listener, VueBuildStatusEnum newStatus) {
+        try {
+            listener.accept(newStatus);
+        } catch (Exception e) {
+            log.warn("构建状态通知失败, appId: {}, {}", appId, e.getMessage());
+        }
+    }
+}
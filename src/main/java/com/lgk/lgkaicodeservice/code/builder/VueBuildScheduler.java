@@ -0,0 +1,144 @@
+package com.lgk.lgkaicodeservice.code.builder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspaceManager;
+import com.lgk.lgkaicodeservice.model.enums.VueBuildStatusEnum;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Vue 项目构建调度器
+ * 限制同时运行的 npm 进程数；同一应用同时只有一个构建在运行，排队中的构建会被更新的构建替代
+ */
+@Slf4j
+@Component
+public class VueBuildScheduler {
+
+    @Resource
+    private VueProjectBuilder vueProjectBuilder;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    /**
+     * 同时运行的构建数上限
+     */
+    @Value("${vue.build.max-concurrent:2}")
+    private int maxConcurrent;
+
+    /**
+     * 最近一次构建任务，用于状态查询
+     */
+    private final Cache<Long, VueBuildJob> latestJobs = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    /**
+     * 排队中（尚未开始）的任务，每个应用至多一个
+     */
+    private final Map<Long, VueBuildJob> queuedJobs = new HashMap<>();
+
+    /**
+     * 正在构建的应用
+     */
+    private final Set<Long> runningApps = new HashSet<>();
+
+    private ExecutorService buildExecutor;
+
+    @PostConstruct
+    public void init() {
+        buildExecutor = Executors.newFixedThreadPool(maxConcurrent, Thread.ofPlatform().name("vue-build-", 0).factory());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        buildExecutor.shutdownNow();
+    }
+
+    /**
+     * 提交构建任务
+     * 构建前先将工作区中未落盘的修改写入磁盘
+     *
+     * @param appId       应用 ID
+     * @param projectPath 项目根目录路径
+     * @return 构建任务
+     */
+    public VueBuildJob submit(Long appId, String projectPath) {
+        projectWorkspaceManager.flush(appId);
+        return enqueue(appId, projectPath);
+    }
+
+    private synchronized VueBuildJob enqueue(Long appId, String projectPath) {
+        VueBuildJob job = new VueBuildJob(appId, projectPath);
+        VueBuildJob previous = queuedJobs.put(appId, job);
+        if (previous != null) {
+            log.info("应用 {} 的排队构建被新的构建替代", appId);
+            previous.supersededBy(job);
+        }
+        latestJobs.put(appId, job);
+        // 同一应用已有构建在运行时，等其结束后再调度
+        if (!runningApps.contains(appId)) {
+            dispatch(job);
+        }
+        return job;
+    }
+
+    /**
+     * 查询应用最近一次构建
+     *
+     * @param appId 应用 ID
+     * @return 构建任务，不存在时返回 null
+     */
+    public VueBuildJob getLatestJob(Long appId) {
+        return latestJobs.getIfPresent(appId);
+    }
+
+    private void dispatch(VueBuildJob job) {
+        job.dispatched = true;
+        buildExecutor.execute(() -> run(job));
+    }
+
+    private void run(VueBuildJob job) {
+        Long appId = job.getAppId();
+        synchronized (this) {
+            // 已被替代的任务直接跳过
+            if (job.getStatus() != VueBuildStatusEnum.QUEUED) {
+                return;
+            }
+            queuedJobs.remove(appId, job);
+            runningApps.add(appId);
+        }
+        boolean success = false;
+        try {
+            success = vueProjectBuilder.buildProject(job.getProjectPath(), job::updateStatus);
+        } catch (Exception e) {
+            log.error("Vue 项目构建异常, appId: {}, {}", appId, e.getMessage(), e);
+        } finally {
+            job.updateStatus(success ? VueBuildStatusEnum.SUCCEEDED : VueBuildStatusEnum.FAILED);
+            job.getResult().complete(success);
+            onJobFinished(appId);
+        }
+    }
+
+    private synchronized void onJobFinished(Long appId) {
+        runningApps.remove(appId);
+        VueBuildJob next = queuedJobs.get(appId);
+        if (next != null && !next.dispatched) {
+            dispatch(next);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.lgk.lgkaicodeservice.code.builder;
 
 import cn.hutool.core.util.RuntimeUtil;
+import com.lgk.lgkaicodeservice.model.enums.VueBuildStatusEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 
@@ -13,6 +18,12 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class VueProjectBuilder {
 
+    @Resource
+    private NodeModulesStore nodeModulesStore;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
     /**
      * 异步构建项目（不阻塞主流程）
      *
@@ -68,6 +79,16 @@ public class VueProjectBuilder {
     }
 
 
+    /**
+     * 准备依赖：优先使用共享依赖存储，不可用时在项目内直接安装
+     */
+    private boolean installDependencies(File projectDir) {
+        if (nodeModulesStore.linkOrInstall(projectDir, this::executeNpmInstall)) {
+            return true;
+        }
+        return executeNpmInstall(projectDir);
+    }
+
     /**
      * 执行 npm install 命令
      */
@@ -108,6 +129,18 @@ public class VueProjectBuilder {
      * @return 是否构建成功
      */
     public boolean buildProject(String projectPath) {
+        return buildProject(projectPath, status -> {
+        });
+    }
+
+    /**
+     * 构建 Vue 项目，并回调构建阶段
+     *
+     * @param projectPath   项目根目录路径
+     * @param phaseListener 阶段监听（安装依赖 / 打包构建）
+     * @return 是否构建成功
+     */
+    public boolean buildProject(String projectPath, Consumer<VueBuildStatusEnum> phaseListener) {
         File projectDir = new File(projectPath);
         if (!projectDir.exists() || !projectDir.isDirectory()) {
             log.error("项目目录不存在: {}", projectPath);
@@ -120,26 +153,78 @@ public class VueProjectBuilder {
             return false;
         }
         log.info("开始构建 Vue 项目: {}", projectPath);
-        // 执行 npm install
-        if (!executeNpmInstall(projectDir)) {
-            log.error("npm install 执行失败");
-            return false;
-        }
-        // 执行 npm run build
-        if (!executeNpmBuild(projectDir)) {
-            log.error("npm run build 执行失败");
-            return false;
-        }
-        // 验证 dist 目录是否生成
+        BuildManifest manifest = BuildManifest.read(projectDir);
         File distDir = new File(projectDir, "dist");
-        if (!distDir.exists()) {
-            log.error("构建完成但 dist 目录未生成: {}", distDir.getAbsolutePath());
+        Runnable releaseDependencies = null;
+        try {
+            // 依赖未变化且 node_modules 可用时跳过 npm install
+            phaseListener.accept(VueBuildStatusEnum.INSTALLING);
+            String dependencyHash = BuildManifest.dependencyHash(projectDir);
+            // 整个构建期间持有共享依赖的引用，避免链接的依赖在 npm run build 时被淘汰
+            releaseDependencies = nodeModulesStore.retain(dependencyHash);
+            boolean dependencyUnchanged = manifest != null
+                    && dependencyHash.equals(manifest.getDependencyHash())
+                    && new File(projectDir, "node_modules").exists();
+            recordFingerprint("install", dependencyUnchanged);
+            if (!dependencyUnchanged) {
+                if (!installDependencies(projectDir)) {
+                    log.error("npm install 执行失败");
+                    BuildManifest.delete(projectDir);
+                    return false;
+                }
+                // 安装可能生成 lockfile，以安装后的哈希为准
+                dependencyHash = BuildManifest.dependencyHash(projectDir);
+            }
+            // 依赖与源码都未变化且 dist 存在时跳过 npm run build
+            phaseListener.accept(VueBuildStatusEnum.BUILDING);
+            String sourceHash = BuildManifest.sourceHash(projectDir);
+            boolean buildUnchanged = dependencyUnchanged
+                    && sourceHash.equals(manifest.getSourceHash())
+                    && distDir.exists();
+            recordFingerprint("build", buildUnchanged);
+            if (buildUnchanged) {
+                log.info("Vue 项目未变化，跳过构建: {}", projectPath);
+                return true;
+            }
+            if (!executeNpmBuild(projectDir)) {
+                log.error("npm run build 执行失败");
+                BuildManifest.delete(projectDir);
+                return false;
+            }
+            // 验证 dist 目录是否生成
+            if (!distDir.exists()) {
+                log.error("构建完成但 dist 目录未生成: {}", distDir.getAbsolutePath());
+                BuildManifest.delete(projectDir);
+                return false;
+            }
+            BuildManifest newManifest = new BuildManifest();
+            newManifest.setDependencyHash(dependencyHash);
+            newManifest.setSourceHash(sourceHash);
+            newManifest.setBuildTime(System.currentTimeMillis());
+            newManifest.write(projectDir);
+        } catch (IOException e) {
+            log.error("计算构建指纹失败: {}", e.getMessage());
+            BuildManifest.delete(projectDir);
             return false;
+        } finally {
+            if (releaseDependencies != null) {
+                releaseDependencies.run();
+            }
         }
         log.info("Vue 项目构建成功，dist 目录: {}", distDir.getAbsolutePath());
         return true;
     }
 
+    /**
+     * 记录构建指纹命中情况
+     *
+     * @param stage 阶段（install / build）
+     * @param hit   是否命中
+     */
+    private void recordFingerprint(String stage, boolean hit) {
+        meterRegistry.counter("vue.build.fingerprint", "stage", stage, "result", hit ? "hit" : "miss").increment();
+    }
+
 
 
 
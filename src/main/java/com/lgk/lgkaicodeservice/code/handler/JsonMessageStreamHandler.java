@@ -1,14 +1,12 @@
 package com.lgk.lgkaicodeservice.code.handler;
 
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.lgk.lgkaicodeservice.ai.model.message.*;
 import com.lgk.lgkaicodeservice.ai.tool.BaseTool;
+import com.lgk.lgkaicodeservice.ai.tool.FileWriteTool;
 import com.lgk.lgkaicodeservice.ai.tool.ToolManager;
-import com.lgk.lgkaicodeservice.code.builder.VueProjectBuilder;
-import com.lgk.lgkaicodeservice.constant.AppConstant;
 import com.lgk.lgkaicodeservice.model.entity.User;
 import com.lgk.lgkaicodeservice.model.enums.ChatHistoryMessageTypeEnum;
 import com.lgk.lgkaicodeservice.service.ChatHistoryService;
@@ -23,6 +21,7 @@ import java.util.Set;
 /**
  * JSON 消息流处理器
  * 处理 VUE_PROJECT 类型的复杂流式响应，包含工具调用信息
+ * 上游直接传递类型化的 StreamMessage，无需再反序列化
  */
 @Slf4j
 @Component
@@ -31,10 +30,13 @@ public class JsonMessageStreamHandler {
     @Resource
     private ToolManager toolManager;
 
+    @Resource
+    private FileWriteTool fileWriteTool;
+
 
     /**
      * 处理 TokenStream（VUE_PROJECT）
-     * 解析 JSON 消息并重组为完整的响应格式
+     * 按消息类型分派并重组为完整的响应格式
      *
      * @param originFlux         原始流
      * @param chatHistoryService 聊天历史服务
@@ -42,19 +44,18 @@ public class JsonMessageStreamHandler {
      * @param loginUser          登录用户
      * @return 处理后的流
      */
-    public Flux<String> handle(Flux<String> originFlux,
-                               ChatHistoryService chatHistoryService,
-                               long appId, User loginUser) {
+    public Flux<StreamMessage> handle(Flux<StreamMessage> originFlux,
+                                      ChatHistoryService chatHistoryService,
+                                      long appId, User loginUser) {
         // 收集数据用于生成后端记忆格式
         StringBuilder chatHistoryStringBuilder = new StringBuilder();
         // 用于跟踪已经见过的工具ID，判断是否是第一次调用
         Set<String> seenToolIds = new HashSet<>();
+        // 文件内容已流式输出的工具调用 ID，执行成功时结果不再重复输出
+        Set<String> streamedToolIds = new HashSet<>();
         return originFlux
-                .map(chunk -> {
-                    // 解析每个 JSON 消息块
-                    return handleJsonMessageChunk(chunk, chatHistoryStringBuilder, seenToolIds);
-                })
-                .filter(StrUtil::isNotEmpty) // 过滤空字串
+                // 分派每个消息，返回 null 的消息会被过滤
+                .mapNotNull(message -> handleStreamMessage(message, chatHistoryStringBuilder, seenToolIds, streamedToolIds))
                 .doOnComplete(() -> {
                     // 流式响应完成后，添加 AI 消息到对话历史
                     String aiResponse = chatHistoryStringBuilder.toString();
@@ -64,27 +65,32 @@ public class JsonMessageStreamHandler {
                     // 如果AI回复失败，也要记录错误消息
                     String errorMessage = "AI回复失败: " + error.getMessage();
                     chatHistoryService.addChatMessage(appId, errorMessage, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
+                })
+                .doOnCancel(() -> {
+                    // 客户端断开时生成随之中止，保留已生成的部分内容
+                    String aiResponse = chatHistoryStringBuilder.toString();
+                    if (StrUtil.isNotEmpty(aiResponse)) {
+                        chatHistoryService.addChatMessage(appId, aiResponse, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
+                    }
                 });
     }
 
     /**
-     * 解析并收集 TokenStream 数据
+     * 分派并收集 TokenStream 消息
+     *
+     * @return 需要输出给前端的消息，无需输出时返回 null
      */
-    private String handleJsonMessageChunk(String chunk, StringBuilder chatHistoryStringBuilder, Set<String> seenToolIds) {
-        // 解析 JSON
-        StreamMessage streamMessage = JSONUtil.toBean(chunk, StreamMessage.class);
-        StreamMessageTypeEnum typeEnum = StreamMessageTypeEnum.getEnumByValue(streamMessage.getType());
-        switch (typeEnum) {
-            case AI_RESPONSE -> {
-                AiResponseMessage aiMessage = JSONUtil.toBean(chunk, AiResponseMessage.class);
+    private StreamMessage handleStreamMessage(StreamMessage streamMessage, StringBuilder chatHistoryStringBuilder,
+                                              Set<String> seenToolIds, Set<String> streamedToolIds) {
+        return switch (streamMessage) {
+            case AiResponseMessage aiMessage -> {
                 String data = aiMessage.getData();
                 // 直接拼接响应
                 chatHistoryStringBuilder.append(data);
-                return data;
+                // 过滤空字串
+                yield StrUtil.isEmpty(data) ? null : aiMessage;
             }
-
-            case TOOL_REQUEST -> {
-                ToolRequestMessage toolRequestMessage = JSONUtil.toBean(chunk, ToolRequestMessage.class);
+            case ToolRequestMessage toolRequestMessage -> {
                 String toolId = toolRequestMessage.getId();
                 String toolName = toolRequestMessage.getName();
                 // 检查是否是第一次看到这个工具 ID
@@ -94,29 +100,46 @@ public class JsonMessageStreamHandler {
                     // 根据工具名称获取工具实例
                     BaseTool tool = toolManager.getTool(toolName);
                     // 返回格式化的工具调用信息
-                    return tool.generateToolRequestResponse();
-                } else {
-                    // 不是第一次调用这个工具，直接返回空
-                    return "";
+                    yield new AiResponseMessage(tool.generateToolRequestResponse());
                 }
+                // 不是第一次调用这个工具，直接忽略
+                yield null;
             }
-            case TOOL_EXECUTED -> {
-                ToolExecutedMessage toolExecutedMessage = JSONUtil.toBean(chunk, ToolExecutedMessage.class);
+            case FileContentMessage fileContentMessage -> {
+                // 与写入文件工具的执行结果格式一致，只是分段输出
+                StringBuilder output = new StringBuilder();
+                if (streamedToolIds.add(fileContentMessage.getToolId())) {
+                    output.append("\n\n").append(fileWriteTool.generateContentHeader(fileContentMessage.getFileName()));
+                }
+                output.append(fileContentMessage.getContent());
+                if (fileContentMessage.isFinished()) {
+                    output.append(fileWriteTool.generateContentFooter()).append("\n\n");
+                }
+                chatHistoryStringBuilder.append(output);
+                yield output.isEmpty() ? null : new AiResponseMessage(output.toString());
+            }
+            case ToolExecutedMessage toolExecutedMessage -> {
+                if (streamedToolIds.contains(toolExecutedMessage.getId())) {
+                    // 文件内容已流式输出，写入成功时不再重复，失败时补充失败原因
+                    if (fileWriteTool.isWriteSucceeded(toolExecutedMessage.getResult())) {
+                        yield null;
+                    }
+                    String output = String.format("\n\n%s\n\n", fileWriteTool.generateFailedResult(toolExecutedMessage.getResult()));
+                    chatHistoryStringBuilder.append(output);
+                    yield new AiResponseMessage(output);
+                }
                 String toolName = toolExecutedMessage.getName();
                 JSONObject jsonObject = JSONUtil.parseObj(toolExecutedMessage.getArguments());
                 // 根据工具名称获取工具实例并生成相应的结果格式
                 BaseTool tool = toolManager.getTool(toolName);
-                String result = tool.generateToolExecutedResult(jsonObject);
+                String result = tool.generateToolExecutedResult(jsonObject, toolExecutedMessage.getResult());
                 // 输出前端和要持久化的内容
                 String output = String.format("\n\n%s\n\n", result);
                 chatHistoryStringBuilder.append(output);
-                return output;
-            }
-
-            default -> {
-                log.error("不支持的消息类型: {}", typeEnum);
-                return "";
+                yield new AiResponseMessage(output);
             }
-        }
+            // 其余消息原样透传
+            default -> streamMessage;
+        };
     }
 }
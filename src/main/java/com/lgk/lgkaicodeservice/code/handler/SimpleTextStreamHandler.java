@@ -1,5 +1,8 @@
 package com.lgk.lgkaicodeservice.code.handler;
 
+import cn.hutool.core.util.StrUtil;
+import com.lgk.lgkaicodeservice.ai.model.message.AiResponseMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
 import com.lgk.lgkaicodeservice.model.entity.User;
 import com.lgk.lgkaicodeservice.model.enums.ChatHistoryMessageTypeEnum;
 import com.lgk.lgkaicodeservice.service.ChatHistoryService;
@@ -23,15 +26,16 @@ public class SimpleTextStreamHandler {
      * @param loginUser          登录用户
      * @return 处理后的流
      */
-    public Flux<String> handle(Flux<String> originFlux,
-                               ChatHistoryService chatHistoryService,
-                               long appId, User loginUser) {
+    public Flux<StreamMessage> handle(Flux<StreamMessage> originFlux,
+                                      ChatHistoryService chatHistoryService,
+                                      long appId, User loginUser) {
         StringBuilder aiResponseBuilder = new StringBuilder();
         return originFlux
-                .map(chunk -> {
+                .doOnNext(message -> {
                     // 收集AI响应内容
-                    aiResponseBuilder.append(chunk);
-                    return chunk;
+                    if (message instanceof AiResponseMessage aiResponseMessage) {
+                        aiResponseBuilder.append(aiResponseMessage.getData());
+                    }
                 })
                 .doOnComplete(() -> {
                     // 流式响应完成后，添加AI消息到对话历史
@@ -42,6 +46,13 @@ public class SimpleTextStreamHandler {
                     // 如果AI回复失败，也要记录错误消息
                     String errorMessage = "AI回复失败: " + error.getMessage();
                     chatHistoryService.addChatMessage(appId, errorMessage, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
+                })
+                .doOnCancel(() -> {
+                    // 客户端断开时生成随之中止，保留已生成的部分内容
+                    String aiResponse = aiResponseBuilder.toString();
+                    if (StrUtil.isNotEmpty(aiResponse)) {
+                        chatHistoryService.addChatMessage(appId, aiResponse, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
+                    }
                 });
     }
 }
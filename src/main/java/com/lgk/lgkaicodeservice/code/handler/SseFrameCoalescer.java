@@ -0,0 +1,294 @@
+package com.lgk.lgkaicodeservice.code.handler;
+
+import cn.hutool.json.JSONUtil;
+import com.lgk.lgkaicodeservice.ai.model.message.AiResponseMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SSE 帧合并器
+ * 将连续的 AI 文本片段按时间（默认 20ms）或大小（默认 1KB）合并为一帧下发，减少每个 token 的序列化和写出开销；
+ * 客户端消费慢时，积压的文本直接追加到待发送的帧中，而不是逐个排队，上游始终无积压。
+ * 其余类型消息保持顺序，作为具名事件单独下发。
+ * 积压的文本字符数或待发送事件数超过上限时（下游长时间无需求），流以错误结束，不再无限缓冲。
+ */
+@Component
+public class SseFrameCoalescer {
+
+    /**
+     * 文本帧最长等待时间（毫秒）
+     */
+    @Value("${sse.frame.max-delay-ms:20}")
+    private long maxDelayMs;
+
+    /**
+     * 文本帧达到该字符数时立即下发
+     */
+    @Value("${sse.frame.max-size:1024}")
+    private int maxSize;
+
+    /**
+     * 单个流积压的文本字符数上限
+     */
+    @Value("${sse.frame.max-buffered-chars:4194304}")
+    private int maxBufferedChars;
+
+    /**
+     * 单个流积压的待发送事件数上限
+     */
+    @Value("${sse.frame.max-pending-events:4096}")
+    private int maxPendingEvents;
+
+    /**
+     * 将流式消息转换为合并后的 SSE 事件流
+     *
+     * @param messageFlux 流式消息
+     * @return SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> frame(Flux<StreamMessage> messageFlux) {
+        return Flux.create(sink -> {
+            FrameBuffer frameBuffer = new FrameBuffer(sink, TimeUnit.MILLISECONDS.toNanos(maxDelayMs), maxSize,
+                    maxBufferedChars, maxPendingEvents);
+            // 对上游不限需求，背压在合并缓冲处吸收
+            Disposable upstream = messageFlux.subscribe(frameBuffer::onNext, frameBuffer::onError, frameBuffer::onComplete);
+            sink.onRequest(n -> frameBuffer.drain());
+            sink.onDispose(() -> {
+                upstream.dispose();
+                frameBuffer.cancelTimer();
+            });
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    /**
+     * 单个流的待发送帧缓冲
+     */
+    private static class FrameBuffer {
+
+        private final FluxSink<ServerSentEvent<String>> sink;
+
+        private final long maxDelayNanos;
+
+        private final int maxSize;
+
+        private final int maxBufferedChars;
+
+        private final int maxPendingEvents;
+
+        /**
+         * 积压的文本字符数
+         */
+        private int bufferedChars;
+
+        /**
+         * 待发送项：StringBuilder 为合并中的文本帧，其余为原始消息
+         */
+        private final Deque<Object> pending = new ArrayDeque<>();
+
+        /**
+         * 复用的 JSON 转义缓冲
+         */
+        private final StringBuilder jsonBuffer = new StringBuilder(256);
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /**
+         * 队尾文本帧开始积累的时间
+         */
+        private long textStartNanos;
+
+        private Disposable timer;
+
+        private volatile boolean done;
+
+        private Throwable error;
+
+        FrameBuffer(FluxSink<ServerSentEvent<String>> sink, long maxDelayNanos, int maxSize,
+                    int maxBufferedChars, int maxPendingEvents) {
+            this.sink = sink;
+            this.maxDelayNanos = maxDelayNanos;
+            this.maxSize = maxSize;
+            this.maxBufferedChars = maxBufferedChars;
+            this.maxPendingEvents = maxPendingEvents;
+        }
+
+        void onNext(StreamMessage message) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (message instanceof AiResponseMessage aiResponseMessage) {
+                    String text = aiResponseMessage.getData();
+                    if (text == null || text.isEmpty()) {
+                        return;
+                    }
+                    if (pending.peekLast() instanceof StringBuilder textFrame) {
+                        textFrame.append(text);
+                    } else {
+                        pending.addLast(new StringBuilder(Math.max(text.length(), 64)).append(text));
+                        textStartNanos = System.nanoTime();
+                    }
+                    bufferedChars += text.length();
+                } else {
+                    pending.addLast(message);
+                }
+                if (bufferedChars > maxBufferedChars || pending.size() > maxPendingEvents) {
+                    // 下游消费过慢，丢弃积压并以错误结束
+                    pending.clear();
+                    bufferedChars = 0;
+                    error = new IllegalStateException(String.format(
+                            "SSE 积压超过上限（%d 字符 / %d 个事件），客户端消费过慢", maxBufferedChars, maxPendingEvents));
+                    done = true;
+                }
+            }
+            drain();
+        }
+
+        void onError(Throwable throwable) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                error = throwable;
+                done = true;
+            }
+            drain();
+        }
+
+        void onComplete() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            drain();
+        }
+
+        /**
+         * 在下游有需求时依次下发可发送的帧
+         */
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (sink.requestedFromDownstream() > 0) {
+                    ServerSentEvent<String> event = poll();
+                    if (event == null) {
+                        break;
+                    }
+                    sink.next(event);
+                }
+                if (done && isEmpty()) {
+                    cancelTimer();
+                    if (error != null) {
+                        sink.error(error);
+                    } else {
+                        sink.complete();
+                    }
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * 取出下一帧，文本帧未到发送条件时返回 null 并登记定时刷新
+         */
+        private synchronized ServerSentEvent<String> poll() {
+            Object head = pending.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            if (head instanceof StringBuilder textFrame) {
+                // 后面已有其他消息、达到大小、超时或上游结束时发送
+                long waited = System.nanoTime() - textStartNanos;
+                boolean ready = pending.size() > 1 || textFrame.length() >= maxSize || waited >= maxDelayNanos || done;
+                if (!ready) {
+                    scheduleFlush(maxDelayNanos - waited);
+                    return null;
+                }
+                pending.pollFirst();
+                bufferedChars -= textFrame.length();
+                return ServerSentEvent.<String>builder()
+                        .data(toDataJson(textFrame))
+                        .build();
+            }
+            pending.pollFirst();
+            StreamMessage message = (StreamMessage) head;
+            return ServerSentEvent.<String>builder()
+                    .event(message.getType())
+                    .data(JSONUtil.toJsonStr(message))
+                    .build();
+        }
+
+        private synchronized boolean isEmpty() {
+            return pending.isEmpty();
+        }
+
+        private synchronized void scheduleFlush(long delayNanos) {
+            if (timer != null && !timer.isDisposed()) {
+                return;
+            }
+            timer = Schedulers.parallel().schedule(() -> {
+                synchronized (this) {
+                    timer = null;
+                }
+                drain();
+            }, Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+        }
+
+        synchronized void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+        }
+
+        /**
+         * 将文本写为 {"d": "..."}，转义在复用缓冲中完成
+         */
+        private String toDataJson(CharSequence text) {
+            StringBuilder sb = jsonBuffer;
+            sb.setLength(0);
+            sb.append("{\"d\":\"");
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    case '\b' -> sb.append("\\b");
+                    case '\f' -> sb.append("\\f");
+                    case '\u2028' -> sb.append("\\u2028");
+                    case '\u2029' -> sb.append("\\u2029");
+                    default -> {
+                        if (c < 0x20) {
+                            sb.append("\\u00");
+                            sb.append(Character.forDigit(c >> 4, 16));
+                            sb.append(Character.forDigit(c & 0xF, 16));
+                        } else {
+                            sb.append(c);
+                        }
+                    }
+                }
+            }
+            sb.append("\"}");
+            return sb.toString();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.lgk.lgkaicodeservice.code.handler;
 
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
 import com.lgk.lgkaicodeservice.model.entity.User;
 import com.lgk.lgkaicodeservice.service.ChatHistoryService;
 import jakarta.annotation.Resource;
@@ -11,8 +12,9 @@ import reactor.core.publisher.Flux;
 /**
  * 流处理器执行器
  * 根据代码生成类型创建合适的流处理器：
- * 1. 传统的 Flux<String> 流（HTML、MULTI_FILE） -> SimpleTextStreamHandler
+ * 1. 传统的文本流（HTML、MULTI_FILE） -> SimpleTextStreamHandler
  * 2. TokenStream 格式的复杂流（VUE_PROJECT） -> JsonMessageStreamHandler
+ * 输入输出均为类型化的 StreamMessage，序列化统一在 SSE 出口完成
  */
 @Slf4j
 @Component
@@ -31,9 +33,9 @@ public class StreamHandlerExecutor {
      * @param codeGenType        代码生成类型
      * @return 处理后的流
      */
-    public Flux<String> doExecute(Flux<String> originFlux,
+    public Flux<StreamMessage> doExecute(Flux<StreamMessage> originFlux,
                                   ChatHistoryService chatHistoryService,
-                                  long appId, User loginUser, CodeGenTypeEnum codeGenType) {
+                                         long appId, User loginUser, CodeGenTypeEnum codeGenType) {
         return switch (codeGenType) {
             case VUE_PROJECT -> // 使用注入的组件实例
                     jsonMessageStreamHandler.handle(originFlux, chatHistoryService, appId, loginUser);
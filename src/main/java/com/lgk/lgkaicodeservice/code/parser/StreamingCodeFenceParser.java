@@ -0,0 +1,199 @@
+package com.lgk.lgkaicodeservice.code.parser;
+
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import com.lgk.lgkaicodeservice.exception.ErrorCode;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 流式代码块解析器（状态机）
+ * 随 token 到达逐字符识别 ```lang 代码块，把代码内容增量回调给监听器，自身不缓存完整响应。
+ * 与 {@link HtmlCodeParser}、{@link MultiFileCodeParser} 语义一致：同一语言只取第一个代码块，未识别语言的代码块跳过。
+ * 非线程安全，每个流独立创建一个实例。
+ */
+public class StreamingCodeFenceParser {
+
+    /**
+     * 代码块语言标记的最大长度，超过则视为普通文本
+     */
+    private static final int MAX_INFO_LENGTH = 32;
+
+    private static final Map<String, String> HTML_FILE_MAP = Map.of(
+            "html", "index.html"
+    );
+
+    private static final Map<String, String> MULTI_FILE_MAP = Map.of(
+            "html", "index.html",
+            "css", "style.css",
+            "js", "script.js",
+            "javascript", "script.js"
+    );
+
+    /**
+     * 解析状态：普通文本 / 语言标记行 / 代码块内容
+     */
+    private enum State {
+        TEXT, INFO, CODE
+    }
+
+    /**
+     * 解析事件监听器
+     */
+    public interface Listener {
+
+        /**
+         * 识别到目标文件的代码块开始
+         */
+        void onFileStart(String fileName);
+
+        /**
+         * 代码块的一段增量内容
+         */
+        void onFileContent(String fileName, CharSequence content);
+
+        /**
+         * 代码块结束
+         */
+        void onFileEnd(String fileName);
+    }
+
+    private final Map<String, String> languageFileMap;
+
+    private final Listener listener;
+
+    private final Set<String> openedFiles = new HashSet<>();
+
+    private final StringBuilder infoBuilder = new StringBuilder();
+
+    /**
+     * 当前 chunk 内待回调的代码内容，每个 chunk 结束时清空
+     */
+    private final StringBuilder contentBuilder = new StringBuilder();
+
+    private State state = State.TEXT;
+
+    /**
+     * 已连续读到的反引号个数（可跨 chunk）
+     */
+    private int backtickCount;
+
+    /**
+     * 当前代码块对应的文件名，为 null 表示跳过该代码块
+     */
+    private String currentFile;
+
+    public StreamingCodeFenceParser(Map<String, String> languageFileMap, Listener listener) {
+        this.languageFileMap = languageFileMap;
+        this.listener = listener;
+    }
+
+    /**
+     * 根据代码生成类型创建解析器
+     *
+     * @param codeGenType 代码生成类型（仅支持 HTML、MULTI_FILE）
+     * @param listener    监听器
+     * @return 解析器
+     */
+    public static StreamingCodeFenceParser of(CodeGenTypeEnum codeGenType, Listener listener) {
+        return switch (codeGenType) {
+            case HTML -> new StreamingCodeFenceParser(HTML_FILE_MAP, listener);
+            case MULTI_FILE -> new StreamingCodeFenceParser(MULTI_FILE_MAP, listener);
+            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型: " + codeGenType);
+        };
+    }
+
+    /**
+     * 输入一段流式内容
+     *
+     * @param chunk 增量内容
+     */
+    public void feed(CharSequence chunk) {
+        if (chunk == null) {
+            return;
+        }
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            switch (state) {
+                case TEXT -> {
+                    if (c == '`') {
+                        if (++backtickCount == 3) {
+                            backtickCount = 0;
+                            infoBuilder.setLength(0);
+                            state = State.INFO;
+                        }
+                    } else {
+                        backtickCount = 0;
+                    }
+                }
+                case INFO -> {
+                    if (c == '\n') {
+                        openBlock(infoBuilder.toString().trim());
+                        state = State.CODE;
+                    } else if (infoBuilder.append(c).length() > MAX_INFO_LENGTH) {
+                        state = State.TEXT;
+                    }
+                }
+                case CODE -> {
+                    if (c == '`') {
+                        if (++backtickCount == 3) {
+                            backtickCount = 0;
+                            closeBlock();
+                            state = State.TEXT;
+                        }
+                    } else {
+                        appendPendingBackticks();
+                        contentBuilder.append(c);
+                    }
+                }
+            }
+        }
+        flushContent();
+    }
+
+    /**
+     * 流结束：未闭合的代码块按已收到的内容结束
+     */
+    public void finish() {
+        if (state == State.CODE) {
+            appendPendingBackticks();
+            closeBlock();
+        }
+        backtickCount = 0;
+        state = State.TEXT;
+    }
+
+    private void openBlock(String language) {
+        String fileName = languageFileMap.get(language.toLowerCase());
+        // 同一文件只取第一个代码块
+        if (fileName != null && openedFiles.add(fileName)) {
+            currentFile = fileName;
+            listener.onFileStart(fileName);
+        } else {
+            currentFile = null;
+        }
+    }
+
+    private void closeBlock() {
+        flushContent();
+        if (currentFile != null) {
+            listener.onFileEnd(currentFile);
+            currentFile = null;
+        }
+    }
+
+    private void appendPendingBackticks() {
+        for (; backtickCount > 0; backtickCount--) {
+            contentBuilder.append('`');
+        }
+    }
+
+    private void flushContent() {
+        if (currentFile != null && !contentBuilder.isEmpty()) {
+            listener.onFileContent(currentFile, contentBuilder);
+        }
+        contentBuilder.setLength(0);
+    }
+}
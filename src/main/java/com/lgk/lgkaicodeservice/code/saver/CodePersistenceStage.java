@@ -0,0 +1,195 @@
+package com.lgk.lgkaicodeservice.code.saver;
+
+import com.lgk.lgkaicodeservice.config.CodePersistenceConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 代码持久化阶段
+ * 每个生成流对应一条有序通道（{@link Lane}），通道内的写入操作按提交顺序在独立线程池中串行执行，
+ * 流式回调线程只负责提交，不做磁盘 IO。
+ * 单个通道积压的写入操作超过上限、或线程池无法接收时，该通道失败并跳过后续写入，提交方不会执行 IO 也不会被阻塞。
+ */
+@Slf4j
+@Component
+public class CodePersistenceStage {
+
+    /**
+     * 单次调度最多执行的操作数，避免单个通道长期占用线程
+     */
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    @Resource(name = "codePersistenceExecutor")
+    private ThreadPoolTaskExecutor codePersistenceExecutor;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private CodePersistenceConfig codePersistenceConfig;
+
+    /**
+     * 已提交、尚未执行的写入操作数
+     */
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("code.persistence.queue.depth", pendingTasks, AtomicInteger::get)
+                .description("代码持久化阶段待执行的写入操作数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 为一个生成流打开写入通道
+     *
+     * @return 写入通道
+     */
+    public Lane openLane() {
+        return new Lane(codePersistenceConfig.getLaneCapacity());
+    }
+
+    /**
+     * 写入操作
+     */
+    @FunctionalInterface
+    public interface IoTask {
+        void run() throws Exception;
+    }
+
+    private record Entry(IoTask task, boolean always) {
+    }
+
+    /**
+     * 有序写入通道，非线程安全的提交方只需保证自身串行提交
+     */
+    public final class Lane {
+
+        private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 通道内尚未执行的操作数
+         */
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final int capacity;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        /**
+         * 首个失败原因，出现后跳过后续普通操作
+         */
+        private volatile Throwable failure;
+
+        private Lane(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * 提交写入操作，通道已失败时直接忽略，积压超过上限时通道失败
+         */
+        public void submit(IoTask task) {
+            if (failure != null) {
+                return;
+            }
+            if (size.get() >= capacity) {
+                meterRegistry.counter("code.persistence.lane.overflow").increment();
+                fail(new IllegalStateException("代码写入积压超过上限 " + capacity + "，已停止写入"));
+                return;
+            }
+            enqueue(new Entry(task, false));
+        }
+
+        /**
+         * 提交清理操作，即使前面的操作失败也会执行
+         */
+        public void cleanup(IoTask task) {
+            enqueue(new Entry(task, true));
+        }
+
+        /**
+         * 关闭通道
+         *
+         * @return 之前提交的操作全部执行完成后完成，任一操作失败则异常完成
+         */
+        public CompletableFuture<Void> close() {
+            cleanup(() -> {
+                if (failure == null) {
+                    completion.complete(null);
+                } else {
+                    completion.completeExceptionally(failure);
+                }
+            });
+            return completion;
+        }
+
+        private void enqueue(Entry entry) {
+            pendingTasks.incrementAndGet();
+            size.incrementAndGet();
+            entries.offer(entry);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    codePersistenceExecutor.execute(this::drain);
+                } catch (TaskRejectedException e) {
+                    // 线程池已满：通道失败，已排队的操作丢弃（清理操作也无法执行），不在提交线程上执行 IO
+                    meterRegistry.counter("code.persistence.lane.rejected").increment();
+                    fail(new IllegalStateException("代码持久化线程池已满，已停止写入", e));
+                    Entry entry;
+                    while ((entry = entries.poll()) != null) {
+                        pendingTasks.decrementAndGet();
+                        size.decrementAndGet();
+                    }
+                    completion.completeExceptionally(failure);
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if (failure == null) {
+                failure = cause;
+                log.error("代码持久化通道失败: {}", cause.getMessage());
+            }
+        }
+
+        private void drain() {
+            Entry entry;
+            int executed = 0;
+            while (executed++ < DRAIN_BATCH_SIZE && (entry = entries.poll()) != null) {
+                pendingTasks.decrementAndGet();
+                size.decrementAndGet();
+                if (failure != null && !entry.always()) {
+                    continue;
+                }
+                try {
+                    entry.task().run();
+                } catch (Exception e) {
+                    log.error("代码持久化失败: {}", e.getMessage());
+                    fail(e);
+                }
+            }
+            draining.set(false);
+            if (!entries.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.lgk.lgkaicodeservice.code.saver;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.ai.model.message.FileFinishedMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.FileStartedMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
+import com.lgk.lgkaicodeservice.code.parser.StreamingCodeFenceParser;
+import com.lgk.lgkaicodeservice.constant.AppConstant;
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import com.lgk.lgkaicodeservice.exception.ErrorCode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 流式代码文件写入器
+ * 配合 {@link StreamingCodeFenceParser} 边解析边落盘：解析与首尾空白处理在调用线程完成，
+ * 磁盘写入提交到 {@link CodePersistenceStage} 的有序通道执行。代码块内容先写入临时文件，
+ * 代码块结束后原子替换为目标文件，预览不会读到写了一半的文件。首尾空白与 {@link String#trim()} 语义一致，空内容不落盘。
+ * 非线程安全，每个流独立创建一个实例。
+ */
+public class StreamingCodeFileWriter implements StreamingCodeFenceParser.Listener {
+
+    private static final String TEMP_FILE_SUFFIX = ".writing";
+
+    private static final String HTML_FILE_NAME = "index.html";
+
+    private final CodeGenTypeEnum codeGenType;
+
+    /**
+     * 定向修复：只输出出错的文件，其余文件保持原样
+     */
+    private final boolean repair;
+
+    private final Path baseDir;
+
+    private final CodePersistenceStage.Lane lane;
+
+    private final StreamingCodeFenceParser parser;
+
+    /**
+     * 产生的文件事件，每次 write / finish 后取走
+     */
+    private final List<StreamMessage> pendingMessages = new ArrayList<>();
+
+    /**
+     * 内容非空、会落盘的文件
+     */
+    private final Set<String> writtenFiles = new HashSet<>();
+
+    /**
+     * 尚未写出的尾部空白，遇到非空白字符时才写出
+     */
+    private final StringBuilder pendingWhitespace = new StringBuilder();
+
+    /**
+     * HTML 模式下没有代码块时的兜底内容，识别到 html 代码块后即释放
+     */
+    private StringBuilder fallbackBuilder;
+
+    private PendingFile currentFile;
+
+    private long currentSize;
+
+    private boolean skippingLeadingWhitespace;
+
+    public StreamingCodeFileWriter(CodeGenTypeEnum codeGenType, Long appId, CodePersistenceStage.Lane lane) {
+        this(codeGenType, appId, false, lane);
+    }
+
+    /**
+     * @param repair 是否为定向修复，修复时允许不输出 HTML 文件
+     */
+    public StreamingCodeFileWriter(CodeGenTypeEnum codeGenType, Long appId, boolean repair, CodePersistenceStage.Lane lane) {
+        if (appId == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        }
+        this.codeGenType = codeGenType;
+        this.repair = repair;
+        this.lane = lane;
+        this.parser = StreamingCodeFenceParser.of(codeGenType, this);
+        String dirName = StrUtil.format("{}_{}", codeGenType.getValue(), appId);
+        this.baseDir = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName);
+        lane.submit(() -> Files.createDirectories(baseDir));
+        if (codeGenType == CodeGenTypeEnum.HTML) {
+            this.fallbackBuilder = new StringBuilder();
+        }
+    }
+
+    /**
+     * 写入一段流式内容
+     *
+     * @param chunk 增量内容
+     * @return 本段内容产生的文件事件
+     */
+    public List<StreamMessage> write(String chunk) {
+        if (fallbackBuilder != null) {
+            fallbackBuilder.append(chunk);
+        }
+        parser.feed(chunk);
+        return drainMessages();
+    }
+
+    /**
+     * 流结束：闭合未完成的代码块并执行兜底与校验
+     *
+     * @return 剩余的文件事件
+     */
+    public List<StreamMessage> finish() {
+        parser.finish();
+        // HTML 没有代码块时，将整个内容作为 HTML
+        if (fallbackBuilder != null) {
+            StringBuilder fallback = fallbackBuilder;
+            onFileStart(HTML_FILE_NAME);
+            onFileContent(HTML_FILE_NAME, fallback);
+            onFileEnd(HTML_FILE_NAME);
+        }
+        // 至少要有 HTML 代码，CSS 和 JS 可以为空；定向修复只输出出错的文件，已有的 HTML 保持不变
+        if (codeGenType == CodeGenTypeEnum.MULTI_FILE && !repair && !writtenFiles.contains(HTML_FILE_NAME)) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "HTML代码内容不能为空");
+        }
+        return drainMessages();
+    }
+
+    /**
+     * 等待已提交的写入全部落盘
+     *
+     * @return 落盘完成信号，写入失败时异常完成
+     */
+    public CompletableFuture<Void> completion() {
+        return lane.close();
+    }
+
+    /**
+     * 流异常或取消：丢弃未完成的临时文件
+     */
+    public void abort() {
+        PendingFile file = currentFile;
+        currentFile = null;
+        if (file != null) {
+            lane.cleanup(file::discard);
+        }
+        lane.close();
+    }
+
+    /**
+     * 获取输出目录
+     */
+    public File getBaseDir() {
+        return baseDir.toFile();
+    }
+
+    @Override
+    public void onFileStart(String fileName) {
+        if (HTML_FILE_NAME.equals(fileName)) {
+            fallbackBuilder = null;
+        }
+        PendingFile file = new PendingFile(baseDir.resolve(fileName));
+        lane.submit(file::open);
+        currentFile = file;
+        currentSize = 0;
+        skippingLeadingWhitespace = true;
+        pendingWhitespace.setLength(0);
+        pendingMessages.add(new FileStartedMessage(fileName));
+    }
+
+    @Override
+    public void onFileContent(String fileName, CharSequence content) {
+        PendingFile file = currentFile;
+        if (file == null) {
+            return;
+        }
+        int start = 0;
+        int end = content.length();
+        if (skippingLeadingWhitespace) {
+            while (start < end && content.charAt(start) <= ' ') {
+                start++;
+            }
+            if (start == end) {
+                return;
+            }
+            skippingLeadingWhitespace = false;
+        }
+        int lastVisible = end - 1;
+        while (lastVisible >= start && content.charAt(lastVisible) <= ' ') {
+            lastVisible--;
+        }
+        if (lastVisible < start) {
+            pendingWhitespace.append(content, start, end);
+            return;
+        }
+        // content 由解析器复用，需复制后再交给写入线程
+        String text = new StringBuilder(pendingWhitespace.length() + lastVisible + 1 - start)
+                .append(pendingWhitespace)
+                .append(content, start, lastVisible + 1)
+                .toString();
+        pendingWhitespace.setLength(0);
+        pendingWhitespace.append(content, lastVisible + 1, end);
+        currentSize += text.length();
+        lane.submit(() -> file.append(text));
+    }
+
+    @Override
+    public void onFileEnd(String fileName) {
+        PendingFile file = currentFile;
+        if (file == null) {
+            return;
+        }
+        currentFile = null;
+        long size = currentSize;
+        if (size > 0) {
+            writtenFiles.add(fileName);
+            lane.submit(file::commit);
+        } else {
+            lane.submit(file::discard);
+        }
+        pendingMessages.add(new FileFinishedMessage(fileName, size));
+    }
+
+    private List<StreamMessage> drainMessages() {
+        if (pendingMessages.isEmpty()) {
+            return List.of();
+        }
+        List<StreamMessage> messages = new ArrayList<>(pendingMessages);
+        pendingMessages.clear();
+        return messages;
+    }
+
+    /**
+     * 写入中的文件，仅在持久化通道线程内访问
+     */
+    private static final class PendingFile {
+
+        private final Path target;
+
+        private final Path tempFile;
+
+        private Writer writer;
+
+        private PendingFile(Path target) {
+            this.target = target;
+            this.tempFile = target.resolveSibling(target.getFileName() + TEMP_FILE_SUFFIX);
+        }
+
+        private void open() throws IOException {
+            writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+        }
+
+        private void append(String text) throws IOException {
+            writer.write(text);
+        }
+
+        /**
+         * 先写临时文件再原子重命名
+         */
+        private void commit() throws IOException {
+            writer.close();
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        private void discard() throws IOException {
+            IoUtil.close(writer);
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.lgk.lgkaicodeservice.code.session;
+
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import com.lgk.lgkaicodeservice.exception.ErrorCode;
+import lombok.Getter;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 一次生成（某应用的一轮对话）的会话
+ * 已下发的 SSE 事件按序号记录在有界环形缓冲中，事件 ID 为 {turnId}:{seq}；
+ * 订阅者按各自的游标从缓冲中读取，断线后可从任意未过期的位置续传，生成本身不受客户端快慢影响。
+ */
+public class GenerationSession {
+
+    @Getter
+    private final long appId;
+
+    @Getter
+    private final String turnId;
+
+    private final ServerSentEvent<String>[] ring;
+
+    /**
+     * 下一个事件的序号（从 1 开始）
+     */
+    private long nextSeq = 1;
+
+    private volatile boolean completed;
+
+    private final List<Cursor> cursors = new CopyOnWriteArrayList<>();
+
+    /**
+     * 最后一个订阅者断开时的回调
+     */
+    private final Runnable onAllDetached;
+
+    /**
+     * Redis 镜像写入链，保证写入顺序
+     */
+    private CompletableFuture<Object> mirrorChain = CompletableFuture.completedFuture(null);
+
+    private volatile Disposable upstream;
+
+    /**
+     * 上次续期 Redis 过期时间的时刻（纳秒），0 表示尚未设置
+     */
+    private long expiryRefreshedNanos;
+
+    @SuppressWarnings("unchecked")
+    GenerationSession(long appId, String turnId, int capacity, Runnable onAllDetached) {
+        this.appId = appId;
+        this.turnId = turnId;
+        this.ring = new ServerSentEvent[capacity];
+        this.onAllDetached = onAllDetached;
+    }
+
+    /**
+     * 记录一个事件并通知订阅者
+     *
+     * @return 带事件 ID 的事件
+     */
+    ServerSentEvent<String> append(String event, String data) {
+        ServerSentEvent<String> sse;
+        synchronized (this) {
+            long seq = nextSeq++;
+            sse = ServerSentEvent.<String>builder()
+                    .id(eventId(seq))
+                    .event(event)
+                    .data(data)
+                    .build();
+            ring[(int) (seq % ring.length)] = sse;
+        }
+        cursors.forEach(Cursor::drain);
+        return sse;
+    }
+
+    /**
+     * 标记生成结束，订阅者读完缓冲后结束
+     */
+    void complete() {
+        completed = true;
+        cursors.forEach(Cursor::drain);
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public boolean hasSubscribers() {
+        return !cursors.isEmpty();
+    }
+
+    /**
+     * 缓冲中是否仍保留指定序号之后的全部事件
+     */
+    synchronized boolean canReplayAfter(long afterSeq) {
+        return afterSeq + 1 >= oldestSeq() && afterSeq < nextSeq;
+    }
+
+    /**
+     * 订阅指定序号之后的事件（先回放缓冲，再跟随实时事件）
+     *
+     * @param afterSeq 已收到的最后一个事件序号，从头订阅传 0
+     * @return SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> attach(long afterSeq) {
+        return Flux.create(sink -> {
+            Cursor cursor = new Cursor(sink, afterSeq + 1);
+            cursors.add(cursor);
+            sink.onRequest(n -> cursor.drain());
+            sink.onDispose(() -> {
+                cursors.remove(cursor);
+                if (cursors.isEmpty() && !completed) {
+                    onAllDetached.run();
+                }
+            });
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    /**
+     * 停止生成（取消上游）
+     */
+    void cancel() {
+        Disposable current = upstream;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    void setUpstream(Disposable upstream) {
+        this.upstream = upstream;
+    }
+
+    /**
+     * 串行追加一次镜像写入，前一次写入失败不影响后续写入
+     */
+    synchronized void chainMirror(Supplier<? extends CompletionStage<?>> write) {
+        mirrorChain = mirrorChain
+                .handle((result, error) -> null)
+                .thenCompose(ignored -> write.get().thenApply(result -> (Object) result));
+    }
+
+    /**
+     * 是否需要续期 Redis 过期时间：首次写入时一定需要，之后至少间隔指定时间
+     */
+    synchronized boolean shouldRefreshExpiry(long nowNanos, long intervalNanos) {
+        if (expiryRefreshedNanos != 0 && nowNanos - expiryRefreshedNanos < intervalNanos) {
+            return false;
+        }
+        expiryRefreshedNanos = nowNanos;
+        return true;
+    }
+
+    String eventId(long seq) {
+        return turnId + ":" + seq;
+    }
+
+    private long oldestSeq() {
+        return Math.max(1, nextSeq - ring.length);
+    }
+
+    /**
+     * 单个订阅者的读取游标
+     */
+    private class Cursor {
+
+        private final FluxSink<ServerSentEvent<String>> sink;
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private long next;
+
+        Cursor(FluxSink<ServerSentEvent<String>> sink, long next) {
+            this.sink = sink;
+            this.next = next;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (sink.requestedFromDownstream() > 0) {
+                    ServerSentEvent<String> event;
+                    synchronized (GenerationSession.this) {
+                        if (next < oldestSeq()) {
+                            // 落后超过缓冲容量，断开后由客户端携带 Last-Event-ID 重连，从 Redis 续传
+                            sink.error(new BusinessException(ErrorCode.OPERATION_ERROR, "客户端消费过慢，请重连"));
+                            return;
+                        }
+                        if (next >= nextSeq) {
+                            break;
+                        }
+                        event = ring[(int) (next % ring.length)];
+                    }
+                    next++;
+                    sink.next(event);
+                }
+                synchronized (GenerationSession.this) {
+                    if (completed && next >= nextSeq) {
+                        sink.complete();
+                        return;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
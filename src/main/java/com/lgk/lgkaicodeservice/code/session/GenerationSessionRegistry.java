@@ -0,0 +1,300 @@
+package com.lgk.lgkaicodeservice.code.session;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.lgk.lgkaicodeservice.constant.RedisConstant;
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import com.lgk.lgkaicodeservice.exception.ErrorCode;
+import com.lgk.lgkaicodeservice.exception.ThrowUtils;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 生成会话注册表
+ * 生成过程与 SSE 连接解耦：生成结果写入会话缓冲并镜像到 Redis Stream，
+ * 客户端断线后携带 Last-Event-ID 重连即可续传（本节点从缓冲读取，其他节点从 Redis Stream 读取），不会重新调用模型。
+ * 所有连接断开且超过宽限期无人重连时才取消生成。
+ * Redis Stream 从第一个事件起就带过期时间并随写入续期，生成所在节点异常退出时也会过期；
+ * 从 Redis 续传时长时间没有新事件或超过最长续传时间，以错误事件结束，不会无限轮询。
+ */
+@Slf4j
+@Component
+public class GenerationSessionRegistry {
+
+    private static final String DONE_EVENT = "done";
+
+    private static final String FIELD_SEQ = "seq";
+
+    private static final String FIELD_EVENT = "event";
+
+    private static final String FIELD_DATA = "data";
+
+    private static final String ERROR_EVENT = "business-error";
+
+    /**
+     * Redis Stream 过期时间的最小续期间隔
+     */
+    private static final long EXPIRY_REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 本地环形缓冲容量（事件数）
+     */
+    @Value("${generation.session.buffer-size:2048}")
+    private int bufferSize;
+
+    /**
+     * Redis Stream 保留的最大事件数
+     */
+    @Value("${generation.session.redis-max-len:10000}")
+    private int redisMaxLen;
+
+    /**
+     * 所有连接断开后等待重连的宽限期（秒）
+     */
+    @Value("${generation.session.grace-seconds:60}")
+    private long graceSeconds;
+
+    /**
+     * 生成结束后会话保留时间（分钟）
+     */
+    @Value("${generation.session.retention-minutes:10}")
+    private long retentionMinutes;
+
+    /**
+     * 其他节点续传时轮询 Redis Stream 的间隔（毫秒）
+     */
+    @Value("${generation.session.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    /**
+     * 从 Redis 续传时无新事件的最长等待时间（秒），超过视为生成已中断
+     */
+    @Value("${generation.session.tail-idle-seconds:300}")
+    private long tailIdleSeconds;
+
+    /**
+     * 从 Redis 续传的最长时间（分钟）
+     */
+    @Value("${generation.session.tail-max-minutes:60}")
+    private long tailMaxMinutes;
+
+    /**
+     * 本节点的会话，key 为 appId:turnId
+     */
+    private final Map<String, GenerationSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 开始一次生成会话，立即订阅生成流并返回从头开始的事件流
+     *
+     * @param appId  应用 ID
+     * @param frames 生成的 SSE 事件（以 done 事件结束）
+     * @return 带事件 ID 的 SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> start(long appId, Flux<ServerSentEvent<String>> frames) {
+        String turnId = IdUtil.getSnowflakeNextIdStr();
+        String key = appId + ":" + turnId;
+        RStream<String, String> stream = getStream(appId, turnId);
+        AtomicReference<GenerationSession> sessionRef = new AtomicReference<>();
+        GenerationSession session = new GenerationSession(appId, turnId, bufferSize, () -> scheduleGraceCancel(sessionRef.get()));
+        sessionRef.set(session);
+        sessions.put(key, session);
+        Disposable upstream = frames.subscribe(
+                frame -> record(session, stream, frame.event(), frame.data()),
+                error -> {
+                    log.error("应用 {} 生成失败: {}", appId, error.getMessage());
+                    // 与全局异常处理保持一致：下发业务错误事件后结束
+                    int code = error instanceof BusinessException businessException
+                            ? businessException.getCode() : ErrorCode.SYSTEM_ERROR.getCode();
+                    String message = error instanceof BusinessException ? error.getMessage() : "系统错误";
+                    record(session, stream, ERROR_EVENT, toErrorJson(code, message));
+                    record(session, stream, DONE_EVENT, "");
+                    finish(key, session, stream);
+                },
+                () -> finish(key, session, stream));
+        session.setUpstream(upstream);
+        return session.attach(0);
+    }
+
+    /**
+     * 根据 Last-Event-ID 续传
+     *
+     * @param appId       应用 ID
+     * @param lastEventId 客户端收到的最后一个事件 ID（{turnId}:{seq}）
+     * @return 之后的 SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> resume(long appId, String lastEventId) {
+        int index = lastEventId.lastIndexOf(':');
+        ThrowUtils.throwIf(index <= 0, ErrorCode.PARAMS_ERROR, "Last-Event-ID 无效");
+        String turnId = lastEventId.substring(0, index);
+        long afterSeq;
+        try {
+            afterSeq = Long.parseLong(lastEventId.substring(index + 1));
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "Last-Event-ID 无效");
+        }
+        GenerationSession session = sessions.get(appId + ":" + turnId);
+        if (session != null && session.canReplayAfter(afterSeq)) {
+            log.info("应用 {} 从本地缓冲续传，turnId={}, seq={}", appId, turnId, afterSeq);
+            return session.attach(afterSeq);
+        }
+        RStream<String, String> stream = getStream(appId, turnId);
+        ThrowUtils.throwIf(!stream.isExists(), ErrorCode.NOT_FOUND_ERROR, "生成会话不存在或已过期");
+        log.info("应用 {} 从 Redis Stream 续传，turnId={}, seq={}", appId, turnId, afterSeq);
+        return tail(stream, getWatchBucket(appId, turnId), afterSeq);
+    }
+
+    /**
+     * 记录事件并镜像到 Redis Stream
+     */
+    private void record(GenerationSession session, RStream<String, String> stream, String event, String data) {
+        ServerSentEvent<String> sse = session.append(event, data);
+        String seq = StrUtil.subAfter(sse.id(), ":", true);
+        Map<String, String> fields = Map.of(
+                FIELD_SEQ, seq,
+                FIELD_EVENT, StrUtil.nullToEmpty(event),
+                FIELD_DATA, StrUtil.nullToEmpty(data));
+        session.chainMirror(() -> stream.addAsync(StreamAddArgs.entries(fields).trimNonStrict().maxLen(redisMaxLen).noLimit()));
+        // 生成期间同样保持过期时间，节点异常退出时 Stream 不会永久保留
+        if (session.shouldRefreshExpiry(System.nanoTime(), EXPIRY_REFRESH_INTERVAL_NANOS)) {
+            Duration retention = Duration.ofMinutes(retentionMinutes);
+            session.chainMirror(() -> stream.expireAsync(retention));
+        }
+    }
+
+    /**
+     * 生成结束：设置 Redis 过期时间，保留一段时间后移除本地会话
+     */
+    private void finish(String key, GenerationSession session, RStream<String, String> stream) {
+        session.complete();
+        Duration retention = Duration.ofMinutes(retentionMinutes);
+        session.chainMirror(() -> stream.expireAsync(retention));
+        Schedulers.parallel().schedule(() -> sessions.remove(key, session), retentionMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 所有连接断开后等待宽限期，期间无人重连（包括其他节点）则取消生成
+     */
+    private void scheduleGraceCancel(GenerationSession session) {
+        Schedulers.boundedElastic().schedule(() -> {
+            if (session.isCompleted() || session.hasSubscribers()) {
+                return;
+            }
+            if (getWatchBucket(session.getAppId(), session.getTurnId()).isExists()) {
+                // 其他节点正在续传，继续等待
+                scheduleGraceCancel(session);
+                return;
+            }
+            log.info("应用 {} 的生成无人订阅超过 {} 秒，取消生成，turnId={}", session.getAppId(), graceSeconds, session.getTurnId());
+            session.cancel();
+            String key = session.getAppId() + ":" + session.getTurnId();
+            RStream<String, String> stream = getStream(session.getAppId(), session.getTurnId());
+            record(session, stream, DONE_EVENT, "");
+            finish(key, session, stream);
+        }, graceSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 轮询 Redis Stream，读取指定序号之后的事件直到 done 事件
+     * 长时间没有新事件或超过最长续传时间时，下发错误事件和 done 事件后结束
+     */
+    private Flux<ServerSentEvent<String>> tail(RStream<String, String> stream, RBucket<String> watchBucket, long afterSeq) {
+        String turnId = StrUtil.subAfter(stream.getName(), ":", true);
+        AtomicReference<StreamMessageId> cursor = new AtomicReference<>(StreamMessageId.MIN);
+        AtomicLong lastSeq = new AtomicLong(afterSeq);
+        Duration grace = Duration.ofSeconds(graceSeconds);
+        long startNanos = System.nanoTime();
+        AtomicLong lastEventNanos = new AtomicLong(startNanos);
+        long idleNanos = TimeUnit.SECONDS.toNanos(tailIdleSeconds);
+        long maxNanos = TimeUnit.MINUTES.toNanos(tailMaxMinutes);
+        return Flux.interval(Duration.ZERO, Duration.ofMillis(pollIntervalMs), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> {
+                    long now = System.nanoTime();
+                    if (now - startNanos >= maxNanos) {
+                        return endWithError("续传时间过长，请刷新后查看生成结果");
+                    }
+                    // 告知生成所在节点仍有人订阅
+                    watchBucket.set("1", grace);
+                    Map<StreamMessageId, Map<String, String>> entries = stream.range(cursor.get(), StreamMessageId.MAX);
+                    List<ServerSentEvent<String>> events = new ArrayList<>();
+                    for (Map.Entry<StreamMessageId, Map<String, String>> entry : entries.entrySet()) {
+                        StreamMessageId id = entry.getKey();
+                        cursor.set(new StreamMessageId(id.getId0(), id.getId1() + 1));
+                        Map<String, String> fields = entry.getValue();
+                        long seq = Long.parseLong(fields.get(FIELD_SEQ));
+                        if (seq <= lastSeq.get()) {
+                            continue;
+                        }
+                        if (seq != lastSeq.get() + 1) {
+                            return Flux.error(new BusinessException(ErrorCode.NOT_FOUND_ERROR, "续传位置已过期"));
+                        }
+                        lastSeq.set(seq);
+                        String event = fields.get(FIELD_EVENT);
+                        events.add(ServerSentEvent.<String>builder()
+                                .id(turnId + ":" + seq)
+                                .event(StrUtil.emptyToNull(event))
+                                .data(fields.get(FIELD_DATA))
+                                .build());
+                    }
+                    if (!events.isEmpty()) {
+                        lastEventNanos.set(now);
+                    } else if (now - lastEventNanos.get() >= idleNanos) {
+                        return endWithError("生成已中断，请重新发起对话");
+                    }
+                    return Flux.fromIterable(events);
+                }, 1)
+                .takeUntil(event -> DONE_EVENT.equals(event.event()));
+    }
+
+    /**
+     * 以错误事件和 done 事件结束续传
+     */
+    private Flux<ServerSentEvent<String>> endWithError(String message) {
+        return Flux.just(
+                ServerSentEvent.<String>builder()
+                        .event(ERROR_EVENT)
+                        .data(toErrorJson(ErrorCode.OPERATION_ERROR.getCode(), message))
+                        .build(),
+                ServerSentEvent.<String>builder()
+                        .event(DONE_EVENT)
+                        .data("")
+                        .build());
+    }
+
+    private static String toErrorJson(int code, String message) {
+        return JSONUtil.toJsonStr(Map.of("error", true, "code", code, "message", message));
+    }
+
+    private RStream<String, String> getStream(long appId, String turnId) {
+        return redissonClient.getStream(RedisConstant.getGenerationSessionRedisKey(appId, turnId), StringCodec.INSTANCE);
+    }
+
+    private RBucket<String> getWatchBucket(long appId, String turnId) {
+        return redissonClient.getBucket(RedisConstant.getGenerationSessionRedisKey(appId, turnId) + ":watch", StringCodec.INSTANCE);
+    }
+}
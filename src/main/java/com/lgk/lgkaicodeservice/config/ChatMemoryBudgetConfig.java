@@ -0,0 +1,58 @@
+package com.lgk.lgkaicodeservice.config;
+
+import com.lgk.lgkaicodeservice.ai.memory.ChatMessageCompactor;
+import com.lgk.lgkaicodeservice.ai.memory.ChatTokenEstimator;
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 对话记忆 token 预算配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.memory")
+@Data
+public class ChatMemoryBudgetConfig {
+
+    /**
+     * 各生成类型的 token 预算，key 为生成类型的 value
+     */
+    private Map<String, Integer> maxTokens = new HashMap<>();
+
+    /**
+     * 未单独配置的生成类型使用的 token 预算
+     */
+    private int defaultMaxTokens = 16000;
+
+    /**
+     * 原样保留的最近对话轮数
+     */
+    private int recentTurns = 2;
+
+    /**
+     * 超过该字符数的工具结果、工具参数和代码块会被压缩
+     */
+    private int compactThreshold = 512;
+
+    /**
+     * 获取生成类型对应的 token 预算
+     */
+    public int getMaxTokens(CodeGenTypeEnum codeGenType) {
+        return maxTokens.getOrDefault(codeGenType.getValue(), defaultMaxTokens);
+    }
+
+    @Bean
+    public ChatTokenEstimator chatTokenEstimator() {
+        return new ChatTokenEstimator();
+    }
+
+    @Bean
+    public ChatMessageCompactor chatMessageCompactor() {
+        return new ChatMessageCompactor(compactThreshold);
+    }
+}
@@ -0,0 +1,49 @@
+package com.lgk.lgkaicodeservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 代码持久化阶段配置
+ * 文件写入在独立的有界线程池中执行，不占用模型流式回调线程
+ */
+@Configuration
+@ConfigurationProperties(prefix = "code.persistence")
+@Data
+public class CodePersistenceConfig {
+
+    /**
+     * 写入线程数
+     */
+    private int threads = 2;
+
+    /**
+     * 等待执行的写入批次上限（每个有写入的通道占用一个）
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 单个通道积压的写入操作上限，超出后该通道失败
+     */
+    private int laneCapacity = 4096;
+
+    @Bean
+    public ThreadPoolTaskExecutor codePersistenceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("code-persist-");
+        // 队列满时拒绝，由通道记为失败，不在模型流式回调线程上执行 IO
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
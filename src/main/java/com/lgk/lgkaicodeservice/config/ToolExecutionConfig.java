@@ -0,0 +1,60 @@
+package com.lgk.lgkaicodeservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 工具执行配置
+ * 并行执行的并发上限、全局与单个应用的并发隔离、执行超时与输出长度上限
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.tool")
+@Data
+public class ToolExecutionConfig {
+
+    /**
+     * 同一次模型响应中同时执行的工具数上限
+     */
+    private int maxConcurrency = 4;
+
+    /**
+     * 整个服务同时执行的工具数上限
+     */
+    private int globalMaxConcurrency = 64;
+
+    /**
+     * 单个应用同时执行的工具数上限，跨多轮对话生效，防止单个应用占满全局名额
+     */
+    private int perAppMaxConcurrency = 4;
+
+    /**
+     * 等待执行名额的最长时间（毫秒），超时的工具调用被拒绝
+     */
+    private long acquireTimeoutMillis = 5000;
+
+    /**
+     * 未单独配置的工具的执行超时（秒）
+     */
+    private int defaultTimeoutSeconds = 30;
+
+    /**
+     * 各工具的执行超时（秒），key 为工具名称
+     */
+    private Map<String, Integer> timeoutSeconds = new HashMap<>();
+
+    /**
+     * 工具返回给模型的最大字符数，超出部分截断
+     */
+    private int maxOutputChars = 20000;
+
+    /**
+     * 获取工具的执行超时（秒）
+     */
+    public int getTimeoutSeconds(String toolName) {
+        return timeoutSeconds.getOrDefault(toolName, defaultTimeoutSeconds);
+    }
+}
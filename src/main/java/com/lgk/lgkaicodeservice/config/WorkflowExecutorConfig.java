@@ -0,0 +1,56 @@
+package com.lgk.lgkaicodeservice.config;
+
+import com.lgk.lgkaicodeservice.langgraph4j.ParallelNodeExecutor;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.DownstreamApiEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 工作流并行节点执行器配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "workflow.executor")
+@Data
+public class WorkflowExecutorConfig {
+
+    /**
+     * 同时执行的并行分支数上限
+     */
+    private int maxConcurrency = 32;
+
+    /**
+     * 等待执行的并行分支数上限，超出后拒绝
+     */
+    private int maxQueued = 256;
+
+    /**
+     * 各下游接口的并发上限，key 为接口的 value，未配置的接口不限流
+     */
+    private Map<String, Integer> apiConcurrency = new HashMap<>();
+
+    /**
+     * 关闭时等待已提交分支完成的最长时间（秒）
+     */
+    private long awaitTerminationSeconds = 60;
+
+    @Bean
+    public ParallelNodeExecutor parallelNodeExecutor(MeterRegistry meterRegistry) {
+        Map<DownstreamApiEnum, Integer> limits = new EnumMap<>(DownstreamApiEnum.class);
+        apiConcurrency.forEach((value, limit) -> {
+            DownstreamApiEnum api = DownstreamApiEnum.getEnumByValue(value);
+            if (api == null) {
+                throw new IllegalArgumentException("未知的下游接口: " + value);
+            }
+            limits.put(api, limit);
+        });
+        // 容器关闭时调用 close 优雅停止
+        return new ParallelNodeExecutor(maxConcurrency, maxQueued, limits, awaitTerminationSeconds, meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.lgk.lgkaicodeservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 工作流代码质检与重新生成配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "workflow.quality")
+@Data
+public class WorkflowQualityConfig {
+
+    /**
+     * 代码生成的最多次数（含首次生成），用完后不再因质检失败重新生成
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 定向修复时单个文件附带的最大字符数，超出的部分截断
+     */
+    private int maxRepairFileChars = 20000;
+}
@@ -22,6 +22,11 @@ public interface AppConstant {
      */
     String CODE_DEPLOY_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_deploy";
 
+    /**
+     * npm 依赖共享存储目录
+     */
+    String NPM_STORE_ROOT_DIR = System.getProperty("user.dir") + "/tmp/npm_store";
+
     /**
      * 应用部署域名
      */
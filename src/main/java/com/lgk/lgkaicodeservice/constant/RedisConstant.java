@@ -17,4 +17,66 @@ public interface RedisConstant {
         return String.format("%s:%s:%s", USER_SIGN_IN_REDIS_KEY_PREFIX, year, userId);
     }
 
+    /**
+     * 生成会话事件流（Redis Stream）的 Key 前缀
+     */
+    String GENERATION_SESSION_REDIS_KEY_PREFIX = "gen:session";
+
+    /**
+     * 获取生成会话事件流的 Redis Key
+     * @param appId 应用 id
+     * @param turnId 对话轮次 id
+     * @return 拼接好的 Redis Key
+     */
+    static String getGenerationSessionRedisKey(long appId, String turnId) {
+        return String.format("%s:%s:%s", GENERATION_SESSION_REDIS_KEY_PREFIX, appId, turnId);
+    }
+
+    /**
+     * 对话记忆版本号的 Key 前缀，每次写入对话记忆时递增
+     */
+    String CHAT_MEMORY_VERSION_REDIS_KEY_PREFIX = "chat:memory:version";
+
+    /**
+     * 获取对话记忆版本号的 Key
+     * @param memoryId 对话记忆 id
+     * @return 拼接好的 Redis Key
+     */
+    static String getChatMemoryVersionRedisKey(Object memoryId) {
+        return String.format("%s:%s", CHAT_MEMORY_VERSION_REDIS_KEY_PREFIX, memoryId);
+    }
+
+    /**
+     * 工作流执行记录（Sorted Set，score 为过期时间戳）的 Key
+     */
+    String WORKFLOW_RUN_REDIS_KEY = "workflow:runs";
+
+    /**
+     * 工作流节点检查点的 Key 前缀
+     */
+    String WORKFLOW_CHECKPOINT_REDIS_KEY_PREFIX = "workflow:checkpoint";
+
+    /**
+     * 获取工作流节点检查点的 Key
+     * @param runId 工作流执行 id
+     * @return 拼接好的 Redis Key
+     */
+    static String getWorkflowCheckpointRedisKey(long runId) {
+        return String.format("%s:%s", WORKFLOW_CHECKPOINT_REDIS_KEY_PREFIX, runId);
+    }
+
+    /**
+     * 工作流执行锁的 Key 前缀，执行或恢复期间持有
+     */
+    String WORKFLOW_RUN_LOCK_REDIS_KEY_PREFIX = "workflow:run:lock";
+
+    /**
+     * 获取工作流执行锁的 Key
+     * @param runId 工作流执行 id
+     * @return 拼接好的 Redis Key
+     */
+    static String getWorkflowRunLockRedisKey(long runId) {
+        return String.format("%s:%s", WORKFLOW_RUN_LOCK_REDIS_KEY_PREFIX, runId);
+    }
+
 }
@@ -2,9 +2,11 @@ package com.lgk.lgkaicodeservice.controller;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
 import com.lgk.lgkaicodeservice.annotation.AuthCheck;
+import com.lgk.lgkaicodeservice.code.handler.SseFrameCoalescer;
+import com.lgk.lgkaicodeservice.code.session.GenerationSessionRegistry;
 import com.lgk.lgkaicodeservice.common.BaseResponse;
 import com.lgk.lgkaicodeservice.common.DeleteRequest;
 import com.lgk.lgkaicodeservice.common.ResultUtils;
@@ -16,6 +18,7 @@ import com.lgk.lgkaicodeservice.exception.ThrowUtils;
 import com.lgk.lgkaicodeservice.model.dto.app.*;
 import com.lgk.lgkaicodeservice.model.entity.User;
 import com.lgk.lgkaicodeservice.model.vo.AppVO;
+import com.lgk.lgkaicodeservice.model.vo.VueBuildStatusVO;
 import com.lgk.lgkaicodeservice.ratelimit.annotation.RateLimit;
 import com.lgk.lgkaicodeservice.ratelimit.enums.RateLimitType;
 import com.lgk.lgkaicodeservice.service.ProjectDownloadService;
@@ -37,7 +40,6 @@ import reactor.core.publisher.Mono;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 应用 控制层。
@@ -57,36 +59,47 @@ public class AppController {
     @Resource
     private ProjectDownloadService projectDownloadService;
 
+    @Resource
+    private SseFrameCoalescer sseFrameCoalescer;
+
+    @Resource
+    private GenerationSessionRegistry generationSessionRegistry;
+
     /**
      * 应用聊天生成代码（流式 SSE）
      *
-     * @param appId   应用 ID
-     * @param message 用户消息
-     * @param request 请求对象
+     * 断线重连时（携带 Last-Event-ID）从生成会话续传，不会重新调用模型
+     *
+     * @param appId       应用 ID
+     * @param message     用户消息
+     * @param lastEventId 断线前收到的最后一个事件 ID
+     * @param request     请求对象
      * @return 生成结果流
      */
     @GetMapping(value = "/chat/gen/code", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    @RateLimit(limitType = RateLimitType.USER, rate = 5, rateInterval = 60, message = "AI 对话请求过于频繁，请稍后再试")
+    // 断线重连不调用模型，不计入限流，避免网络不稳定的客户端无法续传
+    @RateLimit(limitType = RateLimitType.USER, rate = 5, rateInterval = 60, message = "AI 对话请求过于频繁，请稍后再试",
+            exemptHeader = "Last-Event-ID")
     public Flux<ServerSentEvent<String>> chatToGenCode(@RequestParam Long appId,
                                                        @RequestParam String message,
+                                                       @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
                                                        HttpServletRequest request) {
         // 参数校验
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
         ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
         // 获取当前登录用户
         User loginUser = userService.getLoginUser(request);
+        if (StrUtil.isNotBlank(lastEventId)) {
+            // 断线重连，仅本人可以续传
+            App app = appService.getById(appId);
+            ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+            ThrowUtils.throwIf(!app.getUserId().equals(loginUser.getId()), ErrorCode.NO_AUTH_ERROR, "无权限访问该应用");
+            return generationSessionRegistry.resume(appId, lastEventId);
+        }
         // 调用服务生成代码（流式）
-        Flux<String> contentFlux = appService.chatToGenCode(appId, message, loginUser);
-        // 转换为 ServerSentEvent 格式
-        return contentFlux
-                .map(chunk -> {
-                    // 将内容包装成JSON对象
-                    Map<String, String> wrapper = Map.of("d", chunk);
-                    String jsonData = JSONUtil.toJsonStr(wrapper);
-                    return ServerSentEvent.<String>builder()
-                            .data(jsonData)
-                            .build();
-                })
+        Flux<StreamMessage> contentFlux = appService.chatToGenCode(appId, message, loginUser);
+        // 合并为 SSE 帧（全链路仅在此处序列化一次）
+        Flux<ServerSentEvent<String>> frames = sseFrameCoalescer.frame(contentFlux)
                 .concatWith(Mono.just(
                         // 发送结束事件
                         ServerSentEvent.<String>builder()
@@ -94,6 +107,8 @@ public class AppController {
                                 .data("")
                                 .build()
                 ));
+        // 生成与连接解耦，事件记录到生成会话以支持续传
+        return generationSessionRegistry.start(appId, frames);
     }
 
 
@@ -116,6 +131,19 @@ public class AppController {
         return ResultUtils.success(deployUrl);
     }
 
+    /**
+     * 查询 Vue 项目最近一次构建状态
+     *
+     * @param appId   应用 ID
+     * @param request 请求
+     * @return 构建状态
+     */
+    @GetMapping("/build/status")
+    public BaseResponse<VueBuildStatusVO> getVueBuildStatus(@RequestParam Long appId, HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        return ResultUtils.success(appService.getVueBuildStatus(appId, loginUser));
+    }
+
 
 
     /**
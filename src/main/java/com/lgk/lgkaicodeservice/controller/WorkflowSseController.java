@@ -17,13 +17,27 @@ import reactor.core.publisher.Flux;
 @Slf4j
 public class WorkflowSseController {
 
+    /**
+     * 工作流已由 WorkflowRegistry 预编译，执行器本身无状态，所有请求共用
+     */
+    private final CodeGenWorkflow codeGenWorkflow = new CodeGenWorkflow();
+
     /**
      * 同步执行工作流
      */
     @PostMapping("/execute")
     public WorkflowContext executeWorkflow(@RequestParam String prompt) {
         log.info("收到同步工作流执行请求: {}", prompt);
-        return new CodeGenWorkflow().executeWorkflow(prompt);
+        return codeGenWorkflow.executeWorkflow(prompt);
+    }
+
+    /**
+     * 从最近的检查点恢复执行工作流
+     */
+    @PostMapping("/resume")
+    public WorkflowContext resumeWorkflow(@RequestParam Long runId) {
+        log.info("收到工作流恢复执行请求，执行 ID: {}", runId);
+        return codeGenWorkflow.resumeWorkflow(runId);
     }
 
     /**
@@ -32,7 +46,7 @@ public class WorkflowSseController {
     @GetMapping(value = "/execute-flux", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<String> executeWorkflowWithFlux(@RequestParam String prompt) {
         log.info("收到 Flux 工作流执行请求: {}", prompt);
-        return new CodeGenWorkflow().executeWorkflowWithFlux(prompt);
+        return codeGenWorkflow.executeWorkflowWithFlux(prompt);
     }
 
 
@@ -42,7 +56,7 @@ public class WorkflowSseController {
     @GetMapping(value = "/execute-sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter executeWorkflowWithSse(@RequestParam String prompt) {
         log.info("收到 SSE 工作流执行请求: {}", prompt);
-        return new CodeGenWorkflow().executeWorkflowWithSse(prompt);
+        return codeGenWorkflow.executeWorkflowWithSse(prompt);
     }
 
 }
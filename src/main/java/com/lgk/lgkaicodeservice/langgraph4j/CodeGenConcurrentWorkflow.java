@@ -1,22 +1,20 @@
 package com.lgk.lgkaicodeservice.langgraph4j;
 
-import cn.hutool.core.thread.ExecutorBuilder;
-import cn.hutool.core.thread.ThreadFactoryBuilder;
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
 import com.lgk.lgkaicodeservice.exception.BusinessException;
 import com.lgk.lgkaicodeservice.exception.ErrorCode;
 import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.WorkflowTypeEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.node.*;
 import com.lgk.lgkaicodeservice.langgraph4j.node.concurrent.*;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
+import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.bsc.langgraph4j.*;
 import org.bsc.langgraph4j.prebuilt.MessagesState;
 import org.bsc.langgraph4j.prebuilt.MessagesStateGraph;
 
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import static org.bsc.langgraph4j.StateGraph.END;
 import static org.bsc.langgraph4j.StateGraph.START;
@@ -27,6 +25,7 @@ public class CodeGenConcurrentWorkflow {
 
     /**
      * 创建并发工作流
+     * 由 {@link WorkflowRegistry} 在启动时编译一次，执行时通过 getWorkflow 获取
      */
     public CompiledGraph<MessagesState<String>> createWorkflow() {
         try {
@@ -82,30 +81,32 @@ public class CodeGenConcurrentWorkflow {
         }
     }
 
+    /**
+     * 获取启动时编译好的工作流
+     */
+    private CompiledGraph<MessagesState<String>> getWorkflow() {
+        return SpringContextUtil.getBean(WorkflowRegistry.class).getWorkflow(WorkflowTypeEnum.CONCURRENT);
+    }
+
     /**
      * 执行并发工作流
      */
     public WorkflowContext executeWorkflow(String originalPrompt) {
-        CompiledGraph<MessagesState<String>> workflow = createWorkflow();
+        CompiledGraph<MessagesState<String>> workflow = getWorkflow();
+        WorkflowRunManager runManager = SpringContextUtil.getBean(WorkflowRunManager.class);
+        long runId = runManager.startRun();
         WorkflowContext initialContext = WorkflowContext.builder()
+                .runId(runId)
                 .originalPrompt(originalPrompt)
                 .currentStep("初始化")
                 .build();
-        GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
-        log.info("并发工作流图:\n{}", graph.content());
         log.info("开始执行并发代码生成工作流");
         WorkflowContext finalContext = null;
         int stepCounter = 1;
 
-        // 配置并发执行
-        ExecutorService pool = ExecutorBuilder.create()
-                .setCorePoolSize(10)
-                .setMaxPoolSize(20)
-                .setWorkQueue(new LinkedBlockingQueue<>(100))
-                .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("Parallel-Image-Collect").build())
-                .build();
+        // 并行分支使用全应用共享的执行器
         RunnableConfig runnableConfig = RunnableConfig.builder()
-                .addParallelNodeExecutor("image_plan", pool)
+                .addParallelNodeExecutor("image_plan", SpringContextUtil.getBean(ParallelNodeExecutor.class))
                 .build();
         for (NodeOutput<MessagesState<String>> step : workflow.stream(
                 Map.of(WorkflowContext.WORKFLOW_CONTEXT_KEY, initialContext),
@@ -118,6 +119,7 @@ public class CodeGenConcurrentWorkflow {
             }
             stepCounter++;
         }
+        runManager.finishRun(runId);
         log.info("并发代码生成工作流执行完成！");
         return finalContext;
     }
@@ -130,10 +132,15 @@ public class CodeGenConcurrentWorkflow {
         QualityResult qualityResult = context.getQualityResult();
 
         if (qualityResult == null || !qualityResult.getIsValid()) {
-            log.error("代码质检失败，需要重新生成代码");
-            return "fail";
+            // 生成次数用完后保留当前代码继续后续流程，避免无限重试
+            if (context.canRetryGeneration()) {
+                log.error("代码质检失败，需要重新生成代码");
+                return "fail";
+            }
+            log.warn("代码质检失败，已达到最多生成次数，继续后续流程");
+        } else {
+            log.info("代码质检通过，继续后续流程");
         }
-        log.info("代码质检通过，继续后续流程");
         CodeGenTypeEnum generationType = context.getGenerationType();
         if (generationType == CodeGenTypeEnum.VUE_PROJECT) {
             return "build";
@@ -4,9 +4,11 @@ import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
 import com.lgk.lgkaicodeservice.exception.BusinessException;
 import com.lgk.lgkaicodeservice.exception.ErrorCode;
 import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.WorkflowTypeEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.node.*;
 import com.lgk.lgkaicodeservice.langgraph4j.node.concurrent.*;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
+import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.bsc.langgraph4j.*;
 import org.bsc.langgraph4j.prebuilt.MessagesState;
@@ -79,6 +81,7 @@ public class CodeGenSubgraphWorkflow {
 
     /**
      * 创建子图工作流
+     * 由 {@link WorkflowRegistry} 在启动时编译一次，执行时通过 getWorkflow 获取
      */
     public CompiledGraph<MessagesState<String>> createWorkflow() {
         try {
@@ -143,6 +146,13 @@ public class CodeGenSubgraphWorkflow {
         }
     }
 
+    /**
+     * 获取启动时编译好的工作流
+     */
+    private CompiledGraph<MessagesState<String>> getWorkflow() {
+        return SpringContextUtil.getBean(WorkflowRegistry.class).getWorkflow(WorkflowTypeEnum.SUBGRAPH);
+    }
+
     /**
      * 路由函数：根据质检结果决定下一步
      */
@@ -151,11 +161,15 @@ public class CodeGenSubgraphWorkflow {
         QualityResult qualityResult = context.getQualityResult();
 
         if (qualityResult == null || !qualityResult.getIsValid()) {
-            log.error("代码质检失败，需要重新生成代码");
-            return "fail";
+            // 生成次数用完后保留当前代码继续后续流程，避免无限重试
+            if (context.canRetryGeneration()) {
+                log.error("代码质检失败，需要重新生成代码");
+                return "fail";
+            }
+            log.warn("代码质检失败，已达到最多生成次数，继续后续流程");
+        } else {
+            log.info("代码质检通过，继续后续流程");
         }
-
-        log.info("代码质检通过，继续后续流程");
         CodeGenTypeEnum generationType = context.getGenerationType();
         if (generationType == CodeGenTypeEnum.VUE_PROJECT) {
             return "build";
@@ -168,15 +182,16 @@ public class CodeGenSubgraphWorkflow {
      * 执行子图工作流
      */
     public WorkflowContext executeWorkflow(String originalPrompt) {
-        CompiledGraph<MessagesState<String>> workflow = createWorkflow();
+        CompiledGraph<MessagesState<String>> workflow = getWorkflow();
 
+        WorkflowRunManager runManager = SpringContextUtil.getBean(WorkflowRunManager.class);
+        long runId = runManager.startRun();
         WorkflowContext initialContext = WorkflowContext.builder()
+                .runId(runId)
                 .originalPrompt(originalPrompt)
                 .currentStep("初始化")
                 .build();
 
-        GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
-        log.info("子图工作流图:\n{}", graph.content());
         log.info("开始执行子图代码生成工作流");
 
         WorkflowContext finalContext = null;
@@ -191,6 +206,7 @@ public class CodeGenSubgraphWorkflow {
             }
             stepCounter++;
         }
+        runManager.finishRun(runId);
         log.info("子图代码生成工作流执行完成！");
         return finalContext;
     }
@@ -4,16 +4,19 @@ import cn.hutool.json.JSONUtil;
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
 import com.lgk.lgkaicodeservice.exception.BusinessException;
 import com.lgk.lgkaicodeservice.exception.ErrorCode;
+import com.lgk.lgkaicodeservice.exception.ThrowUtils;
 import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.WorkflowTypeEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.node.*;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
+import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.bsc.langgraph4j.CompiledGraph;
-import org.bsc.langgraph4j.GraphRepresentation;
 import org.bsc.langgraph4j.GraphStateException;
 import org.bsc.langgraph4j.NodeOutput;
 import org.bsc.langgraph4j.prebuilt.MessagesState;
 import org.bsc.langgraph4j.prebuilt.MessagesStateGraph;
+import org.redisson.api.RLock;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import reactor.core.publisher.Flux;
 
@@ -29,17 +32,18 @@ public class CodeGenWorkflow {
 
     /**
      * 创建完整的工作流
+     * 由 {@link WorkflowRegistry} 在启动时编译一次，执行时通过 getWorkflow 获取
      */
     public CompiledGraph<MessagesState<String>> createWorkflow() {
         try {
             return new MessagesStateGraph<String>()
-                    // 添加节点 - 使用完整实现的节点
-                    .addNode("image_collector", ImageCollectorNode.create())
-                    .addNode("prompt_enhancer", PromptEnhancerNode.create())
-                    .addNode("router", RouterNode.create())
-                    .addNode("code_generator", CodeGeneratorNode.create())
-                    .addNode("project_builder", ProjectBuilderNode.create())
-                    .addNode("code_quality_check", CodeQualityCheckNode.create())
+                    // 添加节点 - 使用完整实现的节点，每个节点执行成功后保存检查点
+                    .addNode("image_collector", CheckpointedNode.wrap("image_collector", ImageCollectorNode.create()))
+                    .addNode("prompt_enhancer", CheckpointedNode.wrap("prompt_enhancer", PromptEnhancerNode.create()))
+                    .addNode("router", CheckpointedNode.wrap("router", RouterNode.create()))
+                    .addNode("code_generator", CheckpointedNode.wrap("code_generator", CodeGeneratorNode.create()))
+                    .addNode("project_builder", CheckpointedNode.wrap("project_builder", ProjectBuilderNode.create(true)))
+                    .addNode("code_quality_check", CheckpointedNode.wrap("code_quality_check", CodeQualityCheckNode.create()))
 
 
 
@@ -67,6 +71,13 @@ public class CodeGenWorkflow {
         }
     }
 
+    /**
+     * 获取启动时编译好的工作流
+     */
+    private CompiledGraph<MessagesState<String>> getWorkflow() {
+        return SpringContextUtil.getBean(WorkflowRegistry.class).getWorkflow(WorkflowTypeEnum.STANDARD);
+    }
+
     private String routeBuildOrSkip(MessagesState<String> state) {
         WorkflowContext context = WorkflowContext.getContext(state);
         CodeGenTypeEnum generationType = context.getGenerationType();
@@ -78,16 +89,21 @@ public class CodeGenWorkflow {
         return "build";
     }
 
-    private String routeAfterQualityCheck(MessagesState<String> state) {
+    String routeAfterQualityCheck(MessagesState<String> state) {
         WorkflowContext context = WorkflowContext.getContext(state);
         QualityResult qualityResult = context.getQualityResult();
         // 如果质检失败，重新生成代码
         if (qualityResult == null || !qualityResult.getIsValid()) {
-            log.error("代码质检失败，需要重新生成代码");
-            return "fail";
+            // 生成次数用完后保留当前代码继续后续流程，避免无限重试
+            if (context.canRetryGeneration()) {
+                log.error("代码质检失败，需要重新生成代码");
+                return "fail";
+            }
+            log.warn("代码质检失败，已达到最多生成次数，继续后续流程");
+        } else {
+            log.info("代码质检通过，继续后续流程");
         }
-        // 质检通过，使用原有的构建路由逻辑
-        log.info("代码质检通过，继续后续流程");
+        // 使用原有的构建路由逻辑
         return routeBuildOrSkip(state);
     }
 
@@ -97,18 +113,57 @@ public class CodeGenWorkflow {
      * 执行工作流
      */
     public WorkflowContext executeWorkflow(String originalPrompt) {
-        CompiledGraph<MessagesState<String>> workflow = createWorkflow();
+        CompiledGraph<MessagesState<String>> workflow = getWorkflow();
 
         // 初始化 WorkflowContext
-        WorkflowContext initialContext = WorkflowContext.builder()
-                .originalPrompt(originalPrompt)
-                .currentStep("初始化")
-                .build();
+        WorkflowRunManager runManager = SpringContextUtil.getBean(WorkflowRunManager.class);
+        long runId = runManager.startRun();
+        RLock runLock = runManager.lockRun(runId);
+        try {
+            WorkflowContext initialContext = WorkflowContext.builder()
+                    .runId(runId)
+                    .originalPrompt(originalPrompt)
+                    .currentStep("初始化")
+                    .build();
+
+            log.info("开始执行代码生成工作流");
+            WorkflowContext finalContext = runToEnd(workflow, initialContext);
+            runManager.finishRun(runId);
+            log.info("代码生成工作流执行完成！");
+            return finalContext;
+        } finally {
+            runManager.unlockRun(runLock);
+        }
+    }
 
-        GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
-        log.info("工作流图:\n{}", graph.content());
-        log.info("开始执行代码生成工作流");
+    /**
+     * 从最近的检查点恢复执行工作流
+     * 上次最后完成的节点及其之前的节点不再执行，从中断处的下一个节点继续
+     * 执行期间持有执行锁，仍在执行或正在恢复的执行会被拒绝
+     */
+    public WorkflowContext resumeWorkflow(long runId) {
+        WorkflowRunManager runManager = SpringContextUtil.getBean(WorkflowRunManager.class);
+        RLock runLock = runManager.lockRun(runId);
+        try {
+            // 持有锁之后再读取检查点，读到的一定是上次执行停止后的状态
+            WorkflowContext checkpoint = SpringContextUtil.getBean(WorkflowCheckpointStore.class).load(runId);
+            ThrowUtils.throwIf(checkpoint == null, ErrorCode.NOT_FOUND_ERROR, "没有可恢复的工作流执行");
+            runManager.resumeRun(runId);
+            checkpoint.setResumeFromNode(checkpoint.getLastCompletedNode());
+            log.info("恢复执行代码生成工作流，执行 ID: {}，上次完成的节点: {}", runId, checkpoint.getLastCompletedNode());
+            WorkflowContext finalContext = runToEnd(getWorkflow(), checkpoint);
+            runManager.finishRun(runId);
+            log.info("代码生成工作流恢复执行完成！");
+            return finalContext;
+        } finally {
+            runManager.unlockRun(runLock);
+        }
+    }
 
+    /**
+     * 同步执行工作流直到结束，执行成功后删除检查点
+     */
+    private WorkflowContext runToEnd(CompiledGraph<MessagesState<String>> workflow, WorkflowContext initialContext) {
         WorkflowContext finalContext = null;
         int stepCounter = 1;
         for (NodeOutput<MessagesState<String>> step : workflow.stream(
@@ -122,7 +177,7 @@ public class CodeGenWorkflow {
             }
             stepCounter++;
         }
-        log.info("代码生成工作流执行完成！");
+        SpringContextUtil.getBean(WorkflowCheckpointStore.class).delete(initialContext.getRunId());
         return finalContext;
     }
 
@@ -132,18 +187,22 @@ public class CodeGenWorkflow {
     public Flux<String> executeWorkflowWithFlux(String originalPrompt) {
         return Flux.create(sink -> {
             Thread.startVirtualThread(() -> {
+                WorkflowRunManager runManager = SpringContextUtil.getBean(WorkflowRunManager.class);
+                RLock runLock = null;
                 try {
-                    CompiledGraph<MessagesState<String>> workflow = createWorkflow();
+                    CompiledGraph<MessagesState<String>> workflow = getWorkflow();
+                    long runId = runManager.startRun();
+                    runLock = runManager.lockRun(runId);
                     WorkflowContext initialContext = WorkflowContext.builder()
+                            .runId(runId)
                             .originalPrompt(originalPrompt)
                             .currentStep("初始化")
                             .build();
                     sink.next(formatSseEvent("workflow_start", Map.of(
                             "message", "开始执行代码生成工作流",
+                            "runId", String.valueOf(runId),
                             "originalPrompt", originalPrompt
                     )));
-                    GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
-                    log.info("工作流图:\n{}", graph.content());
 
                     int stepCounter = 1;
                     for (NodeOutput<MessagesState<String>> step : workflow.stream(
@@ -162,6 +221,8 @@ public class CodeGenWorkflow {
                     sink.next(formatSseEvent("workflow_completed", Map.of(
                             "message", "代码生成工作流执行完成！"
                     )));
+                    SpringContextUtil.getBean(WorkflowCheckpointStore.class).delete(runId);
+                    runManager.finishRun(runId);
                     log.info("代码生成工作流执行完成！");
                     sink.complete();
                 } catch (Exception e) {
@@ -171,6 +232,8 @@ public class CodeGenWorkflow {
                             "message", "工作流执行失败"
                     )));
                     sink.error(e);
+                } finally {
+                    runManager.unlockRun(runLock);
                 }
             });
         });
@@ -196,18 +259,22 @@ public class CodeGenWorkflow {
     public SseEmitter executeWorkflowWithSse(String originalPrompt) {
         SseEmitter emitter = new SseEmitter(30 * 60 * 1000L);
         Thread.startVirtualThread(() -> {
+            WorkflowRunManager runManager = SpringContextUtil.getBean(WorkflowRunManager.class);
+            RLock runLock = null;
             try {
-                CompiledGraph<MessagesState<String>> workflow = createWorkflow();
+                CompiledGraph<MessagesState<String>> workflow = getWorkflow();
+                long runId = runManager.startRun();
+                runLock = runManager.lockRun(runId);
                 WorkflowContext initialContext = WorkflowContext.builder()
+                        .runId(runId)
                         .originalPrompt(originalPrompt)
                         .currentStep("初始化")
                         .build();
                 sendSseEvent(emitter, "workflow_start", Map.of(
                         "message", "开始执行代码生成工作流",
+                        "runId", String.valueOf(runId),
                         "originalPrompt", originalPrompt
                 ));
-                GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
-                log.info("工作流图:\n{}", graph.content());
 
                 int stepCounter = 1;
                 for (NodeOutput<MessagesState<String>> step : workflow.stream(
@@ -226,6 +293,8 @@ public class CodeGenWorkflow {
                 sendSseEvent(emitter, "workflow_completed", Map.of(
                         "message", "代码生成工作流执行完成！"
                 ));
+                SpringContextUtil.getBean(WorkflowCheckpointStore.class).delete(runId);
+                runManager.finishRun(runId);
                 log.info("代码生成工作流执行完成！");
                 emitter.complete();
             } catch (Exception e) {
@@ -235,6 +304,8 @@ public class CodeGenWorkflow {
                         "message", "工作流执行失败"
                 ));
                 emitter.completeWithError(e);
+            } finally {
+                runManager.unlockRun(runLock);
             }
         });
         return emitter;
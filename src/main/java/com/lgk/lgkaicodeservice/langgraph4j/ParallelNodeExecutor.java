@@ -0,0 +1,122 @@
+package com.lgk.lgkaicodeservice.langgraph4j;
+
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.DownstreamApiEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 工作流并行节点执行器
+ * 全应用共享，通过 RunnableConfig.addParallelNodeExecutor 交给并行分支使用
+ * 每个分支运行在虚拟线程上，同时执行的分支数和排队数有上限，下游接口按接口单独限流
+ */
+@Slf4j
+public class ParallelNodeExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorService delegate =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("workflow-parallel-", 0).factory());
+
+    private final Semaphore permits;
+
+    private final int maxQueued;
+
+    private final Map<DownstreamApiEnum, Semaphore> apiPermits = new EnumMap<>(DownstreamApiEnum.class);
+
+    private final long awaitTerminationSeconds;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Counter rejected;
+
+    public ParallelNodeExecutor(int maxConcurrency, int maxQueued, Map<DownstreamApiEnum, Integer> apiConcurrency,
+                                long awaitTerminationSeconds, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxQueued = maxQueued;
+        this.awaitTerminationSeconds = awaitTerminationSeconds;
+        apiConcurrency.forEach((api, limit) -> apiPermits.put(api, new Semaphore(limit, true)));
+        Gauge.builder("workflow.parallel.active", active, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("workflow.parallel.queued", queued, AtomicInteger::get).register(meterRegistry);
+        this.rejected = meterRegistry.counter("workflow.parallel.rejected");
+    }
+
+    /**
+     * 提交一个并行分支，排队数超过上限时拒绝
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("并行节点排队数已达上限: " + maxQueued);
+        }
+        try {
+            delegate.execute(() -> {
+                // 分支一旦提交必须执行，否则等待它的图执行永远不会结束
+                permits.acquireUninterruptibly();
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * 在下游接口的并发名额内执行调用，未配置限流的接口直接执行
+     *
+     * @param api  下游接口
+     * @param call 调用逻辑
+     * @return 调用结果
+     */
+    public <T> T callWithPermit(DownstreamApiEnum api, Callable<T> call) throws Exception {
+        Semaphore semaphore = apiPermits.get(api);
+        if (semaphore == null) {
+            return call.call();
+        }
+        semaphore.acquire();
+        try {
+            return call.call();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * 停止接收新分支，等待已提交的分支执行完成，超时后中断
+     */
+    @Override
+    public void close() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(awaitTerminationSeconds, TimeUnit.SECONDS)) {
+                log.warn("并行节点执行器关闭超时，中断剩余 {} 个分支", active.get() + queued.get());
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
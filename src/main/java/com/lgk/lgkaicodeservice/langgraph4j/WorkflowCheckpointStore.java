@@ -0,0 +1,92 @@
+package com.lgk.lgkaicodeservice.langgraph4j;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lgk.lgkaicodeservice.constant.RedisConstant;
+import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 工作流检查点存储
+ * 每个节点执行成功后按执行 ID 保存一份 WorkflowContext 到 Redis，服务重启后仍可从最近的节点恢复
+ * 保留时间与执行产物一致，过期后检查点和产物一起失效
+ * 检查点以 JSON 保存，读取时只反序列化为 WorkflowContext，不依赖 Java 序列化
+ */
+@Slf4j
+@Component
+public class WorkflowCheckpointStore {
+
+    /**
+     * 忽略未知字段，升级后字段变化时仍能读取旧检查点
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Value("${workflow.run.ttl-minutes:120}")
+    private long ttlMinutes;
+
+    /**
+     * 保存节点执行后的上下文
+     *
+     * @param nodeId  执行成功的节点
+     * @param context 节点执行后的上下文
+     */
+    public void save(String nodeId, WorkflowContext context) {
+        if (context.getRunId() == null) {
+            return;
+        }
+        context.setLastCompletedNode(nodeId);
+        String json;
+        try {
+            json = OBJECT_MAPPER.writeValueAsString(context);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("工作流检查点序列化失败", e);
+        }
+        getBucket(context.getRunId()).set(json, Duration.ofMinutes(ttlMinutes));
+        log.debug("已保存工作流检查点，执行 ID: {}，节点: {}", context.getRunId(), nodeId);
+    }
+
+    /**
+     * 读取最近一次保存的上下文
+     *
+     * @param runId 执行 ID
+     * @return 上下文，不存在或无法解析时返回 null
+     */
+    public WorkflowContext load(long runId) {
+        String json = getBucket(runId).get();
+        if (json == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, WorkflowContext.class);
+        } catch (JsonProcessingException e) {
+            log.warn("工作流检查点无法解析，执行 ID: {}，{}", runId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 执行完成后删除检查点，已完成的执行不可恢复
+     *
+     * @param runId 执行 ID
+     */
+    public void delete(long runId) {
+        getBucket(runId).delete();
+    }
+
+    private RBucket<String> getBucket(long runId) {
+        return redissonClient.getBucket(RedisConstant.getWorkflowCheckpointRedisKey(runId), StringCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,56 @@
+package com.lgk.lgkaicodeservice.langgraph4j;
+
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import com.lgk.lgkaicodeservice.exception.ErrorCode;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.WorkflowTypeEnum;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.CompiledGraph;
+import org.bsc.langgraph4j.GraphRepresentation;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 工作流注册表
+ * 启动时编译各工作流，运行期共享编译结果，每次执行的状态只通过输入 Map 传入
+ * 节点和路由函数均无状态，同一个 CompiledGraph 可被多个请求并发执行
+ */
+@Slf4j
+@Component
+public class WorkflowRegistry {
+
+    private final Map<WorkflowTypeEnum, CompiledGraph<MessagesState<String>>> workflows =
+            new EnumMap<>(WorkflowTypeEnum.class);
+
+    @PostConstruct
+    public void init() {
+        register(WorkflowTypeEnum.STANDARD, new CodeGenWorkflow().createWorkflow());
+        register(WorkflowTypeEnum.CONCURRENT, new CodeGenConcurrentWorkflow().createWorkflow());
+        register(WorkflowTypeEnum.SUBGRAPH, new CodeGenSubgraphWorkflow().createWorkflow());
+        log.info("工作流注册表初始化完成，共编译 {} 个工作流", workflows.size());
+    }
+
+    private void register(WorkflowTypeEnum type, CompiledGraph<MessagesState<String>> workflow) {
+        workflows.put(type, workflow);
+        // 工作流图只在启动时生成一次
+        GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
+        log.info("{}图:\n{}", type.getText(), graph.content());
+    }
+
+    /**
+     * 获取已编译的工作流
+     *
+     * @param type 工作流类型
+     * @return 已编译的工作流
+     */
+    public CompiledGraph<MessagesState<String>> getWorkflow(WorkflowTypeEnum type) {
+        CompiledGraph<MessagesState<String>> workflow = workflows.get(type);
+        if (workflow == null) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "工作流未注册: " + type);
+        }
+        return workflow;
+    }
+}
@@ -0,0 +1,190 @@
+package com.lgk.lgkaicodeservice.langgraph4j;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.lgk.lgkaicodeservice.ai.memory.TieredChatMemoryStore;
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.ai.tool.workspace.ProjectWorkspaceManager;
+import com.lgk.lgkaicodeservice.constant.AppConstant;
+import com.lgk.lgkaicodeservice.constant.RedisConstant;
+import com.lgk.lgkaicodeservice.exception.ErrorCode;
+import com.lgk.lgkaicodeservice.exception.ThrowUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作流执行管理
+ * 为每次执行分配唯一的执行 ID，并在保留期过后清理该次执行的代码目录、暂存文件、对话记忆和检查点
+ * 执行记录保存在 Redis 中，服务重启或多节点部署时仍能清理；执行期间持有执行锁，同一执行不会被并发运行
+ */
+@Slf4j
+@Component
+public class WorkflowRunManager {
+
+    /**
+     * 写入文件时的暂存目录，位于代码输出根目录下
+     */
+    private static final String STAGING_DIR_NAME = ".staging";
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private TieredChatMemoryStore tieredChatMemoryStore;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Resource
+    private WorkflowCheckpointStore workflowCheckpointStore;
+
+    /**
+     * 执行结束后保留产物的时间（分钟），从开始执行起同样计时，异常中断的执行也会被清理
+     */
+    @Value("${workflow.run.ttl-minutes:120}")
+    private long ttlMinutes;
+
+    /**
+     * 清理任务的执行间隔（分钟）
+     */
+    @Value("${workflow.run.sweep-interval-minutes:10}")
+    private long sweepIntervalMinutes;
+
+    private Disposable sweeper;
+
+    @PostConstruct
+    public void init() {
+        sweeper = Schedulers.parallel().schedulePeriodically(this::sweep,
+                sweepIntervalMinutes, sweepIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.dispose();
+        }
+    }
+
+    /**
+     * 开始一次执行
+     *
+     * @return 执行 ID
+     */
+    public long startRun() {
+        long runId = IdUtil.getSnowflakeNextId();
+        getRuns().add(expireAt(), String.valueOf(runId));
+        log.info("工作流开始执行，执行 ID: {}", runId);
+        return runId;
+    }
+
+    /**
+     * 恢复一次执行，保留期从此刻重新计时
+     *
+     * @param runId 执行 ID
+     */
+    public void resumeRun(long runId) {
+        getRuns().add(expireAt(), String.valueOf(runId));
+        log.info("工作流恢复执行，执行 ID: {}", runId);
+    }
+
+    /**
+     * 结束一次执行，保留期从此刻重新计时
+     *
+     * @param runId 执行 ID
+     */
+    public void finishRun(long runId) {
+        getRuns().add(expireAt(), String.valueOf(runId));
+        log.info("工作流执行结束，执行 ID: {}，产物保留 {} 分钟", runId, ttlMinutes);
+    }
+
+    /**
+     * 获取执行锁，执行或恢复期间一直持有，防止恢复仍在执行的执行或重复恢复同一执行
+     * 锁由 Redisson 看门狗续期，持有锁的节点宕机后自动释放
+     *
+     * @param runId 执行 ID
+     * @return 已获取的锁，执行结束后通过 unlockRun 在同一线程释放
+     */
+    public RLock lockRun(long runId) {
+        RLock lock = getRunLock(runId);
+        ThrowUtils.throwIf(!lock.tryLock(), ErrorCode.OPERATION_ERROR, "该工作流执行正在进行中，请稍后再试");
+        return lock;
+    }
+
+    /**
+     * 释放执行锁
+     *
+     * @param lock lockRun 返回的锁
+     */
+    public void unlockRun(RLock lock) {
+        if (lock != null && lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 清理已过保留期的执行
+     */
+    public void sweep() {
+        try {
+            RScoredSortedSet<String> runs = getRuns();
+            Collection<String> expired = runs.valueRange(0, true, System.currentTimeMillis(), true);
+            for (String runId : expired) {
+                // 仍在执行的不清理，保留期顺延
+                if (getRunLock(Long.parseLong(runId)).isLocked()) {
+                    runs.add(expireAt(), runId);
+                    continue;
+                }
+                // 多个节点同时清理时只有移除成功的一方执行清理
+                if (runs.remove(runId)) {
+                    cleanup(Long.parseLong(runId));
+                }
+            }
+        } catch (Exception e) {
+            log.error("清理过期工作流执行失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void cleanup(long runId) {
+        projectWorkspaceManager.discard(runId);
+        File stagingDir = new File(AppConstant.CODE_OUTPUT_ROOT_DIR, STAGING_DIR_NAME);
+        for (CodeGenTypeEnum codeGenType : CodeGenTypeEnum.values()) {
+            String dirName = codeGenType.getValue() + "_" + runId;
+            FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName));
+            File[] stagedFiles = stagingDir.listFiles((dir, name) -> name.startsWith(dirName + "."));
+            if (stagedFiles != null) {
+                for (File stagedFile : stagedFiles) {
+                    FileUtil.del(stagedFile);
+                }
+            }
+        }
+        tieredChatMemoryStore.deleteMessages(runId);
+        workflowCheckpointStore.delete(runId);
+        log.info("已清理过期工作流执行，执行 ID: {}", runId);
+    }
+
+    private long expireAt() {
+        return System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes);
+    }
+
+    private RLock getRunLock(long runId) {
+        return redissonClient.getLock(RedisConstant.getWorkflowRunLockRedisKey(runId));
+    }
+
+    private RScoredSortedSet<String> getRuns() {
+        return redissonClient.getScoredSortedSet(RedisConstant.WORKFLOW_RUN_REDIS_KEY, StringCodec.INSTANCE);
+    }
+}
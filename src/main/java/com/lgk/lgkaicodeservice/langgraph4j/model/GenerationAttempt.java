@@ -0,0 +1,54 @@
+package com.lgk.lgkaicodeservice.langgraph4j.model;
+
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.GenerationModeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 单次代码生成的记录
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerationAttempt implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 第几次生成，从 1 开始
+     */
+    private Integer attempt;
+
+    /**
+     * 生成模式
+     */
+    private GenerationModeEnum mode;
+
+    /**
+     * 定向修复的文件，全量生成时为空
+     */
+    private List<String> repairedFiles;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Long durationMillis;
+
+    /**
+     * 输入 token 数，模型未返回用量时为空
+     */
+    private Integer inputTokens;
+
+    /**
+     * 输出 token 数，模型未返回用量时为空
+     */
+    private Integer outputTokens;
+}
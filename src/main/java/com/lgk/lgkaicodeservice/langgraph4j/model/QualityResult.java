@@ -32,4 +32,9 @@ public class QualityResult implements Serializable {
      * 改进建议
      */
     private List<String> suggestions;
+
+    /**
+     * 存在问题的文件（相对于项目根目录），用于定向修复
+     */
+    private List<String> failingFiles;
 }
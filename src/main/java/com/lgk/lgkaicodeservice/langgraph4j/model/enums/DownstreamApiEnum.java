@@ -0,0 +1,44 @@
+package com.lgk.lgkaicodeservice.langgraph4j.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * 并行节点调用的下游接口，每个接口单独限制并发
+ */
+@Getter
+public enum DownstreamApiEnum {
+
+    PEXELS("Pexels 图片搜索", "pexels"),
+    UNDRAW("unDraw 插画", "undraw"),
+    MERMAID("Mermaid 图表渲染", "mermaid"),
+    DASHSCOPE("DashScope 图片生成", "dashscope");
+
+
+    private final String text;
+
+    private final String value;
+
+    DownstreamApiEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value 枚举值的value
+     * @return 枚举值
+     */
+    public static DownstreamApiEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (DownstreamApiEnum anEnum : DownstreamApiEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
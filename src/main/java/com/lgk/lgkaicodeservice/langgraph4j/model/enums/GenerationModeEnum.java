@@ -0,0 +1,39 @@
+package com.lgk.lgkaicodeservice.langgraph4j.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+@Getter
+public enum GenerationModeEnum {
+
+    FULL("全量生成", "full"),
+    REPAIR("定向修复", "repair");
+
+
+    private final String text;
+
+    private final String value;
+
+    GenerationModeEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value 枚举值的value
+     * @return 枚举值
+     */
+    public static GenerationModeEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (GenerationModeEnum anEnum : GenerationModeEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.lgk.lgkaicodeservice.langgraph4j.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+@Getter
+public enum WorkflowTypeEnum {
+
+    STANDARD("串行工作流", "standard"),
+    CONCURRENT("并发工作流", "concurrent"),
+    SUBGRAPH("子图工作流", "subgraph");
+
+
+    private final String text;
+
+    private final String value;
+
+    WorkflowTypeEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value 枚举值的value
+     * @return 枚举值
+     */
+    public static WorkflowTypeEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (WorkflowTypeEnum anEnum : WorkflowTypeEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.lgk.lgkaicodeservice.langgraph4j.node;
+
+import com.lgk.lgkaicodeservice.langgraph4j.WorkflowCheckpointStore;
+import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
+import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 检查点节点包装
+ * 节点执行成功后保存检查点；恢复执行时，到达上次最后完成的节点之前的节点直接跳过
+ * 跳过期间的条件边使用恢复出的上下文路由，因此会走到上次中断的下一个节点
+ */
+@Slf4j
+public class CheckpointedNode {
+
+    public static AsyncNodeAction<MessagesState<String>> wrap(String nodeId, AsyncNodeAction<MessagesState<String>> action) {
+        return state -> {
+            WorkflowContext context = WorkflowContext.getContext(state);
+            String resumeFromNode = context.getResumeFromNode();
+            if (resumeFromNode != null) {
+                if (resumeFromNode.equals(nodeId)) {
+                    // 已回到中断位置，后续节点正常执行
+                    context.setResumeFromNode(null);
+                }
+                log.info("恢复执行，跳过已完成节点: {}", nodeId);
+                return CompletableFuture.completedFuture(WorkflowContext.saveContext(context));
+            }
+            return action.apply(state).thenApply(output -> {
+                WorkflowContext updated = (WorkflowContext) output.get(WorkflowContext.WORKFLOW_CONTEXT_KEY);
+                if (updated != null) {
+                    SpringContextUtil.getBean(WorkflowCheckpointStore.class).save(nodeId, updated);
+                }
+                return output;
+            });
+        };
+    }
+}
@@ -1,17 +1,35 @@
 package com.lgk.lgkaicodeservice.langgraph4j.node;
 
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
 import com.lgk.lgkaicodeservice.code.AiCodeGeneratorFacade;
+import com.lgk.lgkaicodeservice.config.WorkflowQualityConfig;
 import com.lgk.lgkaicodeservice.constant.AppConstant;
+import com.lgk.lgkaicodeservice.langgraph4j.model.GenerationAttempt;
 import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.GenerationModeEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
 import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.bsc.langgraph4j.action.AsyncNodeAction;
 import org.bsc.langgraph4j.prebuilt.MessagesState;
 import reactor.core.publisher.Flux;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 
@@ -22,31 +40,140 @@ public class CodeGeneratorNode {
         return node_async(state -> {
             WorkflowContext context = WorkflowContext.getContext(state);
             log.info("执行节点: 代码生成");
-
-            // 构造用户消息（包含原始提示词和可能的错误修复信息）
-            String userMessage = buildUserMessage(context);
+            WorkflowQualityConfig qualityConfig = SpringContextUtil.getBean(WorkflowQualityConfig.class);
+            if (context.getMaxGenerationAttempts() == null) {
+                context.setMaxGenerationAttempts(qualityConfig.getMaxAttempts());
+            }
+            List<GenerationAttempt> attempts = context.getGenerationAttempts() == null
+                    ? new ArrayList<>() : context.getGenerationAttempts();
 
             CodeGenTypeEnum generationType = context.getGenerationType();
+            // 每次执行使用独立的执行 ID 作为对话记忆 ID 和输出目录，并发执行互不影响
+            Long runId = context.getRunId();
+            // 根据类型设置生成目录
+            String generatedCodeDir = String.format("%s/%s_%s", AppConstant.CODE_OUTPUT_ROOT_DIR, generationType.getValue(), runId);
+
+            // 质检指出了出错文件时只修复这些文件，否则全量生成（包含原始提示词和可能的错误修复信息）
+            QualityResult qualityResult = context.getQualityResult();
+            List<String> repairFiles = isQualityCheckFailed(qualityResult)
+                    ? resolveRepairFiles(qualityResult.getFailingFiles(), generatedCodeDir) : List.of();
+            GenerationModeEnum mode = repairFiles.isEmpty() ? GenerationModeEnum.FULL : GenerationModeEnum.REPAIR;
+            String userMessage = mode == GenerationModeEnum.REPAIR
+                    ? buildRepairPrompt(qualityResult, repairFiles, generatedCodeDir, generationType, qualityConfig.getMaxRepairFileChars())
+                    : buildUserMessage(context);
+
             // 获取 AI 代码生成外观服务
             AiCodeGeneratorFacade codeGeneratorFacade = SpringContextUtil.getBean(AiCodeGeneratorFacade.class);
-            log.info("开始生成代码，类型: {} ({})", generationType.getValue(), generationType.getText());
-            // 先使用固定的 appId (后续再整合到业务中)
-            Long appId = 0L;
+            int attemptNumber = attempts.size() + 1;
+            log.info("开始第 {} 次生成代码，类型: {} ({})，模式: {}，修复文件: {}", attemptNumber,
+                    generationType.getValue(), generationType.getText(), mode.getText(), repairFiles);
+            AtomicReference<TokenUsage> tokenUsage = new AtomicReference<>();
+            long startNanos = System.nanoTime();
             // 调用流式代码生成
-            Flux<String> codeStream = codeGeneratorFacade.generateAndSaveCodeStream(userMessage, generationType, appId);
+            Flux<StreamMessage> codeStream = codeGeneratorFacade.generateAndSaveCodeStream(userMessage, generationType, runId,
+                    mode == GenerationModeEnum.REPAIR, tokenUsage::set);
             // 同步等待流式输出完成
             codeStream.blockLast(Duration.ofMinutes(10)); // 最多等待 10 分钟
-            // 根据类型设置生成目录
-            String generatedCodeDir = String.format("%s/%s_%s", AppConstant.CODE_OUTPUT_ROOT_DIR, generationType.getValue(), appId);
-            log.info("AI 代码生成完成，生成目录: {}", generatedCodeDir);
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            // 记录本次生成的耗时与 token 用量
+            TokenUsage usage = tokenUsage.get();
+            GenerationAttempt attempt = GenerationAttempt.builder()
+                    .attempt(attemptNumber)
+                    .mode(mode)
+                    .repairedFiles(repairFiles)
+                    .durationMillis(durationMillis)
+                    .inputTokens(usage == null ? null : usage.inputTokenCount())
+                    .outputTokens(usage == null ? null : usage.outputTokenCount())
+                    .build();
+            attempts.add(attempt);
+            recordMetrics(attempt, generationType);
+            log.info("AI 代码生成完成，生成目录: {}，第 {} 次，耗时 {} ms，输入 token: {}，输出 token: {}", generatedCodeDir,
+                    attemptNumber, durationMillis, attempt.getInputTokens(), attempt.getOutputTokens());
 
             // 更新状态
             context.setCurrentStep("代码生成");
             context.setGeneratedCodeDir(generatedCodeDir);
+            context.setGenerationAttempts(attempts);
             return WorkflowContext.saveContext(context);
         });
     }
 
+    /**
+     * 记录单次生成的耗时与 token 指标，按生成类型和模式区分
+     */
+    private static void recordMetrics(GenerationAttempt attempt, CodeGenTypeEnum generationType) {
+        MeterRegistry meterRegistry = SpringContextUtil.getBean(MeterRegistry.class);
+        String type = generationType.getValue();
+        String mode = attempt.getMode().getValue();
+        meterRegistry.timer("workflow.codegen.attempt", "type", type, "mode", mode)
+                .record(attempt.getDurationMillis(), TimeUnit.MILLISECONDS);
+        if (attempt.getInputTokens() != null) {
+            meterRegistry.counter("workflow.codegen.tokens", "type", type, "mode", mode, "direction", "input")
+                    .increment(attempt.getInputTokens());
+        }
+        if (attempt.getOutputTokens() != null) {
+            meterRegistry.counter("workflow.codegen.tokens", "type", type, "mode", mode, "direction", "output")
+                    .increment(attempt.getOutputTokens());
+        }
+    }
+
+    /**
+     * 筛选出生成目录中确实存在的出错文件，越出生成目录的路径忽略
+     */
+    static List<String> resolveRepairFiles(List<String> failingFiles, String generatedCodeDir) {
+        if (failingFiles == null || failingFiles.isEmpty()) {
+            return List.of();
+        }
+        Path root = Paths.get(generatedCodeDir).toAbsolutePath().normalize();
+        Set<String> repairFiles = new LinkedHashSet<>();
+        for (String failingFile : failingFiles) {
+            if (StrUtil.isBlank(failingFile)) {
+                continue;
+            }
+            Path path = root.resolve(failingFile.trim()).normalize();
+            if (path.startsWith(root) && Files.isRegularFile(path)) {
+                repairFiles.add(root.relativize(path).toString().replace(File.separatorChar, '/'));
+            }
+        }
+        return new ArrayList<>(repairFiles);
+    }
+
+    /**
+     * 构造定向修复提示词，只附带出错文件的当前内容，要求模型仅修改这些文件
+     */
+    static String buildRepairPrompt(QualityResult qualityResult, List<String> repairFiles, String generatedCodeDir,
+                                    CodeGenTypeEnum generationType, int maxFileChars) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("## 上次生成的代码存在以下问题，请修复：\n");
+        qualityResult.getErrors().forEach(error ->
+                prompt.append("- ").append(error).append("\n"));
+        if (qualityResult.getSuggestions() != null && !qualityResult.getSuggestions().isEmpty()) {
+            prompt.append("\n## 修复建议：\n");
+            qualityResult.getSuggestions().forEach(suggestion ->
+                    prompt.append("- ").append(suggestion).append("\n"));
+        }
+        prompt.append("\n## 出错文件的当前内容：\n");
+        for (String repairFile : repairFiles) {
+            String content = FileUtil.readUtf8String(new File(generatedCodeDir, repairFile));
+            prompt.append("\n### 文件: ").append(repairFile).append("\n```\n");
+            if (content.length() > maxFileChars) {
+                prompt.append(content, 0, maxFileChars).append("\n...（文件过长，仅附带前 ").append(maxFileChars).append(" 字符）");
+            } else {
+                prompt.append(content);
+            }
+            prompt.append("\n```\n");
+        }
+        prompt.append("\n## 修复要求：\n");
+        switch (generationType) {
+            case VUE_PROJECT -> prompt.append("只使用 patchFile 或 modifyFile 工具修改上述文件中出错的部分，")
+                    .append("不要重写整个文件，不要修改或新建其他文件。");
+            case MULTI_FILE -> prompt.append("只输出需要修改的文件，每个文件按原来的格式输出一个完整的代码块，")
+                    .append("没有问题的文件不要输出，会保持原样。");
+            default -> prompt.append("按原来的格式输出修复后的完整代码。");
+        }
+        return prompt.toString();
+    }
 
     /**
      * 构造用户消息，如果存在质检失败结果则添加错误修复信息
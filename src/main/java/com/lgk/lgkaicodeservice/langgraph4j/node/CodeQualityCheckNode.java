@@ -6,6 +6,7 @@ import com.lgk.lgkaicodeservice.langgraph4j.ai.CodeQualityCheckService;
 import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
 import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.bsc.langgraph4j.action.AsyncNodeAction;
 import org.bsc.langgraph4j.prebuilt.MessagesState;
@@ -50,7 +51,14 @@ public class CodeQualityCheckNode {
                         .isValid(true) // 异常直接跳到下一个步骤
                         .build();
             }
-            // 3. 更新状态
+            // 3. 重新生成次数已用完时不再回到代码生成，保留当前代码继续后续流程
+            if (!Boolean.TRUE.equals(qualityResult.getIsValid()) && !context.canRetryGeneration()) {
+                log.warn("代码质检未通过，已达到最多生成次数 {}，不再重新生成", context.getMaxGenerationAttempts());
+                context.setErrorMessage(String.format("代码质检 %d 次未通过，已停止重新生成：%s",
+                        context.getMaxGenerationAttempts(), qualityResult.getErrors()));
+                SpringContextUtil.getBean(MeterRegistry.class).counter("workflow.codegen.attempts.exhausted").increment();
+            }
+            // 4. 更新状态
             context.setCurrentStep("代码质量检查");
             context.setQualityResult(qualityResult);
             return WorkflowContext.saveContext(context);
@@ -17,7 +17,17 @@ import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 @Slf4j
 public class ProjectBuilderNode {
 
+    /**
+     * 构建失败时退回未构建的代码目录，用于没有检查点的工作流
+     */
     public static AsyncNodeAction<MessagesState<String>> create() {
+        return create(false);
+    }
+
+    /**
+     * @param failOnBuildError 构建失败时是否中断执行。有检查点的工作流中断后检查点停留在质检节点，可通过恢复执行只重试构建
+     */
+    public static AsyncNodeAction<MessagesState<String>> create(boolean failOnBuildError) {
         return node_async(state -> {
             WorkflowContext context = WorkflowContext.getContext(state);
             log.info("执行节点: 项目构建");
@@ -31,14 +41,17 @@ public class ProjectBuilderNode {
                 VueProjectBuilder vueBuilder = SpringContextUtil.getBean(VueProjectBuilder.class);
                 // 执行 Vue 项目构建（npm install + npm run build）
                 boolean buildSuccess = vueBuilder.buildProject(generatedCodeDir);
-                if (buildSuccess) {
-                    // 构建成功，返回 dist 目录路径
-                    buildResultDir = generatedCodeDir + File.separator + "dist";
-                    log.info("Vue 项目构建成功，dist 目录: {}", buildResultDir);
-                } else {
+                if (!buildSuccess) {
                     throw new BusinessException(ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败");
                 }
+                // 构建成功，返回 dist 目录路径
+                buildResultDir = generatedCodeDir + File.separator + "dist";
+                log.info("Vue 项目构建成功，dist 目录: {}", buildResultDir);
             } catch (Exception e) {
+                if (failOnBuildError) {
+                    log.error("Vue 项目构建失败，执行 ID: {}", context.getRunId());
+                    throw e;
+                }
                 log.error("Vue 项目构建异常: {}", e.getMessage(), e);
                 buildResultDir = generatedCodeDir; // 异常时返回原路径
             }
@@ -52,4 +65,3 @@ public class ProjectBuilderNode {
         });
     }
 }
-
@@ -1,7 +1,9 @@
 package com.lgk.lgkaicodeservice.langgraph4j.node.concurrent;
 
+import com.lgk.lgkaicodeservice.langgraph4j.ParallelNodeExecutor;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageCollectionPlan;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageResource;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.DownstreamApiEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
 import com.lgk.lgkaicodeservice.langgraph4j.tools.ImageSearchTool;
 import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
@@ -25,9 +27,11 @@ public class ContentImageCollectorNode {
                 ImageCollectionPlan plan = context.getImageCollectionPlan();
                 if (plan != null && plan.getContentImageTasks() != null) {
                     ImageSearchTool imageSearchTool = SpringContextUtil.getBean(ImageSearchTool.class);
+                    ParallelNodeExecutor executor = SpringContextUtil.getBean(ParallelNodeExecutor.class);
                     log.info("开始并发收集内容图片，任务数: {}", plan.getContentImageTasks().size());
                     for (ImageCollectionPlan.ImageSearchTask task : plan.getContentImageTasks()) {
-                        List<ImageResource> images = imageSearchTool.searchContentImages(task.query());
+                        List<ImageResource> images = executor.callWithPermit(DownstreamApiEnum.PEXELS,
+                                () -> imageSearchTool.searchContentImages(task.query()));
                         if (images != null) {
                             contentImages.addAll(images);
                         }
@@ -1,7 +1,9 @@
 package com.lgk.lgkaicodeservice.langgraph4j.node.concurrent;
 
+import com.lgk.lgkaicodeservice.langgraph4j.ParallelNodeExecutor;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageCollectionPlan;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageResource;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.DownstreamApiEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
 import com.lgk.lgkaicodeservice.langgraph4j.tools.MermaidDiagramTool;
 import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
@@ -25,10 +27,11 @@ public class DiagramCollectorNode {
                 ImageCollectionPlan plan = context.getImageCollectionPlan();
                 if (plan != null && plan.getDiagramTasks() != null) {
                     MermaidDiagramTool diagramTool = SpringContextUtil.getBean(MermaidDiagramTool.class);
+                    ParallelNodeExecutor executor = SpringContextUtil.getBean(ParallelNodeExecutor.class);
                     log.info("开始并发生成架构图，任务数: {}", plan.getDiagramTasks().size());
                     for (ImageCollectionPlan.DiagramTask task : plan.getDiagramTasks()) {
-                        List<ImageResource> images = diagramTool.generateMermaidDiagram(
-                                task.mermaidCode(), task.description());
+                        List<ImageResource> images = executor.callWithPermit(DownstreamApiEnum.MERMAID,
+                                () -> diagramTool.generateMermaidDiagram(task.mermaidCode(), task.description()));
                         if (images != null) {
                             diagrams.addAll(images);
                         }
@@ -1,7 +1,9 @@
 package com.lgk.lgkaicodeservice.langgraph4j.node.concurrent;
 
+import com.lgk.lgkaicodeservice.langgraph4j.ParallelNodeExecutor;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageCollectionPlan;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageResource;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.DownstreamApiEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
 import com.lgk.lgkaicodeservice.langgraph4j.tools.UndrawIllustrationTool;
 import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
@@ -25,9 +27,11 @@ public class IllustrationCollectorNode {
                 ImageCollectionPlan plan = context.getImageCollectionPlan();
                 if (plan != null && plan.getIllustrationTasks() != null) {
                     UndrawIllustrationTool illustrationTool = SpringContextUtil.getBean(UndrawIllustrationTool.class);
+                    ParallelNodeExecutor executor = SpringContextUtil.getBean(ParallelNodeExecutor.class);
                     log.info("开始并发收集插画图片，任务数: {}", plan.getIllustrationTasks().size());
                     for (ImageCollectionPlan.IllustrationTask task : plan.getIllustrationTasks()) {
-                        List<ImageResource> images = illustrationTool.searchIllustrations(task.query());
+                        List<ImageResource> images = executor.callWithPermit(DownstreamApiEnum.UNDRAW,
+                                () -> illustrationTool.searchIllustrations(task.query()));
                         if (images != null) {
                             illustrations.addAll(images);
                         }
@@ -1,7 +1,9 @@
 package com.lgk.lgkaicodeservice.langgraph4j.node.concurrent;
 
+import com.lgk.lgkaicodeservice.langgraph4j.ParallelNodeExecutor;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageCollectionPlan;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageResource;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.DownstreamApiEnum;
 import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
 import com.lgk.lgkaicodeservice.langgraph4j.tools.LogoGeneratorTool;
 import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
@@ -25,9 +27,11 @@ public class LogoCollectorNode {
                 ImageCollectionPlan plan = context.getImageCollectionPlan();
                 if (plan != null && plan.getLogoTasks() != null) {
                     LogoGeneratorTool logoTool = SpringContextUtil.getBean(LogoGeneratorTool.class);
+                    ParallelNodeExecutor executor = SpringContextUtil.getBean(ParallelNodeExecutor.class);
                     log.info("开始并发生成Logo，任务数: {}", plan.getLogoTasks().size());
                     for (ImageCollectionPlan.LogoTask task : plan.getLogoTasks()) {
-                        List<ImageResource> images = logoTool.generateLogos(task.description());
+                        List<ImageResource> images = executor.callWithPermit(DownstreamApiEnum.DASHSCOPE,
+                                () -> logoTool.generateLogos(task.description()));
                         if (images != null) {
                             logos.addAll(images);
                         }
@@ -1,6 +1,7 @@
 package com.lgk.lgkaicodeservice.langgraph4j.state;
 
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.langgraph4j.model.GenerationAttempt;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageCollectionPlan;
 import com.lgk.lgkaicodeservice.langgraph4j.model.ImageResource;
 import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
@@ -29,6 +30,11 @@ public class WorkflowContext implements Serializable {
      */
     public static final String WORKFLOW_CONTEXT_KEY = "workflowContext";
 
+    /**
+     * 工作流执行 ID，同时作为对话记忆 ID 和代码输出目录的后缀
+     */
+    private Long runId;
+
     /**
      * 当前执行步骤
      */
@@ -93,6 +99,26 @@ public class WorkflowContext implements Serializable {
      */
     private String errorMessage;
 
+    /**
+     * 代码生成的最多次数（含首次生成），首次生成时从配置读取
+     */
+    private Integer maxGenerationAttempts;
+
+    /**
+     * 每次代码生成的耗时与 token 用量
+     */
+    private List<GenerationAttempt> generationAttempts;
+
+    /**
+     * 最近一个执行成功并写入检查点的节点
+     */
+    private String lastCompletedNode;
+
+    /**
+     * 恢复执行时要跳过到的节点，到达该节点前的节点都不再执行
+     */
+    private String resumeFromNode;
+
     @Serial
     private static final long serialVersionUID = 1L;
 
@@ -105,6 +131,14 @@ public class WorkflowContext implements Serializable {
         return (WorkflowContext) state.data().get(WORKFLOW_CONTEXT_KEY);
     }
 
+    /**
+     * 质检失败后是否还能重新生成代码
+     */
+    public boolean canRetryGeneration() {
+        int attempts = generationAttempts == null ? 0 : generationAttempts.size();
+        return maxGenerationAttempts == null || attempts < maxGenerationAttempts;
+    }
+
     /**
      * 将 WorkflowContext 保存到 MessagesState 中
      */
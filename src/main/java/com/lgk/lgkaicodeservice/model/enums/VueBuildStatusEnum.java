@@ -0,0 +1,51 @@
+package com.lgk.lgkaicodeservice.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * Vue 项目构建状态枚举
+ */
+@Getter
+public enum VueBuildStatusEnum {
+
+    QUEUED("排队中", "queued", false),
+    INSTALLING("安装依赖", "installing", false),
+    BUILDING("打包构建", "building", false),
+    SUCCEEDED("构建成功", "succeeded", true),
+    FAILED("构建失败", "failed", true),
+    SUPERSEDED("已被新的构建替代", "superseded", true);
+
+    private final String text;
+
+    private final String value;
+
+    /**
+     * 是否为终态
+     */
+    private final boolean terminal;
+
+    VueBuildStatusEnum(String text, String value, boolean terminal) {
+        this.text = text;
+        this.value = value;
+        this.terminal = terminal;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value 枚举值的value
+     * @return 枚举值
+     */
+    public static VueBuildStatusEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (VueBuildStatusEnum anEnum : VueBuildStatusEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.lgk.lgkaicodeservice.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Vue 项目构建状态
+ */
+@Data
+public class VueBuildStatusVO implements Serializable {
+
+    /**
+     * 应用 id
+     */
+    private Long appId;
+
+    /**
+     * 构建状态
+     */
+    private String status;
+
+    /**
+     * 状态描述
+     */
+    private String statusText;
+
+    /**
+     * 提交时间
+     */
+    private LocalDateTime queuedTime;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishTime;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -35,4 +35,9 @@ public @interface RateLimit {
      * 限流提示信息
      */
     String message() default "请求过于频繁，请稍后再试";
+
+    /**
+     * 请求携带该请求头（且非空）时不限流，如断线重连的 Last-Event-ID
+     */
+    String exemptHeader() default "";
 }
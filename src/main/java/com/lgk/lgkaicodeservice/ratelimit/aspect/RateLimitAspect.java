@@ -34,6 +34,9 @@ public class RateLimitAspect {
 
     @Before("@annotation(rateLimit)")
     public void doBefore(JoinPoint point, RateLimit rateLimit) {
+        if (isExempt(rateLimit)) {
+            return;
+        }
         String key = generateRateLimitKey(point, rateLimit);
         // 使用Redisson的分布式限流器
         RRateLimiter rateLimiter = redissonClient.getRateLimiter(key);
@@ -89,6 +92,21 @@ public class RateLimitAspect {
         return keyBuilder.toString();
     }
 
+    /**
+     * 请求携带豁免请求头时不限流
+     */
+    private boolean isExempt(RateLimit rateLimit) {
+        if (rateLimit.exemptHeader().isEmpty()) {
+            return false;
+        }
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        String value = attributes.getRequest().getHeader(rateLimit.exemptHeader());
+        return value != null && !value.isBlank();
+    }
+
     private String getClientIP() {
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attributes == null) {
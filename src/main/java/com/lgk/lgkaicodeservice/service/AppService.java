@@ -2,8 +2,10 @@ package com.lgk.lgkaicodeservice.service;
 
 import com.lgk.lgkaicodeservice.model.dto.app.AppAddRequest;
 import com.lgk.lgkaicodeservice.model.dto.app.AppQueryRequest;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
 import com.lgk.lgkaicodeservice.model.entity.User;
 import com.lgk.lgkaicodeservice.model.vo.AppVO;
+import com.lgk.lgkaicodeservice.model.vo.VueBuildStatusVO;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.service.IService;
 import com.lgk.lgkaicodeservice.model.entity.App;
@@ -24,11 +26,13 @@ public interface AppService extends IService<App> {
 
     List<AppVO> getAppVOList(List<App> appList);
 
-    Flux<String> chatToGenCode(Long appId, String message, User loginUser);
+    Flux<StreamMessage> chatToGenCode(Long appId, String message, User loginUser);
 
     Long createApp(AppAddRequest appAddRequest, User loginUser);
 
     String deployApp(Long appId, User loginUser);
 
+    VueBuildStatusVO getVueBuildStatus(Long appId, User loginUser);
+
     void generateAppScreenshotAsync(Long appId, String appUrl);
 }
@@ -6,9 +6,11 @@ import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.service.IService;
 import com.lgk.lgkaicodeservice.model.entity.ChatHistory;
+import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 对话历史 服务层。
@@ -19,6 +21,8 @@ public interface ChatHistoryService extends IService<ChatHistory> {
 
     int loadChatHistoryToMemory(Long appId, MessageWindowChatMemory chatMemory, int maxCount);
 
+    List<ChatMessage> loadChatHistoryMessages(Long appId, int maxCount);
+
     boolean addChatMessage(Long appId, String message, String messageType, Long userId);
 
     boolean deleteByAppId(Long appId);
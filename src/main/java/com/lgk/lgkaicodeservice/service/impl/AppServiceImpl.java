@@ -8,8 +8,10 @@ import cn.hutool.core.util.StrUtil;
 import com.lgk.lgkaicodeservice.ai.AiCodeGenTypeRoutingService;
 import com.lgk.lgkaicodeservice.ai.AiCodeGenTypeRoutingServiceFactory;
 import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
 import com.lgk.lgkaicodeservice.code.AiCodeGeneratorFacade;
-import com.lgk.lgkaicodeservice.code.builder.VueProjectBuilder;
+import com.lgk.lgkaicodeservice.code.builder.VueBuildJob;
+import com.lgk.lgkaicodeservice.code.builder.VueBuildScheduler;
 import com.lgk.lgkaicodeservice.code.handler.StreamHandlerExecutor;
 import com.lgk.lgkaicodeservice.constant.AppConstant;
 import com.lgk.lgkaicodeservice.exception.BusinessException;
@@ -21,6 +23,7 @@ import com.lgk.lgkaicodeservice.model.entity.User;
 import com.lgk.lgkaicodeservice.model.enums.ChatHistoryMessageTypeEnum;
 import com.lgk.lgkaicodeservice.model.vo.AppVO;
 import com.lgk.lgkaicodeservice.model.vo.UserVO;
+import com.lgk.lgkaicodeservice.model.vo.VueBuildStatusVO;
 import com.lgk.lgkaicodeservice.service.ChatHistoryService;
 import com.lgk.lgkaicodeservice.service.ScreenshotService;
 import com.lgk.lgkaicodeservice.service.UserService;
@@ -42,6 +45,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -66,7 +72,7 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
     private StreamHandlerExecutor streamHandlerExecutor;
 
     @Resource
-    private VueProjectBuilder vueProjectBuilder;
+    private VueBuildScheduler vueBuildScheduler;
 
     @Resource
     private ScreenshotService screenshotService;
@@ -143,7 +149,7 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
 
 
     @Override
-    public Flux<String> chatToGenCode(Long appId, String message, User loginUser) {
+    public Flux<StreamMessage> chatToGenCode(Long appId, String message, User loginUser) {
         // 1. 参数校验
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
         ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
@@ -165,7 +171,7 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
         // 5. 通过校验后，添加用户消息到对话历史
         chatHistoryService.addChatMessage(appId, message, ChatHistoryMessageTypeEnum.USER.getValue(), loginUser.getId());
         // 6. 调用 AI 生成代码（流式）
-        Flux<String> codeStream = aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId);
+        Flux<StreamMessage> codeStream = aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId);
         // 7. 收集 AI 响应内容并在完成后记录到对话历史
         return streamHandlerExecutor.doExecute(codeStream, chatHistoryService, appId, loginUser, codeGenTypeEnum);
 
@@ -200,6 +206,41 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
 
 
 
+    @Override
+    public VueBuildStatusVO getVueBuildStatus(Long appId, User loginUser) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        App app = this.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        // 仅本人可以查看构建状态
+        if (!app.getUserId().equals(loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限查看该应用");
+        }
+        VueBuildJob buildJob = vueBuildScheduler.getLatestJob(appId);
+        ThrowUtils.throwIf(buildJob == null, ErrorCode.NOT_FOUND_ERROR, "暂无构建记录");
+        return buildJob.toStatusVO();
+    }
+
+    /**
+     * 通过构建调度器构建 Vue 项目并等待结果
+     *
+     * @param appId       应用 ID
+     * @param projectPath 项目根目录路径
+     * @return 是否构建成功
+     */
+    private boolean awaitVueBuild(Long appId, String projectPath) {
+        try {
+            return vueBuildScheduler.submit(appId, projectPath).getResult().get(10, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "Vue 项目构建被中断");
+        } catch (TimeoutException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "Vue 项目构建超时，请稍后查看构建状态");
+        } catch (ExecutionException e) {
+            log.error("Vue 项目构建异常: {}", e.getMessage());
+            return false;
+        }
+    }
+
     @Override
     public String deployApp(Long appId, User loginUser) {
         // 1. 参数校验
@@ -231,7 +272,7 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
         CodeGenTypeEnum codeGenTypeEnum = CodeGenTypeEnum.getEnumByValue(codeGenType);
         if (codeGenTypeEnum == CodeGenTypeEnum.VUE_PROJECT) {
             // Vue 项目需要构建
-            boolean buildSuccess = vueProjectBuilder.buildProject(sourceDirPath);
+            boolean buildSuccess = awaitVueBuild(appId, sourceDirPath);
             ThrowUtils.throwIf(!buildSuccess, ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败，请检查代码和依赖");
             // 检查 dist 目录是否存在
             File distDir = new File(sourceDirPath, "dist");
@@ -0,0 +1,90 @@
+package dev.langchain4j.internal;
+
+import dev.langchain4j.Internal;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Cancellation handle shared by a token stream, its tool loop and every HTTP request it issues.
+ * <p>
+ * The handle is bound to the calling thread while a streaming chat request is being started,
+ * so that the HTTP layer can register an abort action (closing the response body) without
+ * changing the signatures in between.
+ */
+@Internal
+public class StreamingCancellation {
+
+    private static final ThreadLocal<StreamingCancellation> CURRENT = new ThreadLocal<>();
+
+    private final ConcurrentLinkedQueue<Runnable> abortActions = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean cancelled;
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Marks the stream as cancelled and runs all registered abort actions once.
+     */
+    public void cancel() {
+        cancelled = true;
+        Runnable action;
+        while ((action = abortActions.poll()) != null) {
+            runQuietly(action);
+        }
+    }
+
+    /**
+     * Registers an action to run on cancellation. Runs it immediately if already cancelled.
+     *
+     * @return a handle that unregisters the action
+     */
+    public Runnable onCancel(Runnable action) {
+        abortActions.add(action);
+        if (cancelled && abortActions.remove(action)) {
+            runQuietly(action);
+        }
+        return () -> abortActions.remove(action);
+    }
+
+    /**
+     * Runs the given call with this handle bound to the current thread.
+     */
+    public <T> T callWith(Supplier<T> call) {
+        StreamingCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void runWith(Runnable call) {
+        callWith(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the handle bound to the current thread, or {@code null}
+     */
+    public static StreamingCancellation current() {
+        return CURRENT.get();
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception ignored) {
+            // abort actions are best effort
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package dev.langchain4j.model.openai;
+
+import dev.langchain4j.http.client.HttpClient;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.HttpRequest;
+import dev.langchain4j.http.client.SuccessfulHttpResponse;
+import dev.langchain4j.http.client.sse.ServerSentEvent;
+import dev.langchain4j.http.client.sse.ServerSentEventListener;
+import dev.langchain4j.http.client.sse.ServerSentEventParser;
+import dev.langchain4j.internal.StreamingCancellation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Wraps an {@link HttpClientBuilder} so that streaming requests issued under a {@link StreamingCancellation}
+ * close their response body when the stream is cancelled, which aborts the underlying HTTP exchange.
+ * Streaming requests issued under a {@link StreamingEventInterceptor} offer every event to the interceptor first.
+ */
+class CancellableHttpClientBuilder implements HttpClientBuilder {
+
+    private final HttpClientBuilder delegate;
+
+    CancellableHttpClientBuilder(HttpClientBuilder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Duration connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public HttpClientBuilder connectTimeout(Duration timeout) {
+        delegate.connectTimeout(timeout);
+        return this;
+    }
+
+    @Override
+    public Duration readTimeout() {
+        return delegate.readTimeout();
+    }
+
+    @Override
+    public HttpClientBuilder readTimeout(Duration timeout) {
+        delegate.readTimeout(timeout);
+        return this;
+    }
+
+    @Override
+    public HttpClient build() {
+        return new CancellableHttpClient(delegate.build());
+    }
+
+    private static class CancellableHttpClient implements HttpClient {
+
+        private final HttpClient delegate;
+
+        CancellableHttpClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SuccessfulHttpResponse execute(HttpRequest request) {
+            return delegate.execute(request);
+        }
+
+        @Override
+        public void execute(HttpRequest request, ServerSentEventParser parser, ServerSentEventListener listener) {
+            // captured on the calling thread, the body is parsed on an HTTP client thread
+            StreamingCancellation cancellation = StreamingCancellation.current();
+            Predicate<String> interceptor = StreamingEventInterceptor.current();
+            if (interceptor != null) {
+                listener = new InterceptingListener(listener, interceptor);
+            }
+            if (cancellation == null) {
+                delegate.execute(request, parser, listener);
+                return;
+            }
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            delegate.execute(request, (InputStream body, ServerSentEventListener bodyListener) -> {
+                Runnable unregister = cancellation.onCancel(() -> closeQuietly(body));
+                try {
+                    parser.parse(body, bodyListener);
+                } finally {
+                    unregister.run();
+                }
+            }, listener);
+        }
+
+        private record InterceptingListener(ServerSentEventListener delegate,
+                                            Predicate<String> interceptor) implements ServerSentEventListener {
+
+            @Override
+            public void onOpen(SuccessfulHttpResponse response) {
+                delegate.onOpen(response);
+            }
+
+            @Override
+            public void onEvent(ServerSentEvent event) {
+                if (!interceptor.test(event.data())) {
+                    delegate.onEvent(event);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                delegate.onError(throwable);
+            }
+
+            @Override
+            public void onClose() {
+                delegate.onClose();
+            }
+        }
+
+        private static void closeQuietly(InputStream body) {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // the stream is being abandoned anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package dev.langchain4j.model.openai;
+
+import dev.langchain4j.Internal;
+
+import java.util.Arrays;
+
+/**
+ * Mutable view of one {@code chat.completion.chunk} event, reused for every event of a stream.
+ * <p>
+ * Only the fields consumed by {@link OpenAiStreamingResponseBuilder} and {@link OpenAiStreamingChatModel}
+ * are kept, and only for the first choice. Not thread safe: a stream's events are decoded and consumed on one thread.
+ */
+@Internal
+public class ChatCompletionChunk {
+
+    String id;
+    Long created;
+    String model;
+    String serviceTier;
+    String systemFingerprint;
+
+    boolean hasUsage;
+    Integer promptTokens;
+    Integer completionTokens;
+    Integer totalTokens;
+
+    String finishReason;
+    String content;
+
+    boolean hasFunctionCall;
+    String functionName;
+    String functionArguments;
+
+    int toolCallCount;
+    ToolCallDelta[] toolCalls = new ToolCallDelta[1];
+
+    void reset() {
+        id = null;
+        created = null;
+        model = null;
+        serviceTier = null;
+        systemFingerprint = null;
+        hasUsage = false;
+        promptTokens = null;
+        completionTokens = null;
+        totalTokens = null;
+        finishReason = null;
+        content = null;
+        hasFunctionCall = false;
+        functionName = null;
+        functionArguments = null;
+        toolCallCount = 0;
+    }
+
+    /**
+     * Returns a cleared tool call slot, growing the reused array if needed.
+     */
+    ToolCallDelta nextToolCall() {
+        if (toolCallCount == toolCalls.length) {
+            toolCalls = Arrays.copyOf(toolCalls, toolCalls.length * 2);
+        }
+        ToolCallDelta toolCall = toolCalls[toolCallCount];
+        if (toolCall == null) {
+            toolCall = new ToolCallDelta();
+            toolCalls[toolCallCount] = toolCall;
+        }
+        toolCallCount++;
+        toolCall.reset();
+        return toolCall;
+    }
+
+    public String content() {
+        return content;
+    }
+
+    public int toolCallCount() {
+        return toolCallCount;
+    }
+
+    static class ToolCallDelta {
+
+        int index;
+        String id;
+        String name;
+        String arguments;
+
+        void reset() {
+            index = 0;
+            id = null;
+            name = null;
+            arguments = null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package dev.langchain4j.model.openai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dev.langchain4j.Internal;
+
+import java.io.IOException;
+
+/**
+ * Streaming decoder for {@code chat.completion.chunk} events.
+ * <p>
+ * Reads the event with a token-level parser straight into a reused {@link ChatCompletionChunk},
+ * instead of binding a full {@code ChatCompletionResponse} object graph for every token.
+ * Unknown fields are skipped. One instance per stream; not thread safe.
+ */
+@Internal
+public class ChatCompletionChunkDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ChatCompletionChunk chunk = new ChatCompletionChunk();
+
+    /**
+     * Decodes one event.
+     *
+     * @param data the event data
+     * @return the decoded chunk (the same instance for every call), or {@code null} if the data is not a chunk
+     */
+    public ChatCompletionChunk decode(String data) throws IOException {
+        chunk.reset();
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> chunk.id = text(parser, value);
+                    case "created" -> chunk.created = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    case "model" -> chunk.model = text(parser, value);
+                    case "service_tier" -> chunk.serviceTier = text(parser, value);
+                    case "system_fingerprint" -> chunk.systemFingerprint = text(parser, value);
+                    case "usage" -> readUsage(parser, value);
+                    case "choices" -> readChoices(parser, value);
+                    case "error" -> {
+                        // not a chunk; left to the client's own error handling
+                        return null;
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private void readUsage(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            return;
+        }
+        chunk.hasUsage = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "prompt_tokens" -> chunk.promptTokens = integer(parser, token);
+                case "completion_tokens" -> chunk.completionTokens = integer(parser, token);
+                case "total_tokens" -> chunk.totalTokens = integer(parser, token);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readChoices(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        boolean first = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (first && token == JsonToken.START_OBJECT) {
+                readChoice(parser);
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+    }
+
+    private void readChoice(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "finish_reason" -> chunk.finishReason = text(parser, value);
+                case "delta" -> readDelta(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readDelta(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "content" -> chunk.content = text(parser, token);
+                case "tool_calls" -> readToolCalls(parser, token);
+                case "function_call" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        chunk.hasFunctionCall = true;
+                        readFunction(parser, null);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readToolCalls(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            return;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            ChatCompletionChunk.ToolCallDelta toolCall = chunk.nextToolCall();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "index" -> toolCall.index = fieldValue == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : 0;
+                    case "id" -> toolCall.id = text(parser, fieldValue);
+                    case "function" -> {
+                        if (fieldValue == JsonToken.START_OBJECT) {
+                            readFunction(parser, toolCall);
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a function object into the tool call, or into the legacy function call fields when {@code toolCall} is null.
+     */
+    private void readFunction(JsonParser parser, ChatCompletionChunk.ToolCallDelta toolCall) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> {
+                    String name = text(parser, value);
+                    if (toolCall != null) {
+                        toolCall.name = name;
+                    } else {
+                        chunk.functionName = name;
+                    }
+                }
+                case "arguments" -> {
+                    String arguments = text(parser, value);
+                    if (toolCall != null) {
+                        toolCall.arguments = arguments;
+                    } else {
+                        chunk.functionArguments = arguments;
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Integer integer(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
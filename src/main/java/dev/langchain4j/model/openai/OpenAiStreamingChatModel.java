@@ -2,7 +2,9 @@ package dev.langchain4j.model.openai;
 
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.HttpClientBuilderLoader;
 import dev.langchain4j.internal.ExceptionMapper;
+import dev.langchain4j.internal.StreamingCancellation;
 import dev.langchain4j.internal.ToolExecutionRequestBuilder;
 import dev.langchain4j.model.ModelProvider;
 import dev.langchain4j.model.StreamingResponseHandler;
@@ -18,9 +20,11 @@ import dev.langchain4j.model.openai.internal.chat.*;
 import dev.langchain4j.model.openai.internal.shared.StreamOptions;
 import dev.langchain4j.model.openai.spi.OpenAiStreamingChatModelBuilderFactory;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static dev.langchain4j.internal.InternalStreamingChatResponseHandlerUtils.withLoggingExceptions;
 import static dev.langchain4j.internal.Utils.*;
@@ -36,6 +40,8 @@ import static java.time.Duration.ofSeconds;
  */
 public class OpenAiStreamingChatModel implements StreamingChatModel {
 
+    private static final String DONE = "[DONE]";
+
     private final OpenAiClient client;
     private final OpenAiChatRequestParameters defaultRequestParameters;
     private final Boolean strictJsonSchema;
@@ -44,7 +50,8 @@ public class OpenAiStreamingChatModel implements StreamingChatModel {
 
     public OpenAiStreamingChatModel(OpenAiStreamingChatModelBuilder builder) {
         this.client = OpenAiClient.builder()
-                .httpClientBuilder(builder.httpClientBuilder)
+                .httpClientBuilder(new CancellableHttpClientBuilder(
+                        getOrDefault(builder.httpClientBuilder, HttpClientBuilderLoader::loadHttpClientBuilder)))
                 .baseUrl(getOrDefault(builder.baseUrl, DEFAULT_OPENAI_URL))
                 .apiKey(builder.apiKey)
                 .organizationId(builder.organizationId)
@@ -121,13 +128,44 @@ public class OpenAiStreamingChatModel implements StreamingChatModel {
 
         OpenAiStreamingResponseBuilder openAiResponseBuilder = new OpenAiStreamingResponseBuilder();
         ToolExecutionRequestBuilder toolBuilder = new ToolExecutionRequestBuilder();
+        // once cancelled, the response body is closed by the HTTP layer and nothing more is delivered
+        StreamingCancellation cancellation = StreamingCancellation.current();
+
+        // chunks are decoded straight into a reused holder; anything it does not recognise,
+        // including "[DONE]" and malformed events, falls through to the client's own decoding below
+        ChatCompletionChunkDecoder decoder = new ChatCompletionChunkDecoder();
+        Predicate<String> directDecoding = data -> {
+            if (DONE.equals(data)) {
+                return false;
+            }
+            ChatCompletionChunk chunk;
+            try {
+                chunk = decoder.decode(data);
+            } catch (IOException | RuntimeException e) {
+                return false;
+            }
+            if (chunk == null) {
+                return false;
+            }
+            if (!isCancelled(cancellation)) {
+                openAiResponseBuilder.append(chunk);
+                handle(chunk, toolBuilder, handler);
+            }
+            return true;
+        };
 
-        client.chatCompletion(openAiRequest)
+        StreamingEventInterceptor.runWith(directDecoding, () -> client.chatCompletion(openAiRequest)
                 .onPartialResponse(partialResponse -> {
+                    if (isCancelled(cancellation)) {
+                        return;
+                    }
                     openAiResponseBuilder.append(partialResponse);
                     handle(partialResponse, toolBuilder, handler);
                 })
                 .onComplete(() -> {
+                    if (isCancelled(cancellation)) {
+                        return;
+                    }
                     if (toolBuilder.hasToolExecutionRequests()) {
                         try {
                             handler.onCompleteToolExecutionRequest(toolBuilder.index(), toolBuilder.build());
@@ -143,10 +181,17 @@ public class OpenAiStreamingChatModel implements StreamingChatModel {
                     }
                 })
                 .onError(throwable -> {
+                    if (isCancelled(cancellation)) {
+                        return;
+                    }
                     RuntimeException mappedException = ExceptionMapper.DEFAULT.mapException(throwable);
                     withLoggingExceptions(() -> handler.onError(mappedException));
                 })
-                .execute();
+                .execute());
+    }
+
+    private static boolean isCancelled(StreamingCancellation cancellation) {
+        return cancellation != null && cancellation.isCancelled();
     }
 
     private static void handle(ChatCompletionResponse partialResponse,
@@ -182,35 +227,59 @@ public class OpenAiStreamingChatModel implements StreamingChatModel {
         List<ToolCall> toolCalls = delta.toolCalls();
         if (toolCalls != null) {
             for (ToolCall toolCall : toolCalls) {
+                handleToolCall(toolCall.index(), toolCall.id(), toolCall.function().name(),
+                        toolCall.function().arguments(), toolBuilder, handler);
+            }
+        }
+    }
 
-                int index = toolCall.index();
-                if (toolBuilder.index() != index) {
-                    try {
-                        handler.onCompleteToolExecutionRequest(toolBuilder.index(), toolBuilder.build());
-                    } catch (Exception e) {
-                        withLoggingExceptions(() -> handler.onError(e));
-                    }
-                    toolBuilder.updateIndex(index);
-                }
+    private static void handle(ChatCompletionChunk chunk,
+                               ToolExecutionRequestBuilder toolBuilder,
+                               StreamingChatResponseHandler handler) {
+        String content = chunk.content;
+        if (!isNullOrEmpty(content)) {
+            try {
+                handler.onPartialResponse(content);
+            } catch (Exception e) {
+                withLoggingExceptions(() -> handler.onError(e));
+            }
+        }
+        for (int i = 0; i < chunk.toolCallCount; i++) {
+            ChatCompletionChunk.ToolCallDelta toolCall = chunk.toolCalls[i];
+            handleToolCall(toolCall.index, toolCall.id, toolCall.name, toolCall.arguments, toolBuilder, handler);
+        }
+    }
 
-                String id = toolBuilder.updateId(toolCall.id());
-                String name = toolBuilder.updateName(toolCall.function().name());
+    private static void handleToolCall(int index,
+                                       String toolCallId,
+                                       String toolCallName,
+                                       String partialArguments,
+                                       ToolExecutionRequestBuilder toolBuilder,
+                                       StreamingChatResponseHandler handler) {
+        if (toolBuilder.index() != index) {
+            try {
+                handler.onCompleteToolExecutionRequest(toolBuilder.index(), toolBuilder.build());
+            } catch (Exception e) {
+                withLoggingExceptions(() -> handler.onError(e));
+            }
+            toolBuilder.updateIndex(index);
+        }
 
-                String partialArguments = toolCall.function().arguments();
-                if (isNotNullOrEmpty(partialArguments)) {
-                    toolBuilder.appendArguments(partialArguments);
+        String id = toolBuilder.updateId(toolCallId);
+        String name = toolBuilder.updateName(toolCallName);
 
-                    ToolExecutionRequest partialToolExecutionRequest = ToolExecutionRequest.builder()
-                            .id(id)
-                            .name(name)
-                            .arguments(partialArguments)
-                            .build();
-                    try {
-                        handler.onPartialToolExecutionRequest(index, partialToolExecutionRequest);
-                    } catch (Exception e) {
-                        withLoggingExceptions(() -> handler.onError(e));
-                    }
-                }
+        if (isNotNullOrEmpty(partialArguments)) {
+            toolBuilder.appendArguments(partialArguments);
+
+            ToolExecutionRequest partialToolExecutionRequest = ToolExecutionRequest.builder()
+                    .id(id)
+                    .name(name)
+                    .arguments(partialArguments)
+                    .build();
+            try {
+                handler.onPartialToolExecutionRequest(index, partialToolExecutionRequest);
+            } catch (Exception e) {
+                withLoggingExceptions(() -> handler.onError(e));
             }
         }
     }
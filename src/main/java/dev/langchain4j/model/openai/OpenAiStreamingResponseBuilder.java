@@ -11,10 +11,8 @@ import dev.langchain4j.model.openai.internal.shared.Usage;
 import dev.langchain4j.model.output.FinishReason;
 import dev.langchain4j.model.output.TokenUsage;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static dev.langchain4j.internal.Utils.isNullOrBlank;
 import static dev.langchain4j.internal.Utils.isNullOrEmpty;
@@ -24,27 +22,78 @@ import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 
 /**
- * This class needs to be thread safe because it is called when a streaming result comes back
- * and there is no guarantee that this thread will be the same as the one that initiated the request,
- * in fact it almost certainly won't be.
+ * Accumulates the partial responses of one stream into the final {@link ChatResponse}.
+ * <p>
+ * Single writer: the partial responses of a stream and its completion are delivered one after another
+ * on the thread that reads the response body, so no synchronization is needed.
+ * The thread that initiated the request never touches the builder after handing it to the stream callbacks.
  */
 @Internal
 public class OpenAiStreamingResponseBuilder {
 
-    private final StringBuffer contentBuilder = new StringBuffer();
-
-    private final StringBuffer toolNameBuilder = new StringBuffer();
-    private final StringBuffer toolArgumentsBuilder = new StringBuffer();
-
-    private final Map<Integer, ToolExecutionRequestBuilder> indexToToolExecutionRequestBuilder = new ConcurrentHashMap<>();
+    private final StringBuilder contentBuilder = new StringBuilder();
+
+    private final StringBuilder toolNameBuilder = new StringBuilder();
+    private final StringBuilder toolArgumentsBuilder = new StringBuilder();
+
+    /**
+     * Tool calls in order of first appearance; a response carries only a handful, so lookup is a linear scan.
+     */
+    private final List<ToolExecutionRequestBuilder> toolExecutionRequestBuilders = new ArrayList<>();
+
+    private String id;
+    private Long created;
+    private String model;
+    private String serviceTier;
+    private String systemFingerprint;
+    private TokenUsage tokenUsage;
+    private FinishReason finishReason;
+
+    /**
+     * Appends a chunk decoded by {@link ChatCompletionChunkDecoder}.
+     */
+    public void append(ChatCompletionChunk chunk) {
+        if (chunk == null) {
+            return;
+        }
 
-    private final AtomicReference<String> id = new AtomicReference<>();
-    private final AtomicReference<Long> created = new AtomicReference<>();
-    private final AtomicReference<String> model = new AtomicReference<>();
-    private final AtomicReference<String> serviceTier = new AtomicReference<>();
-    private final AtomicReference<String> systemFingerprint = new AtomicReference<>();
-    private final AtomicReference<TokenUsage> tokenUsage = new AtomicReference<>();
-    private final AtomicReference<FinishReason> finishReason = new AtomicReference<>();
+        if (!isNullOrBlank(chunk.id)) {
+            this.id = chunk.id;
+        }
+        if (chunk.created != null) {
+            this.created = chunk.created;
+        }
+        if (!isNullOrBlank(chunk.model)) {
+            this.model = chunk.model;
+        }
+        if (!isNullOrBlank(chunk.serviceTier)) {
+            this.serviceTier = chunk.serviceTier;
+        }
+        if (!isNullOrBlank(chunk.systemFingerprint)) {
+            this.systemFingerprint = chunk.systemFingerprint;
+        }
+        if (chunk.hasUsage) {
+            this.tokenUsage = new TokenUsage(chunk.promptTokens, chunk.completionTokens, chunk.totalTokens);
+        }
+        if (chunk.finishReason != null) {
+            this.finishReason = finishReasonFrom(chunk.finishReason);
+        }
+        if (!isNullOrEmpty(chunk.content)) {
+            this.contentBuilder.append(chunk.content);
+        }
+        if (chunk.hasFunctionCall) {
+            if (chunk.functionName != null) {
+                this.toolNameBuilder.append(chunk.functionName);
+            }
+            if (chunk.functionArguments != null) {
+                this.toolArgumentsBuilder.append(chunk.functionArguments);
+            }
+        }
+        for (int i = 0; i < chunk.toolCallCount; i++) {
+            ChatCompletionChunk.ToolCallDelta toolCall = chunk.toolCalls[i];
+            appendToolCall(toolCall.index, toolCall.id, toolCall.name, toolCall.arguments);
+        }
+    }
 
     public void append(ChatCompletionResponse partialResponse) {
         if (partialResponse == null) {
@@ -52,24 +101,24 @@ public class OpenAiStreamingResponseBuilder {
         }
 
         if (!isNullOrBlank(partialResponse.id())) {
-            this.id.set(partialResponse.id());
+            this.id = partialResponse.id();
         }
         if (partialResponse.created() != null) {
-            this.created.set(partialResponse.created());
+            this.created = partialResponse.created();
         }
         if (!isNullOrBlank(partialResponse.model())) {
-            this.model.set(partialResponse.model());
+            this.model = partialResponse.model();
         }
         if (!isNullOrBlank(partialResponse.serviceTier())) {
-            this.serviceTier.set(partialResponse.serviceTier());
+            this.serviceTier = partialResponse.serviceTier();
         }
         if (!isNullOrBlank(partialResponse.systemFingerprint())) {
-            this.systemFingerprint.set(partialResponse.systemFingerprint());
+            this.systemFingerprint = partialResponse.systemFingerprint();
         }
 
         Usage usage = partialResponse.usage();
         if (usage != null) {
-            this.tokenUsage.set(tokenUsageFrom(usage));
+            this.tokenUsage = tokenUsageFrom(usage);
         }
 
         List<ChatCompletionChoice> choices = partialResponse.choices();
@@ -84,7 +133,7 @@ public class OpenAiStreamingResponseBuilder {
 
         String finishReason = chatCompletionChoice.finishReason();
         if (finishReason != null) {
-            this.finishReason.set(finishReasonFrom(finishReason));
+            this.finishReason = finishReasonFrom(finishReason);
         }
 
         Delta delta = chatCompletionChoice.delta();
@@ -110,29 +159,36 @@ public class OpenAiStreamingResponseBuilder {
         }
 
         if (delta.toolCalls() != null) {
-            System.out.println("OLOLO " + delta.toolCalls()); // TODO
-
             for (ToolCall toolCall : delta.toolCalls()) {
-
-                ToolExecutionRequestBuilder builder = this.indexToToolExecutionRequestBuilder.computeIfAbsent(
-                        toolCall.index(),
-                        idx -> new ToolExecutionRequestBuilder()
-                );
-
-                if (toolCall.id() != null) {
-                    builder.idBuilder.append(toolCall.id());
-                }
-
                 FunctionCall functionCall = toolCall.function();
-                if (functionCall.name() != null) {
-                    builder.nameBuilder.append(functionCall.name());
-                }
+                appendToolCall(toolCall.index() == null ? 0 : toolCall.index(), toolCall.id(),
+                        functionCall == null ? null : functionCall.name(),
+                        functionCall == null ? null : functionCall.arguments());
+            }
+        }
+    }
 
-                if (functionCall.arguments() != null) {
-                    builder.argumentsBuilder.append(functionCall.arguments());
-                }
+    private void appendToolCall(int index, String id, String name, String arguments) {
+        ToolExecutionRequestBuilder builder = null;
+        for (ToolExecutionRequestBuilder candidate : toolExecutionRequestBuilders) {
+            if (candidate.index == index) {
+                builder = candidate;
+                break;
             }
         }
+        if (builder == null) {
+            builder = new ToolExecutionRequestBuilder(index);
+            toolExecutionRequestBuilders.add(builder);
+        }
+        if (id != null) {
+            builder.idBuilder.append(id);
+        }
+        if (name != null) {
+            builder.nameBuilder.append(name);
+        }
+        if (arguments != null) {
+            builder.argumentsBuilder.append(arguments);
+        }
     }
 
     public void append(CompletionResponse partialResponse) {
@@ -142,7 +198,7 @@ public class OpenAiStreamingResponseBuilder {
 
         Usage usage = partialResponse.usage();
         if (usage != null) {
-            this.tokenUsage.set(tokenUsageFrom(usage));
+            this.tokenUsage = tokenUsageFrom(usage);
         }
 
         List<CompletionChoice> choices = partialResponse.choices();
@@ -157,7 +213,7 @@ public class OpenAiStreamingResponseBuilder {
 
         String finishReason = completionChoice.finishReason();
         if (finishReason != null) {
-            this.finishReason.set(finishReasonFrom(finishReason));
+            this.finishReason = finishReasonFrom(finishReason);
         }
 
         String token = completionChoice.text();
@@ -169,13 +225,13 @@ public class OpenAiStreamingResponseBuilder {
     public ChatResponse build() {
 
         OpenAiChatResponseMetadata chatResponseMetadata = OpenAiChatResponseMetadata.builder()
-                .id(id.get())
-                .modelName(model.get())
-                .tokenUsage(tokenUsage.get())
-                .finishReason(finishReason.get())
-                .created(created.get())
-                .serviceTier(serviceTier.get())
-                .systemFingerprint(systemFingerprint.get())
+                .id(id)
+                .modelName(model)
+                .tokenUsage(tokenUsage)
+                .finishReason(finishReason)
+                .created(created)
+                .serviceTier(serviceTier)
+                .systemFingerprint(systemFingerprint)
                 .build();
 
         String text = contentBuilder.toString();
@@ -197,8 +253,8 @@ public class OpenAiStreamingResponseBuilder {
                     .build();
         }
 
-        if (!indexToToolExecutionRequestBuilder.isEmpty()) {
-            List<ToolExecutionRequest> toolExecutionRequests = indexToToolExecutionRequestBuilder.values().stream()
+        if (!toolExecutionRequestBuilders.isEmpty()) {
+            List<ToolExecutionRequest> toolExecutionRequests = toolExecutionRequestBuilders.stream()
                     .map(it -> ToolExecutionRequest.builder()
                             .id(it.idBuilder.toString())
                             .name(it.nameBuilder.toString())
@@ -229,8 +285,13 @@ public class OpenAiStreamingResponseBuilder {
 
     private static class ToolExecutionRequestBuilder {
 
-        private final StringBuffer idBuilder = new StringBuffer();
-        private final StringBuffer nameBuilder = new StringBuffer();
-        private final StringBuffer argumentsBuilder = new StringBuffer();
+        private final int index;
+        private final StringBuilder idBuilder = new StringBuilder();
+        private final StringBuilder nameBuilder = new StringBuilder();
+        private final StringBuilder argumentsBuilder = new StringBuilder();
+
+        private ToolExecutionRequestBuilder(int index) {
+            this.index = index;
+        }
     }
 }
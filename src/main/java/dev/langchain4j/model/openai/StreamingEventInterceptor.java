@@ -0,0 +1,37 @@
+package dev.langchain4j.model.openai;
+
+import java.util.function.Predicate;
+
+/**
+ * Lets {@link OpenAiStreamingChatModel} consume the data of stream events itself,
+ * before the OpenAI client binds them to response objects.
+ * <p>
+ * Like {@link dev.langchain4j.internal.StreamingCancellation}, the interceptor is bound to the calling thread
+ * while the streaming request is being started and picked up by {@link CancellableHttpClientBuilder}.
+ * The interceptor returns {@code true} for events it has handled; all other events reach the client unchanged.
+ */
+final class StreamingEventInterceptor {
+
+    private static final ThreadLocal<Predicate<String>> CURRENT = new ThreadLocal<>();
+
+    private StreamingEventInterceptor() {
+    }
+
+    static Predicate<String> current() {
+        return CURRENT.get();
+    }
+
+    static void runWith(Predicate<String> interceptor, Runnable action) {
+        Predicate<String> previous = CURRENT.get();
+        CURRENT.set(interceptor);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
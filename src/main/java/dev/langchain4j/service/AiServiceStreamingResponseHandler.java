@@ -9,6 +9,7 @@ import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.guardrail.ChatExecutor;
 import dev.langchain4j.guardrail.GuardrailRequestParams;
 import dev.langchain4j.guardrail.OutputGuardrailRequest;
+import dev.langchain4j.internal.StreamingCancellation;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.model.chat.request.ChatRequest;
 import dev.langchain4j.model.chat.response.ChatResponse;
@@ -35,12 +36,14 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 @Internal
 class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler {
     private static final Logger LOG = LoggerFactory.getLogger(AiServiceStreamingResponseHandler.class);
+    private static final String CANCELLED_TOOL_RESULT = "Tool execution was cancelled";
 
     private final ChatExecutor chatExecutor;
     private final AiServiceContext context;
     private final Object memoryId;
     private final GuardrailRequestParams commonGuardrailParams;
     private final Object methodKey;
+    private final StreamingCancellation cancellation;
 
     private final Consumer<String> partialResponseHandler;
     private final BiConsumer<Integer, ToolExecutionRequest> partialToolExecutionRequestHandler;
@@ -73,11 +76,13 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
             List<ToolSpecification> toolSpecifications,
             Map<String, ToolExecutor> toolExecutors,
             GuardrailRequestParams commonGuardrailParams,
-            Object methodKey) {
+            Object methodKey,
+            StreamingCancellation cancellation) {
         this.chatExecutor = ensureNotNull(chatExecutor, "chatExecutor");
         this.context = ensureNotNull(context, "context");
         this.memoryId = ensureNotNull(memoryId, "memoryId");
         this.methodKey = methodKey;
+        this.cancellation = ensureNotNull(cancellation, "cancellation");
 
         this.partialResponseHandler = ensureNotNull(partialResponseHandler, "partialResponseHandler");
         this.partialToolExecutionRequestHandler = partialToolExecutionRequestHandler;
@@ -97,6 +102,9 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
     @Override
     public void onPartialResponse(String partialResponse) {
+        if (cancellation.isCancelled()) {
+            return;
+        }
         // If we're using output guardrails, then buffer the partial response until the guardrails have completed
         if (hasOutputGuardrails) {
             responseBuffer.add(partialResponse);
@@ -107,31 +115,41 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
     @Override
     public void onPartialToolExecutionRequest(int index, ToolExecutionRequest partialToolExecutionRequest) {
+        if (cancellation.isCancelled()) {
+            return;
+        }
         // If we're using output guardrails, then buffer the partial response until the guardrails have completed
         partialToolExecutionRequestHandler.accept(index, partialToolExecutionRequest);
     }
 
     @Override
     public void onCompleteResponse(ChatResponse completeResponse) {
+        if (cancellation.isCancelled()) {
+            return;
+        }
         AiMessage aiMessage = completeResponse.aiMessage();
         addToMemory(aiMessage);
 
         if (aiMessage.hasToolExecutionRequests()) {
-            for (ToolExecutionRequest toolExecutionRequest : aiMessage.toolExecutionRequests()) {
-                String toolName = toolExecutionRequest.name();
-                ToolExecutor toolExecutor = toolExecutors.get(toolName);
-                String toolExecutionResult = toolExecutor.execute(toolExecutionRequest, memoryId);
-                ToolExecutionResultMessage toolExecutionResultMessage =
-                        ToolExecutionResultMessage.from(toolExecutionRequest, toolExecutionResult);
-                addToMemory(toolExecutionResultMessage);
-
-                if (toolExecutionHandler != null) {
-                    ToolExecution toolExecution = ToolExecution.builder()
-                            .request(toolExecutionRequest)
-                            .result(toolExecutionResult)
-                            .build();
-                    toolExecutionHandler.accept(toolExecution);
-                }
+            // independent tools run concurrently; a cancelled stream answers the remaining requests with
+            // a cancelled result, so that the memory stays valid for the next turn
+            ParallelToolExecutor.of(toolExecutors).execute(toolExecutors, memoryId, cancellation,
+                    CANCELLED_TOOL_RESULT, aiMessage.toolExecutionRequests(), (toolExecutionRequest, toolExecutionResult) -> {
+                        ToolExecutionResultMessage toolExecutionResultMessage =
+                                ToolExecutionResultMessage.from(toolExecutionRequest, toolExecutionResult);
+                        addToMemory(toolExecutionResultMessage);
+
+                        if (toolExecutionHandler != null && !cancellation.isCancelled()) {
+                            ToolExecution toolExecution = ToolExecution.builder()
+                                    .request(toolExecutionRequest)
+                                    .result(toolExecutionResult)
+                                    .build();
+                            toolExecutionHandler.accept(toolExecution);
+                        }
+                    });
+
+            if (cancellation.isCancelled()) {
+                return;
             }
 
             ChatRequest chatRequest = ChatRequest.builder()
@@ -154,9 +172,10 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
                     toolSpecifications,
                     toolExecutors,
                     commonGuardrailParams,
-                    methodKey);
+                    methodKey,
+                    cancellation);
 
-            context.streamingChatModel.chat(chatRequest, handler);
+            cancellation.runWith(() -> context.streamingChatModel.chat(chatRequest, handler));
         } else {
             if (completeResponseHandler != null) {
                 ChatResponse finalChatResponse = ChatResponse.builder()
@@ -217,6 +236,10 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
     @Override
     public void onError(Throwable error) {
+        if (cancellation.isCancelled()) {
+            LOG.debug("Ignored error after cancellation", error);
+            return;
+        }
         if (errorHandler != null) {
             try {
                 errorHandler.accept(error);
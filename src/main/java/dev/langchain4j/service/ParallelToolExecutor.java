@@ -0,0 +1,568 @@
+package dev.langchain4j.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.langchain4j.Internal;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.internal.Json;
+import dev.langchain4j.internal.StreamingCancellation;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * Executes the tool requests of a model response concurrently on virtual threads.
+ * <p>
+ * Each request waits only for the earlier requests it conflicts with:
+ * <ul>
+ *     <li>read-only tools ({@code read*}, {@code get*}, {@code list*}, {@code search*}) never conflict with each other;</li>
+ *     <li>a write conflicts with every earlier request on the same path, a parent directory or a child path;</li>
+ *     <li>a non-read tool without a path argument is a barrier and conflicts with everything.</li>
+ * </ul>
+ * Results are delivered in the original request order, as soon as all preceding requests have finished.
+ * <p>
+ * Every execution is guarded: a tool that exceeds its timeout is interrupted, output longer than the limit is
+ * truncated, and both are reported to the model as the tool result. Executions are timed in
+ * {@code ai.tool.execution}, tagged by tool and outcome.
+ * <p>
+ * Two bulkheads limit the tools running at the same time across all responses: one per memory id and one for the
+ * whole instance. A request that cannot get both permits within the permit timeout is not executed and is counted
+ * in {@code ai.tool.bulkhead.rejected}. A timed-out tool keeps its permits, and later requests on the same paths
+ * keep waiting, until it has actually finished.
+ * <p>
+ * An instance holds the settings shared by every response of the services it is bound to. Tool executors are bound
+ * with {@link #bind(ToolExecutor)} before they are handed to the {@code AiServices} builder; the streaming handler
+ * then runs the tools with the instance they were bound to, and with a sequential default otherwise.
+ */
+@Internal
+public class ParallelToolExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelToolExecutor.class);
+
+    private static final List<String> READ_ONLY_PREFIXES = List.of("read", "get", "list", "search");
+
+    /**
+     * Used for tools that were not bound to an instance: one tool at a time, without limits or metrics.
+     */
+    private static final ParallelToolExecutor SEQUENTIAL = builder().build();
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+    private final Semaphore globalPermits;
+    private final int perMemoryMaxConcurrency;
+    private final Duration permitTimeout;
+    private final Function<String, Duration> timeouts;
+    private final int maxOutputChars;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The state shared by all responses of a memory id; an entry is kept while a batch or a tool of it is running.
+     */
+    private final Cache<Object, MemoryState> memoryStates = Caffeine.newBuilder().weakValues().build();
+
+    private ParallelToolExecutor(Builder builder) {
+        this.executor = builder.executor != null ? builder.executor
+                : Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tool-", 0).factory());
+        this.maxConcurrency = ensureGreaterThanZero(builder.maxConcurrency, "maxConcurrency");
+        this.globalPermits = new Semaphore(ensureGreaterThanZero(builder.globalMaxConcurrency, "globalMaxConcurrency"), true);
+        this.perMemoryMaxConcurrency = ensureGreaterThanZero(builder.perMemoryMaxConcurrency, "perMemoryMaxConcurrency");
+        this.permitTimeout = builder.permitTimeout;
+        this.timeouts = builder.timeouts;
+        this.maxOutputChars = ensureGreaterThanZero(builder.maxOutputChars, "maxOutputChars");
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Binds a tool executor to this instance, so that its requests run with the settings of this instance.
+     */
+    public ToolExecutor bind(ToolExecutor toolExecutor) {
+        return new BoundToolExecutor(this, toolExecutor);
+    }
+
+    /**
+     * Returns the instance the given tool executors were bound to, or the sequential default.
+     */
+    static ParallelToolExecutor of(Map<String, ToolExecutor> toolExecutors) {
+        for (ToolExecutor toolExecutor : toolExecutors.values()) {
+            if (toolExecutor instanceof BoundToolExecutor bound) {
+                return bound.owner;
+            }
+        }
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Executes all requests and passes each result to the consumer, in request order.
+     * Requests that have not started when the stream is cancelled are answered with {@code cancelledResult}.
+     */
+    void execute(Map<String, ToolExecutor> toolExecutors, Object memoryId, StreamingCancellation cancellation,
+                 String cancelledResult, List<ToolExecutionRequest> requests,
+                 BiConsumer<ToolExecutionRequest, String> resultConsumer) {
+        MemoryState memory = memoryStates.get(Objects.requireNonNullElse(memoryId, "default"),
+                key -> new MemoryState(new Semaphore(perMemoryMaxConcurrency, true)));
+        Batch batch = new Batch(toolExecutors, memoryId, cancellation, cancelledResult, new Semaphore(maxConcurrency), memory);
+        if (requests.size() == 1) {
+            ToolExecutionRequest request = requests.get(0);
+            Access access = Access.of(request);
+            CompletableFuture<Void> finished = new CompletableFuture<>();
+            awaitAll(memory.runningAfterTimeout(access)).join();
+            if (cancellation.isCancelled()) {
+                finished.complete(null);
+                resultConsumer.accept(request, cancelledResult);
+            } else {
+                resultConsumer.accept(request, executeGuarded(batch, request, access, finished));
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        List<Access> accesses = new ArrayList<>(requests.size());
+        // dependencies complete when a tool has actually finished, which is later than its result after a timeout
+        List<CompletableFuture<Void>> finishes = new ArrayList<>(requests.size());
+        List<CompletableFuture<String>> results = new ArrayList<>(requests.size());
+        for (ToolExecutionRequest request : requests) {
+            Access access = Access.of(request);
+            List<CompletableFuture<Void>> dependencies = memory.runningAfterTimeout(access);
+            for (int i = 0; i < accesses.size(); i++) {
+                if (access.conflictsWith(accesses.get(i))) {
+                    dependencies.add(finishes.get(i));
+                }
+            }
+            CompletableFuture<Void> finished = new CompletableFuture<>();
+            accesses.add(access);
+            finishes.add(finished);
+            results.add(awaitAll(dependencies)
+                    .thenApplyAsync(ignored -> executeWithPermit(batch, request, access, finished), executor));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            String result;
+            try {
+                result = results.get(i).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+            resultConsumer.accept(requests.get(i), result);
+        }
+        if (meterRegistry != null) {
+            meterRegistry.timer("ai.tool.batch").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        LOG.debug("Executed {} tools in {} ms", requests.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Completes when all the given futures have completed; a failed dependency must not prevent the later requests
+     * from running.
+     */
+    private static CompletableFuture<Void> awaitAll(List<CompletableFuture<Void>> dependencies) {
+        return CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> null);
+    }
+
+    private String executeWithPermit(Batch batch, ToolExecutionRequest request, Access access,
+                                     CompletableFuture<Void> finished) {
+        if (batch.cancellation.isCancelled()) {
+            finished.complete(null);
+            return batch.cancelledResult;
+        }
+        batch.permits.acquireUninterruptibly();
+        try {
+            if (batch.cancellation.isCancelled()) {
+                finished.complete(null);
+                return batch.cancelledResult;
+            }
+            return executeGuarded(batch, request, access, finished);
+        } finally {
+            batch.permits.release();
+        }
+    }
+
+    /**
+     * Executes a request within the bulkheads; {@code finished} is completed once the tool has actually finished,
+     * or right away when it is not executed.
+     */
+    private String executeGuarded(Batch batch, ToolExecutionRequest request, Access access,
+                                  CompletableFuture<Void> finished) {
+        String toolName = request.name();
+        Runnable release;
+        try {
+            release = acquireBulkheads(batch.memory, toolName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished.complete(null);
+            return String.format("Error: execution of tool %s was interrupted", toolName);
+        }
+        if (release == null) {
+            finished.complete(null);
+            return String.format("Error: too many tools are running, tool %s was not executed, retry later", toolName);
+        }
+        // the permits stay taken until the tool has actually finished, also after a timeout
+        finished.whenComplete((ignored, error) -> release.run());
+        Timer.Sample sample = meterRegistry == null ? null : Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return truncate(toolName, executeWithTimeout(batch, request, access, finished));
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            LOG.warn("Tool {} did not finish within its timeout and was interrupted, memoryId: {}", toolName, batch.memoryId);
+            return String.format("Error: tool %s did not finish within %d seconds and was interrupted, "
+                    + "narrow down the operation and retry", toolName, timeouts.apply(toolName).toSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+            return String.format("Error: execution of tool %s was interrupted", toolName);
+        } catch (RuntimeException | Error e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            if (sample != null) {
+                sample.stop(meterRegistry.timer("ai.tool.execution", "tool", toolName, "outcome", outcome));
+            }
+        }
+    }
+
+    /**
+     * Takes a permit of the memory id, then a global permit, waiting at most the permit timeout in total.
+     *
+     * @return the callback releasing both permits, or {@code null} when the permits could not be taken in time
+     */
+    private Runnable acquireBulkheads(MemoryState memory, String toolName) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = permitTimeout == null ? Long.MAX_VALUE : start + permitTimeout.toNanos();
+        String rejectedBy = null;
+        try {
+            if (!tryAcquire(memory.permits, deadline)) {
+                rejectedBy = "memory";
+            } else {
+                boolean globalAcquired = false;
+                try {
+                    globalAcquired = tryAcquire(globalPermits, deadline);
+                } finally {
+                    if (!globalAcquired) {
+                        memory.permits.release();
+                    }
+                }
+                if (!globalAcquired) {
+                    rejectedBy = "global";
+                }
+            }
+        } finally {
+            if (meterRegistry != null) {
+                meterRegistry.timer("ai.tool.bulkhead.wait", "tool", toolName)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (rejectedBy != null) {
+            LOG.warn("Tool {} was rejected by the {} bulkhead", toolName, rejectedBy);
+            if (meterRegistry != null) {
+                meterRegistry.counter("ai.tool.bulkhead.rejected", "tool", toolName, "bulkhead", rejectedBy).increment();
+            }
+            return null;
+        }
+        return () -> {
+            globalPermits.release();
+            memory.permits.release();
+        };
+    }
+
+    private boolean tryAcquire(Semaphore semaphore, long deadline) throws InterruptedException {
+        if (deadline == Long.MAX_VALUE) {
+            semaphore.acquire();
+            return true;
+        }
+        return semaphore.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private String executeWithTimeout(Batch batch, ToolExecutionRequest request, Access access,
+                                      CompletableFuture<Void> finished) throws InterruptedException, TimeoutException {
+        ToolExecutor toolExecutor = batch.toolExecutors.get(request.name());
+        Duration timeout = timeouts.apply(request.name());
+        if (timeout == null) {
+            try {
+                return toolExecutor.execute(request, batch.memoryId);
+            } finally {
+                finished.complete(null);
+            }
+        }
+        // set by whichever comes first: the task starting, or the caller giving up on a task that has not started
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<String> future;
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return toolExecutor.execute(request, batch.memoryId);
+                } finally {
+                    finished.complete(null);
+                }
+            });
+        } catch (RuntimeException e) {
+            finished.complete(null);
+            throw e;
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (claimed.compareAndSet(false, true)) {
+                finished.complete(null);
+            } else {
+                // the tool may ignore the interrupt: later requests on the same paths wait until it has finished
+                batch.memory.trackRunningAfterTimeout(access, finished);
+            }
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String truncate(String toolName, String result) {
+        if (result == null || result.length() <= maxOutputChars) {
+            return result;
+        }
+        int end = maxOutputChars;
+        // do not split a surrogate pair
+        if (Character.isHighSurrogate(result.charAt(end - 1))) {
+            end--;
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("ai.tool.output.truncated", "tool", toolName).increment();
+        }
+        return result.substring(0, end)
+                + String.format("\n...(output truncated, only the first %d of %d characters are kept)", end, result.length());
+    }
+
+    /**
+     * The tool requests of one model response.
+     */
+    private record Batch(Map<String, ToolExecutor> toolExecutors, Object memoryId, StreamingCancellation cancellation,
+                         String cancelledResult, Semaphore permits, MemoryState memory) {
+    }
+
+    /**
+     * The bulkhead of a memory id and its tools still running after a timeout.
+     */
+    private static final class MemoryState {
+
+        private final Semaphore permits;
+
+        private final Map<CompletableFuture<Void>, Access> runningAfterTimeout = new ConcurrentHashMap<>();
+
+        private MemoryState(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        /**
+         * Returns the completion of the timed-out tools that are still running and conflict with the given access.
+         */
+        List<CompletableFuture<Void>> runningAfterTimeout(Access access) {
+            List<CompletableFuture<Void>> conflicting = new ArrayList<>();
+            runningAfterTimeout.forEach((finished, running) -> {
+                if (access.conflictsWith(running)) {
+                    conflicting.add(finished);
+                }
+            });
+            return conflicting;
+        }
+
+        void trackRunningAfterTimeout(Access access, CompletableFuture<Void> finished) {
+            runningAfterTimeout.put(finished, access);
+            finished.whenComplete((ignored, error) -> runningAfterTimeout.remove(finished));
+        }
+    }
+
+    /**
+     * A tool executor bound to the instance that runs it.
+     */
+    private record BoundToolExecutor(ParallelToolExecutor owner, ToolExecutor delegate) implements ToolExecutor {
+
+        @Override
+        public String execute(ToolExecutionRequest request, Object memoryId) {
+            return delegate.execute(request, memoryId);
+        }
+    }
+
+    /**
+     * Paths touched by a tool request.
+     */
+    private record Access(boolean readOnly, boolean barrier, List<String> paths) {
+
+        static Access of(ToolExecutionRequest request) {
+            String name = request.name();
+            boolean readOnly = READ_ONLY_PREFIXES.stream().anyMatch(name::startsWith);
+            List<String> paths = new ArrayList<>();
+            try {
+                Map<?, ?> arguments = Json.fromJson(request.arguments(), Map.class);
+                if (arguments != null) {
+                    arguments.forEach((key, value) -> {
+                        if (key.toString().toLowerCase().endsWith("path")) {
+                            paths.add(value == null ? "" : normalize(value.toString()));
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                paths.clear();
+            }
+            if (paths.isEmpty()) {
+                // a read without a path reads the whole project; a write without one may touch anything
+                return readOnly ? new Access(true, false, List.of("")) : new Access(false, true, List.of());
+            }
+            return new Access(readOnly, false, paths);
+        }
+
+        boolean conflictsWith(Access other) {
+            if (barrier || other.barrier) {
+                return true;
+            }
+            if (readOnly && other.readOnly) {
+                return false;
+            }
+            for (String path : paths) {
+                for (String otherPath : other.paths) {
+                    if (overlaps(path, otherPath)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean overlaps(String a, String b) {
+            return a.isEmpty() || b.isEmpty() || a.equals(b) || a.startsWith(b + "/") || b.startsWith(a + "/");
+        }
+
+        private static String normalize(String path) {
+            String normalized = path.replace('\\', '/');
+            while (normalized.startsWith("./")) {
+                normalized = normalized.substring(2);
+            }
+            while (normalized.startsWith("/")) {
+                normalized = normalized.substring(1);
+            }
+            while (normalized.endsWith("/")) {
+                normalized = normalized.substring(0, normalized.length() - 1);
+            }
+            return normalized.equals(".") ? "" : normalized;
+        }
+    }
+
+    public static class Builder {
+
+        private ExecutorService executor;
+        private int maxConcurrency = 1;
+        private int globalMaxConcurrency = Integer.MAX_VALUE;
+        private int perMemoryMaxConcurrency = Integer.MAX_VALUE;
+        private Duration permitTimeout;
+        private Function<String, Duration> timeouts = toolName -> null;
+        private int maxOutputChars = Integer.MAX_VALUE;
+        private MeterRegistry meterRegistry;
+
+        /**
+         * @param executor the executor running the tools; a virtual thread per task executor when not set
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency the maximum number of tools executed at the same time within one model response
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param globalMaxConcurrency the maximum number of tools executed at the same time by this instance,
+         *                             across all responses and memory ids
+         */
+        public Builder globalMaxConcurrency(int globalMaxConcurrency) {
+            this.globalMaxConcurrency = globalMaxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param perMemoryMaxConcurrency the maximum number of tools executed at the same time for one memory id,
+         *                                across all its responses
+         */
+        public Builder perMemoryMaxConcurrency(int perMemoryMaxConcurrency) {
+            this.perMemoryMaxConcurrency = perMemoryMaxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param permitTimeout how long a request waits for the bulkhead permits before it is rejected;
+         *                      {@code null} means waiting without limit
+         */
+        public Builder permitTimeout(Duration permitTimeout) {
+            this.permitTimeout = permitTimeout;
+            return this;
+        }
+
+        /**
+         * @param timeouts the execution timeout by tool name; {@code null} means no timeout
+         */
+        public Builder timeouts(Function<String, Duration> timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        /**
+         * @param maxOutputChars the maximum number of characters of a tool result passed to the model
+         */
+        public Builder maxOutputChars(int maxOutputChars) {
+            this.maxOutputChars = maxOutputChars;
+            return this;
+        }
+
+        /**
+         * @param meterRegistry the registry receiving the tool timers and counters; no metrics are recorded when
+         *                      {@code null}
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public ParallelToolExecutor build() {
+            return new ParallelToolExecutor(this);
+        }
+    }
+}
@@ -80,4 +80,10 @@ public interface TokenStream {
      * Will send a request to LLM and start response streaming.
      */
     void start();
+
+    /**
+     * Cancels the stream: aborts the in-flight HTTP request, skips tools that have not been executed yet
+     * and issues no further requests to the LLM. No handler is invoked after cancellation.
+     */
+    void cancel();
 }
@@ -15,14 +15,14 @@ class AiCodeGeneratorServiceTest {
 
     @Test
     void generateHtmlCode() {
-        HtmlCodeResult result = aiCodeGeneratorService.generateHtmlCode("做个程序员的工作记录小工具，不超过20行代码");
-        result = aiCodeGeneratorService.generateHtmlCode("做个登录页面，不超过20行代码");
+        HtmlCodeResult result = aiCodeGeneratorService.generateHtmlCode(1L, "做个程序员的工作记录小工具，不超过20行代码");
+        result = aiCodeGeneratorService.generateHtmlCode(1L, "做个登录页面，不超过20行代码");
         Assertions.assertNotNull(result);
     }
 
     @Test
     void generateMultiFileCode() {
-        MultiFileCodeResult multiFileCode = aiCodeGeneratorService.generateMultiFileCode("做个程序员的留言板，不超过20行代码");
+        MultiFileCodeResult multiFileCode = aiCodeGeneratorService.generateMultiFileCode(1L, "做个程序员的留言板，不超过20行代码");
         Assertions.assertNotNull(multiFileCode);
     }
 
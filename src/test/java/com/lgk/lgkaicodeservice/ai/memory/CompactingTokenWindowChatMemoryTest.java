@@ -0,0 +1,55 @@
+package com.lgk.lgkaicodeservice.ai.memory;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactingTokenWindowChatMemoryTest {
+
+    private CompactingTokenWindowChatMemory newMemory(int maxTokens) {
+        return CompactingTokenWindowChatMemory.builder()
+                .id(1L)
+                .store(new InMemoryChatMemoryStore())
+                .maxTokens(maxTokens)
+                .recentTurns(1)
+                .tokenEstimator(new ChatTokenEstimator())
+                .compactor(new ChatMessageCompactor(64))
+                .build();
+    }
+
+    @Test
+    void compactOldToolResult() {
+        CompactingTokenWindowChatMemory memory = newMemory(100000);
+        ToolExecutionRequest request = ToolExecutionRequest.builder()
+                .id("1").name("readFile").arguments("{\"relativeFilePath\":\"src/App.vue\"}").build();
+        memory.add(UserMessage.from("第一轮"));
+        memory.add(AiMessage.from(List.of(request)));
+        memory.add(ToolExecutionResultMessage.from(request, "x".repeat(2000)));
+        memory.add(UserMessage.from("第二轮"));
+        ToolExecutionResultMessage result = (ToolExecutionResultMessage) memory.messages().get(2);
+        assertTrue(result.text().startsWith("[已压缩"));
+    }
+
+    @Test
+    void evictOldestButKeepSystemMessage() {
+        CompactingTokenWindowChatMemory memory = newMemory(60);
+        memory.add(SystemMessage.from("系统提示词"));
+        for (int i = 0; i < 10; i++) {
+            memory.add(UserMessage.from("用户消息" + i));
+            memory.add(AiMessage.from("回复" + i));
+        }
+        List<ChatMessage> messages = memory.messages();
+        assertInstanceOf(SystemMessage.class, messages.get(0));
+        assertTrue(new ChatTokenEstimator().estimate(messages) <= 60);
+        assertEquals(AiMessage.from("回复9"), messages.get(messages.size() - 1));
+    }
+}
@@ -0,0 +1,78 @@
+package com.lgk.lgkaicodeservice.ai.tool.patch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilePatcherTest {
+
+    private static final String CONTENT = """
+            line1
+            line2
+            line3
+            line4
+            line5
+            line6
+            line7
+            line8
+            line9
+            line10
+            line11
+            line12
+            """;
+
+    @Test
+    void appliesMultipleEditsAgainstOriginalLines() {
+        FilePatcher.PatchResult result = FilePatcher.apply("src/App.vue", CONTENT, List.of(
+                new PatchEdit(null, null, "line2\n", "second\n"),
+                new PatchEdit(11, 11, null, "eleven"),
+                new PatchEdit(1, 0, null, "header")));
+
+        assertTrue(result.content().startsWith("header\nline1\nsecond\nline3\n"));
+        assertTrue(result.content().contains("line10\neleven\nline12\n"));
+        // 两处修改相距较远，生成两个片段，只包含改动和上下文
+        assertEquals("""
+                --- a/src/App.vue
+                +++ b/src/App.vue
+                @@ -1,5 +1,6 @@
+                +header
+                 line1
+                -line2
+                +second
+                 line3
+                 line4
+                 line5
+                @@ -8,5 +9,5 @@
+                 line8
+                 line9
+                 line10
+                -line11
+                +eleven
+                 line12
+                """, result.diff());
+    }
+
+    @Test
+    void rejectsAmbiguousAndOverlappingEdits() {
+        assertThrows(IllegalArgumentException.class, () -> FilePatcher.apply("a.txt", CONTENT,
+                List.of(new PatchEdit(null, null, "line1", "x"))));
+        assertThrows(IllegalArgumentException.class, () -> FilePatcher.apply("a.txt", CONTENT,
+                List.of(new PatchEdit(2, 3, null, "x"), new PatchEdit(null, null, "line3", "y"))));
+        // 行号范围内唯一即可
+        FilePatcher.PatchResult result = FilePatcher.apply("a.txt", CONTENT, List.of(new PatchEdit(1, 1, "line1", "first")));
+        assertTrue(result.content().startsWith("first\nline2\n"));
+        assertTrue(result.content().contains("line10\n"));
+    }
+
+    @Test
+    void pieceTableReplacesAcrossPieces() {
+        PieceTable table = new PieceTable("hello world");
+        table.replace(6, 5, "there");
+        table.replace(0, 5, "hi");
+        table.replace(2, 1, ", ");
+        assertEquals("hi, there", table.toString());
+        assertEquals(9, table.length());
+    }
+}
@@ -0,0 +1,44 @@
+package com.lgk.lgkaicodeservice.ai.tool.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingJsonObjectParserTest {
+
+    @Test
+    void decodesStringValuesAcrossArbitrarySplits() {
+        String json = "{\"relativeFilePath\": \"src/App.vue\", \"overwrite\": true, \"meta\": {\"a\": [1, \"}\"]},"
+                + " \"content\": \"<template>\\n  <div class=\\\"app\\\">\\u4f60\\u597d \\ud83d\\ude00</div>\\n</template>\"}";
+        String expected = "<template>\n  <div class=\"app\">你好 😀</div>\n</template>";
+        // 每个切分长度都应得到相同结果
+        for (int step = 1; step <= 7; step++) {
+            Map<String, StringBuilder> values = new LinkedHashMap<>();
+            List<String> ended = new ArrayList<>();
+            StreamingJsonObjectParser parser = new StreamingJsonObjectParser(new StreamingJsonObjectParser.Listener() {
+                @Override
+                public void onValue(String field, String chunk) {
+                    assertFalse(Character.isHighSurrogate(chunk.charAt(chunk.length() - 1)));
+                    values.computeIfAbsent(field, key -> new StringBuilder()).append(chunk);
+                }
+
+                @Override
+                public void onValueEnd(String field) {
+                    ended.add(field);
+                }
+            });
+            for (int i = 0; i < json.length(); i += step) {
+                parser.feed(json.substring(i, Math.min(json.length(), i + step)));
+            }
+            assertEquals("src/App.vue", values.get("relativeFilePath").toString());
+            assertEquals(expected, values.get("content").toString());
+            assertEquals(List.of("relativeFilePath", "content"), ended);
+            assertTrue(parser.isDone());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.lgk.lgkaicodeservice.ai.tool.workspace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectWorkspaceTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void changesStayInMemoryUntilFlush() throws Exception {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/App.vue"), "old");
+        Files.writeString(root.resolve("src/Old.vue"), "remove me");
+        ProjectWorkspace workspace = new ProjectWorkspace(root);
+
+        workspace.write("src/App.vue", "new");
+        workspace.write("src/views/Home.vue", "home");
+        assertTrue(workspace.delete("src/Old.vue"));
+
+        // 磁盘尚未变化，工作区读到的是修改后的内容
+        assertEquals("old", Files.readString(root.resolve("src/App.vue")));
+        assertEquals("new", workspace.read("src/App.vue"));
+        assertNull(workspace.read("src/Old.vue"));
+        assertTrue(workspace.isDirectory("src/views"));
+        assertEquals("""
+                项目目录结构:
+                App.vue
+                  Home.vue
+                """, workspace.getTreeIndex().render("src"));
+
+        workspace.flush();
+        assertFalse(workspace.isDirty());
+        assertEquals("new", Files.readString(root.resolve("src/App.vue")));
+        assertEquals("home", Files.readString(root.resolve("src/views/Home.vue")));
+        assertFalse(Files.exists(root.resolve("src/Old.vue")));
+    }
+
+    @Test
+    void failedFlushRollsBackToTheFormerProject() throws Exception {
+        Files.createDirectories(root.resolve("src/components"));
+        Files.writeString(root.resolve("src/components/Header.vue"), "header");
+        Files.writeString(root.resolve("src/App.vue"), "old app");
+        Files.writeString(root.resolve("src/main.js"), "old main");
+        Files.writeString(root.resolve("src/Old.vue"), "keep me");
+        ProjectWorkspace workspace = new ProjectWorkspace(root);
+
+        workspace.write("src/App.vue", "new app");
+        workspace.write("src/main.js", "new main");
+        workspace.write("src/Added.vue", "added");
+        workspace.delete("src/Old.vue");
+        // 目标是非空目录，替换时失败
+        workspace.write("src/components", "not a directory");
+
+        assertThrows(IOException.class, workspace::flush);
+
+        assertEquals("old app", Files.readString(root.resolve("src/App.vue")));
+        assertEquals("old main", Files.readString(root.resolve("src/main.js")));
+        assertEquals("keep me", Files.readString(root.resolve("src/Old.vue")));
+        assertEquals("header", Files.readString(root.resolve("src/components/Header.vue")));
+        assertFalse(Files.exists(root.resolve("src/Added.vue")));
+        try (Stream<Path> files = Files.list(root.resolve("src"))) {
+            // 没有残留的临时文件
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    void rejectPathOutsideProject() {
+        ProjectWorkspace workspace = new ProjectWorkspace(root);
+        assertThrows(IllegalArgumentException.class, () -> workspace.write("../escape.txt", "x"));
+    }
+
+    @Test
+    void treeIndexSkipsIgnoredDirsAndFollowsWrites() throws Exception {
+        Files.createDirectories(root.resolve("src/components"));
+        Files.createDirectories(root.resolve("node_modules/vue"));
+        Files.writeString(root.resolve("package.json"), "{}");
+        Files.writeString(root.resolve("src/main.js"), "");
+        Files.writeString(root.resolve("src/components/Header.vue"), "");
+        Files.writeString(root.resolve("node_modules/vue/index.js"), "");
+        ProjectWorkspace workspace = new ProjectWorkspace(root);
+
+        assertEquals("""
+                项目目录结构:
+                package.json
+                  main.js
+                    Header.vue
+                """, workspace.getTreeIndex().render(""));
+
+        workspace.write("src/App.vue", "app");
+        workspace.delete("src/main.js");
+        assertEquals("""
+                项目目录结构:
+                App.vue
+                  Header.vue
+                """, workspace.getTreeIndex().render("src"));
+    }
+
+    @Test
+    void treeIndexCarriesOverToNextTurn() throws Exception {
+        Files.writeString(root.resolve("package.json"), "{}");
+        ProjectWorkspace first = new ProjectWorkspace(root);
+        ProjectTreeIndex index = first.getTreeIndex();
+        first.write("src/App.vue", "app");
+        first.flush();
+
+        // 下一轮沿用落盘后的索引，磁盘上之后新增的文件不会被重新遍历
+        Files.writeString(root.resolve("untracked.txt"), "");
+        ProjectWorkspace second = new ProjectWorkspace(root, first.peekTreeIndex());
+        assertSame(index, second.getTreeIndex());
+        assertTrue(index.containsDirectory("src"));
+        assertFalse(index.containsDirectory("lib"));
+        assertEquals("""
+                项目目录结构:
+                package.json
+                  App.vue
+                """, second.getTreeIndex().render(""));
+    }
+}
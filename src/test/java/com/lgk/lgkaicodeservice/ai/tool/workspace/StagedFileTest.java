@@ -0,0 +1,41 @@
+package com.lgk.lgkaicodeservice.ai.tool.workspace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesTheContentWrittenInChunks() throws Exception {
+        StagedFile staged = new StagedFile(dir.resolve("a.tmp"));
+        String content = "<h1>你好 😀</h1>";
+        int split = content.indexOf('😀') + 1;
+        // 分块边界落在代理对中间
+        staged.append(content.substring(0, split));
+        staged.append(content.substring(split));
+        assertFalse(staged.matches(content));
+
+        staged.close();
+        assertTrue(staged.matches(content));
+        assertEquals(content, Files.readString(staged.getPath()));
+    }
+
+    @Test
+    void rejectsDifferentContentWithTheSameHashCode() throws Exception {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        StagedFile staged = new StagedFile(dir.resolve("b.tmp"));
+        staged.append("Aa");
+        staged.close();
+
+        assertFalse(staged.matches("BB"));
+        assertTrue(staged.matches("Aa"));
+    }
+}
@@ -0,0 +1,153 @@
+package com.lgk.lgkaicodeservice.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.model.openai.ChatCompletionChunk;
+import dev.langchain4j.model.openai.ChatCompletionChunkDecoder;
+import dev.langchain4j.model.openai.OpenAiStreamingResponseBuilder;
+import dev.langchain4j.model.openai.internal.chat.ChatCompletionChoice;
+import dev.langchain4j.model.openai.internal.chat.ChatCompletionResponse;
+import dev.langchain4j.model.openai.internal.chat.Delta;
+import dev.langchain4j.model.openai.internal.chat.ToolCall;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OpenAI 流式响应解码基准测试
+ * 对比旧链路（每个 chunk 绑定完整响应对象 + 线程安全累加器）与新链路（流式解码到复用对象 + 单写者累加器）
+ * 以 -prof gc 运行（见 main）可同时得到每个 token 的分配量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenAiStreamDecodingBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * 模拟一次回复中的 chunk 数
+     */
+    @Param({"500"})
+    private int chunkCount;
+
+    private List<String> events;
+
+    @Setup
+    public void setup() {
+        events = new ArrayList<>(chunkCount);
+        String prefix = "{\"id\":\"chatcmpl-bench\",\"object\":\"chat.completion.chunk\",\"created\":1760000000,"
+                + "\"model\":\"deepseek-chat\",\"system_fingerprint\":\"fp_bench\",\"choices\":[{\"index\":0,";
+        for (int i = 0; i < chunkCount; i++) {
+            if (i < chunkCount / 2) {
+                events.add(prefix + "\"delta\":{\"content\":\"这是第 " + i + " 个 token \\n\"},"
+                        + "\"logprobs\":null,\"finish_reason\":null}]}");
+            } else if (i == chunkCount / 2) {
+                events.add(prefix + "\"delta\":{\"tool_calls\":[{\"index\":0,\"id\":\"call_bench\",\"type\":\"function\","
+                        + "\"function\":{\"name\":\"writeFile\",\"arguments\":\"\"}}]},\"finish_reason\":null}]}");
+            } else {
+                events.add(prefix + "\"delta\":{\"tool_calls\":[{\"index\":0,"
+                        + "\"function\":{\"arguments\":\"<div class=\\\\\\\"row-" + i + "\\\\\\\"></div>\"}}]},"
+                        + "\"finish_reason\":null}]}");
+            }
+        }
+        events.add(prefix + "\"delta\":{},\"finish_reason\":\"tool_calls\"}],"
+                + "\"usage\":{\"prompt_tokens\":1200,\"completion_tokens\":" + chunkCount + ",\"total_tokens\":" + (1200 + chunkCount) + "}}");
+    }
+
+    /**
+     * 旧链路：Jackson 数据绑定出完整的 ChatCompletionResponse，再写入 StringBuffer / AtomicReference / ConcurrentHashMap
+     */
+    @Benchmark
+    public void legacyBindingDecode(Blackhole blackhole) throws IOException {
+        LegacyAccumulator accumulator = new LegacyAccumulator();
+        for (String event : events) {
+            ChatCompletionResponse response = OBJECT_MAPPER.readValue(event, ChatCompletionResponse.class);
+            accumulator.append(response);
+            blackhole.consume(response);
+        }
+        blackhole.consume(accumulator.content.toString());
+        blackhole.consume(accumulator.arguments.get(0).toString());
+    }
+
+    /**
+     * 新链路：按 token 流式解码到复用的 ChatCompletionChunk，单写者累加后生成最终响应
+     */
+    @Benchmark
+    public void streamingChunkDecode(Blackhole blackhole) throws IOException {
+        ChatCompletionChunkDecoder decoder = new ChatCompletionChunkDecoder();
+        OpenAiStreamingResponseBuilder builder = new OpenAiStreamingResponseBuilder();
+        for (String event : events) {
+            ChatCompletionChunk chunk = decoder.decode(event);
+            builder.append(chunk);
+            blackhole.consume(chunk.content());
+        }
+        blackhole.consume(builder.build());
+    }
+
+    /**
+     * 旧版累加器的写入方式，仅保留与新版对应的字段
+     */
+    private static class LegacyAccumulator {
+
+        private final StringBuffer content = new StringBuffer();
+        private final Map<Integer, StringBuffer> arguments = new ConcurrentHashMap<>();
+        private final AtomicReference<String> id = new AtomicReference<>();
+        private final AtomicReference<String> model = new AtomicReference<>();
+        private final AtomicReference<String> finishReason = new AtomicReference<>();
+
+        void append(ChatCompletionResponse response) {
+            if (response.id() != null) {
+                id.set(response.id());
+            }
+            if (response.model() != null) {
+                model.set(response.model());
+            }
+            if (response.choices() == null || response.choices().isEmpty()) {
+                return;
+            }
+            ChatCompletionChoice choice = response.choices().get(0);
+            if (choice.finishReason() != null) {
+                finishReason.set(choice.finishReason());
+            }
+            Delta delta = choice.delta();
+            if (delta == null) {
+                return;
+            }
+            if (delta.content() != null) {
+                content.append(delta.content());
+            }
+            if (delta.toolCalls() != null) {
+                for (ToolCall toolCall : delta.toolCalls()) {
+                    String partialArguments = toolCall.function().arguments();
+                    arguments.computeIfAbsent(toolCall.index(), index -> new StringBuffer())
+                            .append(partialArguments == null ? "" : partialArguments);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OpenAiStreamDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
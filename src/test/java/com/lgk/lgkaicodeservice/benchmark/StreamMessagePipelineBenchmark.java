@@ -0,0 +1,106 @@
+package com.lgk.lgkaicodeservice.benchmark;
+
+import cn.hutool.json.JSONUtil;
+import com.lgk.lgkaicodeservice.ai.model.message.AiResponseMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessageTypeEnum;
+import com.lgk.lgkaicodeservice.ai.model.message.ToolExecutedMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.ToolRequestMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式消息管道基准测试
+ * 对比旧链路（每条消息序列化 -> 反序列化两次 -> 再包装序列化）与类型化链路（仅在出口序列化一次）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamMessagePipelineBenchmark {
+
+    /**
+     * 模拟一次对话中的消息数
+     */
+    @Param({"200"})
+    private int messageCount;
+
+    private List<StreamMessage> messages;
+
+    @Setup
+    public void setup() {
+        messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            if (i % 50 == 10) {
+                ToolRequestMessage request = new ToolRequestMessage();
+                request.setType(StreamMessageTypeEnum.TOOL_REQUEST.getValue());
+                request.setId("call_" + i);
+                request.setName("writeFile");
+                request.setArguments("{\"relativeFilePath\":\"src/App.vue\"}");
+                messages.add(request);
+            } else if (i % 50 == 11) {
+                ToolExecutedMessage executed = new ToolExecutedMessage();
+                executed.setType(StreamMessageTypeEnum.TOOL_EXECUTED.getValue());
+                executed.setId("call_" + i);
+                executed.setName("writeFile");
+                executed.setArguments("{\"relativeFilePath\":\"src/App.vue\",\"content\":\"<template><div>hello</div></template>\"}");
+                executed.setResult("文件写入成功: src/App.vue");
+                messages.add(executed);
+            } else {
+                messages.add(new AiResponseMessage("这是一段模型输出的 token " + i));
+            }
+        }
+    }
+
+    /**
+     * 旧链路：产生端序列化，处理端先解析类型头再按具体类型反序列化，控制层再包装序列化
+     */
+    @Benchmark
+    public void legacyStringPipeline(Blackhole blackhole) {
+        for (StreamMessage message : messages) {
+            String chunk = JSONUtil.toJsonStr(message);
+            String type = JSONUtil.parseObj(chunk).getStr("type");
+            String text = switch (StreamMessageTypeEnum.getEnumByValue(type)) {
+                case AI_RESPONSE -> JSONUtil.toBean(chunk, AiResponseMessage.class).getData();
+                case TOOL_REQUEST -> JSONUtil.toBean(chunk, ToolRequestMessage.class).getName();
+                case TOOL_EXECUTED -> JSONUtil.toBean(chunk, ToolExecutedMessage.class).getResult();
+                default -> "";
+            };
+            blackhole.consume(JSONUtil.toJsonStr(Map.of("d", text)));
+        }
+    }
+
+    /**
+     * 类型化链路：模式匹配分发，仅在 SSE 出口序列化一次
+     */
+    @Benchmark
+    public void typedPipeline(Blackhole blackhole) {
+        for (StreamMessage message : messages) {
+            String text = switch (message) {
+                case AiResponseMessage aiMessage -> aiMessage.getData();
+                case ToolRequestMessage toolRequestMessage -> toolRequestMessage.getName();
+                case ToolExecutedMessage toolExecutedMessage -> toolExecutedMessage.getResult();
+                default -> "";
+            };
+            blackhole.consume(JSONUtil.toJsonStr(Map.of("d", text)));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StreamMessagePipelineBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,109 @@
+package com.lgk.lgkaicodeservice.benchmark;
+
+import com.lgk.lgkaicodeservice.langgraph4j.CodeGenConcurrentWorkflow;
+import com.lgk.lgkaicodeservice.langgraph4j.CodeGenSubgraphWorkflow;
+import com.lgk.lgkaicodeservice.langgraph4j.CodeGenWorkflow;
+import org.bsc.langgraph4j.CompiledGraph;
+import org.bsc.langgraph4j.GraphRepresentation;
+import org.bsc.langgraph4j.GraphStateException;
+import org.bsc.langgraph4j.NodeOutput;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.bsc.langgraph4j.prebuilt.MessagesStateGraph;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+
+/**
+ * 工作流编译基准测试
+ * 对比每次请求都要付出的编译、生成 Mermaid 图的开销，与预编译后单次执行的框架开销
+ * 执行开销使用与串行工作流相同节点数的空节点图，不含模型调用
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowCompileBenchmark {
+
+    private static final String[] NODES = {
+            "image_collector", "prompt_enhancer", "router", "code_generator", "code_quality_check", "project_builder"
+    };
+
+    private CompiledGraph<MessagesState<String>> standardWorkflow;
+
+    private CompiledGraph<MessagesState<String>> passThroughWorkflow;
+
+    @Setup
+    public void setup() throws GraphStateException {
+        standardWorkflow = new CodeGenWorkflow().createWorkflow();
+        MessagesStateGraph<String> graph = new MessagesStateGraph<>();
+        String previous = START;
+        for (String node : NODES) {
+            graph.addNode(node, node_async(state -> Map.of()));
+            graph.addEdge(previous, node);
+            previous = node;
+        }
+        graph.addEdge(previous, END);
+        passThroughWorkflow = graph.compile();
+    }
+
+    /**
+     * 旧方式每次请求：编译串行工作流
+     */
+    @Benchmark
+    public CompiledGraph<MessagesState<String>> compileStandard() {
+        return new CodeGenWorkflow().createWorkflow();
+    }
+
+    /**
+     * 旧方式每次请求：编译并发工作流
+     */
+    @Benchmark
+    public CompiledGraph<MessagesState<String>> compileConcurrent() {
+        return new CodeGenConcurrentWorkflow().createWorkflow();
+    }
+
+    /**
+     * 旧方式每次请求：编译子图工作流（含四个子图）
+     */
+    @Benchmark
+    public CompiledGraph<MessagesState<String>> compileSubgraph() {
+        return new CodeGenSubgraphWorkflow().createWorkflow();
+    }
+
+    /**
+     * 旧方式每次请求：生成 Mermaid 图用于日志
+     */
+    @Benchmark
+    public String renderMermaid() {
+        return standardWorkflow.getGraph(GraphRepresentation.Type.MERMAID).content();
+    }
+
+    /**
+     * 预编译后单次执行的框架开销
+     */
+    @Benchmark
+    public void runPrecompiled(Blackhole blackhole) {
+        for (NodeOutput<MessagesState<String>> step : passThroughWorkflow.stream(Map.of("input", "prompt"))) {
+            blackhole.consume(step);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(WorkflowCompileBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.lgk.lgkaicodeservice.code.handler;
+
+import cn.hutool.json.JSONUtil;
+import com.lgk.lgkaicodeservice.ai.model.message.AiResponseMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.BuildProgressMessage;
+import com.lgk.lgkaicodeservice.ai.model.message.StreamMessage;
+import com.lgk.lgkaicodeservice.model.enums.VueBuildStatusEnum;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseFrameCoalescerTest {
+
+    private SseFrameCoalescer newCoalescer() {
+        return newCoalescer(1 << 20, 1024);
+    }
+
+    private SseFrameCoalescer newCoalescer(int maxBufferedChars, int maxPendingEvents) {
+        SseFrameCoalescer coalescer = new SseFrameCoalescer();
+        ReflectionTestUtils.setField(coalescer, "maxDelayMs", 20L);
+        ReflectionTestUtils.setField(coalescer, "maxSize", 1024);
+        ReflectionTestUtils.setField(coalescer, "maxBufferedChars", maxBufferedChars);
+        ReflectionTestUtils.setField(coalescer, "maxPendingEvents", maxPendingEvents);
+        return coalescer;
+    }
+
+    @Test
+    void mergeTextChunks() {
+        Flux<StreamMessage> source = Flux.range(0, 200).map(i -> new AiResponseMessage("a\"\n"));
+        List<ServerSentEvent<String>> events = newCoalescer().frame(source).collectList().block();
+        assertNotNull(events);
+        assertTrue(events.size() < 200);
+        String text = events.stream()
+                .map(event -> JSONUtil.parseObj(event.data()).getStr("d"))
+                .reduce("", String::concat);
+        assertEquals("a\"\n".repeat(200), text);
+    }
+
+    @Test
+    void keepOrderWithOtherMessages() {
+        Flux<StreamMessage> source = Flux.just(
+                new AiResponseMessage("前"),
+                new BuildProgressMessage(VueBuildStatusEnum.BUILDING),
+                new AiResponseMessage("后"));
+        List<ServerSentEvent<String>> events = newCoalescer().frame(source).limitRate(1).collectList().block();
+        assertNotNull(events);
+        assertEquals(3, events.size());
+        assertEquals("{\"d\":\"前\"}", events.get(0).data());
+        assertEquals("build_progress", events.get(1).event());
+        assertEquals("{\"d\":\"后\"}", events.get(2).data());
+    }
+
+    @Test
+    void failWhenTextBacklogExceedsLimit() {
+        Flux<StreamMessage> source = Flux.range(0, 50).map(i -> new AiResponseMessage("abcd"));
+        assertBacklogError(source);
+    }
+
+    @Test
+    void failWhenEventBacklogExceedsLimit() {
+        Flux<StreamMessage> source = Flux.range(0, 20).map(i -> new BuildProgressMessage(VueBuildStatusEnum.BUILDING));
+        assertBacklogError(source);
+    }
+
+    /**
+     * 下游不请求任何数据时，积压超过上限应以错误结束
+     */
+    private void assertBacklogError(Flux<StreamMessage> source) {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        List<ServerSentEvent<String>> received = new ArrayList<>();
+        newCoalescer(100, 10).frame(source).subscribe(new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // 不请求
+            }
+
+            @Override
+            protected void hookOnNext(ServerSentEvent<String> value) {
+                received.add(value);
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                error.set(throwable);
+            }
+        });
+        assertTrue(received.isEmpty());
+        assertInstanceOf(IllegalStateException.class, error.get());
+    }
+}
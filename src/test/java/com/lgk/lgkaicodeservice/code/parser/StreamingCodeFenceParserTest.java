@@ -0,0 +1,92 @@
+package com.lgk.lgkaicodeservice.code.parser;
+
+import com.lgk.lgkaicodeservice.ai.model.entity.MultiFileCodeResult;
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingCodeFenceParserTest {
+
+    private static final String CODE_CONTENT = """
+            创建一个完整的网页：
+            ```html
+            <!DOCTYPE html>
+            <html>
+            <body>
+                <h1>欢迎使用</h1>
+                <code>`inline`</code>
+                <script src="script.js"></script>
+            </body>
+            </html>
+            ```
+            ```css
+            h1 {
+                color: blue;
+            }
+            ```
+            ```json
+            {"ignored": true}
+            ```
+            ```javascript
+            console.log(`页面加载完成`);
+            ```
+            ```css
+            h2 { color: red; }
+            ```
+            文件创建完成！
+            """;
+
+    @Test
+    void parseSplitChunksSameAsRegexParser() {
+        MultiFileCodeResult expected = new MultiFileCodeParser().parseCode(CODE_CONTENT);
+        // 用不同的分片大小模拟 token 边界落在代码块标记中间
+        for (int chunkSize = 1; chunkSize <= 7; chunkSize++) {
+            Map<String, StringBuilder> files = parse(CODE_CONTENT, chunkSize);
+            assertEquals(3, files.size());
+            assertEquals(expected.getHtmlCode(), files.get("index.html").toString().trim());
+            assertEquals(expected.getCssCode(), files.get("style.css").toString().trim());
+            assertEquals(expected.getJsCode(), files.get("script.js").toString().trim());
+        }
+    }
+
+    @Test
+    void finishClosesUnterminatedBlock() {
+        Map<String, StringBuilder> files = new LinkedHashMap<>();
+        StreamingCodeFenceParser parser = StreamingCodeFenceParser.of(CodeGenTypeEnum.HTML, collector(files));
+        parser.feed("```html\n<html></html>\n``");
+        parser.finish();
+        assertEquals("<html></html>\n``", files.get("index.html").toString());
+    }
+
+    private Map<String, StringBuilder> parse(String content, int chunkSize) {
+        Map<String, StringBuilder> files = new LinkedHashMap<>();
+        StreamingCodeFenceParser parser = StreamingCodeFenceParser.of(CodeGenTypeEnum.MULTI_FILE, collector(files));
+        for (int i = 0; i < content.length(); i += chunkSize) {
+            parser.feed(content.substring(i, Math.min(content.length(), i + chunkSize)));
+        }
+        parser.finish();
+        return files;
+    }
+
+    private StreamingCodeFenceParser.Listener collector(Map<String, StringBuilder> files) {
+        return new StreamingCodeFenceParser.Listener() {
+            @Override
+            public void onFileStart(String fileName) {
+                files.put(fileName, new StringBuilder());
+            }
+
+            @Override
+            public void onFileContent(String fileName, CharSequence content) {
+                files.get(fileName).append(content);
+            }
+
+            @Override
+            public void onFileEnd(String fileName) {
+            }
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.lgk.lgkaicodeservice.code.saver;
+
+import cn.hutool.core.io.FileUtil;
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StreamingCodeFileWriterTest {
+
+    private static final long APP_ID = 987654321L;
+
+    private static final String CSS_ONLY = "```css\nbody{}\n```";
+
+    private File baseDir;
+
+    @BeforeEach
+    void setUp() {
+        // 上一轮生成留下的 index.html
+        baseDir = new StreamingCodeFileWriter(CodeGenTypeEnum.MULTI_FILE, APP_ID, lane()).getBaseDir();
+        FileUtil.writeUtf8String("<html></html>", new File(baseDir, "index.html"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileUtil.del(baseDir);
+    }
+
+    @Test
+    void fullGenerationWithoutHtmlFailsEvenIfHtmlExistsOnDisk() {
+        StreamingCodeFileWriter writer = new StreamingCodeFileWriter(CodeGenTypeEnum.MULTI_FILE, APP_ID, false, lane());
+        writer.write(CSS_ONLY);
+
+        assertThrows(BusinessException.class, writer::finish);
+    }
+
+    @Test
+    void repairMayOmitHtml() {
+        StreamingCodeFileWriter writer = new StreamingCodeFileWriter(CodeGenTypeEnum.MULTI_FILE, APP_ID, true, lane());
+        writer.write(CSS_ONLY);
+
+        assertDoesNotThrow(writer::finish);
+    }
+
+    /**
+     * 只校验完整性，不实际落盘
+     */
+    private static CodePersistenceStage.Lane lane() {
+        return mock(CodePersistenceStage.Lane.class);
+    }
+}
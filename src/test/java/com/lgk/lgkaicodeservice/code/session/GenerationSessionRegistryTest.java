@@ -0,0 +1,116 @@
+package com.lgk.lgkaicodeservice.code.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RBucket;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+class GenerationSessionRegistryTest {
+
+    private RStream<String, String> stream;
+
+    private GenerationSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        stream = mock(RStream.class);
+        RBucket<String> watchBucket = mock(RBucket.class);
+        when(redissonClient.<String, String>getStream(anyString(), any())).thenReturn(stream);
+        when(redissonClient.<String>getBucket(anyString(), any())).thenReturn(watchBucket);
+        registry = new GenerationSessionRegistry();
+        ReflectionTestUtils.setField(registry, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(registry, "bufferSize", 2);
+        ReflectionTestUtils.setField(registry, "redisMaxLen", 100);
+        ReflectionTestUtils.setField(registry, "graceSeconds", 60L);
+        ReflectionTestUtils.setField(registry, "retentionMinutes", 10L);
+        ReflectionTestUtils.setField(registry, "pollIntervalMs", 10L);
+        ReflectionTestUtils.setField(registry, "tailIdleSeconds", 60L);
+        ReflectionTestUtils.setField(registry, "tailMaxMinutes", 60L);
+    }
+
+    @Test
+    void resumeFromLocalBufferWithoutReadingRedis() {
+        String turnId = startTurn(frame("a"), done());
+        List<ServerSentEvent<String>> events = registry.resume(1L, turnId + ":1").collectList().block(Duration.ofSeconds(5));
+        assertNotNull(events);
+        assertEquals(List.of(turnId + ":2"), events.stream().map(ServerSentEvent::id).toList());
+        verify(stream, never()).isExists();
+        verify(stream, never()).range(any(StreamMessageId.class), any(StreamMessageId.class));
+    }
+
+    @Test
+    void resumeFromRedisWhenLocalBufferNoLongerHoldsCursor() {
+        // 缓冲容量 2，序号 1 已被覆盖
+        String turnId = startTurn(frame("a"), frame("b"), frame("c"), done());
+        when(stream.isExists()).thenReturn(true);
+        when(stream.getName()).thenReturn("gen:session:1:" + turnId);
+        Map<StreamMessageId, Map<String, String>> entries = new LinkedHashMap<>();
+        entries.put(new StreamMessageId(1, 0), Map.of("seq", "1", "event", "", "data", "a"));
+        entries.put(new StreamMessageId(1, 1), Map.of("seq", "2", "event", "", "data", "b"));
+        entries.put(new StreamMessageId(1, 2), Map.of("seq", "3", "event", "", "data", "c"));
+        entries.put(new StreamMessageId(1, 3), Map.of("seq", "4", "event", "done", "data", ""));
+        when(stream.range(any(StreamMessageId.class), any(StreamMessageId.class))).thenReturn(entries, Map.of());
+
+        List<ServerSentEvent<String>> events = registry.resume(1L, turnId + ":1").collectList().block(Duration.ofSeconds(5));
+        assertNotNull(events);
+        assertEquals(List.of(turnId + ":2", turnId + ":3", turnId + ":4"), events.stream().map(ServerSentEvent::id).toList());
+        assertEquals("b", events.get(0).data());
+        assertEquals("done", events.get(2).event());
+    }
+
+    @Test
+    void endRedisTailWithErrorEventWhenIdle() {
+        ReflectionTestUtils.setField(registry, "tailIdleSeconds", 0L);
+        when(stream.isExists()).thenReturn(true);
+        when(stream.getName()).thenReturn("gen:session:1:42");
+        when(stream.range(any(StreamMessageId.class), any(StreamMessageId.class))).thenReturn(Map.of());
+
+        List<ServerSentEvent<String>> events = registry.resume(1L, "42:3").collectList().block(Duration.ofSeconds(5));
+        assertNotNull(events);
+        assertEquals(List.of("business-error", "done"), events.stream().map(ServerSentEvent::event).toList());
+    }
+
+    /**
+     * 开始一轮生成：首个连接读到第一个事件后断开，再写入其余事件并结束生成，返回 turnId
+     */
+    @SafeVarargs
+    private String startTurn(ServerSentEvent<String> first, ServerSentEvent<String>... rest) {
+        Sinks.Many<ServerSentEvent<String>> frames = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<ServerSentEvent<String>> connection = registry.start(1L, frames.asFlux());
+        frames.tryEmitNext(first);
+        ServerSentEvent<String> firstEvent = connection.blockFirst(Duration.ofSeconds(5));
+        assertNotNull(firstEvent);
+        for (ServerSentEvent<String> frame : rest) {
+            frames.tryEmitNext(frame);
+        }
+        frames.tryEmitComplete();
+        String id = firstEvent.id();
+        return id.substring(0, id.lastIndexOf(':'));
+    }
+
+    private static ServerSentEvent<String> frame(String data) {
+        return ServerSentEvent.<String>builder().data(data).build();
+    }
+
+    private static ServerSentEvent<String> done() {
+        return ServerSentEvent.<String>builder().event("done").data("").build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.lgk.lgkaicodeservice.code.session;
+
+import com.lgk.lgkaicodeservice.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationSessionTest {
+
+    @Test
+    void replayAfterCursorThenComplete() {
+        GenerationSession session = new GenerationSession(1L, "t", 4, () -> {
+        });
+        for (int i = 1; i <= 3; i++) {
+            session.append(null, "e" + i);
+        }
+        session.complete();
+        List<ServerSentEvent<String>> events = session.attach(1).collectList().block();
+        assertNotNull(events);
+        assertEquals(List.of("t:2", "t:3"), events.stream().map(ServerSentEvent::id).toList());
+        assertEquals("e2", events.get(0).data());
+    }
+
+    @Test
+    void canReplayOnlyWithinRingCapacity() {
+        GenerationSession session = new GenerationSession(1L, "t", 4, () -> {
+        });
+        for (int i = 1; i <= 6; i++) {
+            session.append(null, "e" + i);
+        }
+        // 缓冲中保留序号 3~6
+        assertFalse(session.canReplayAfter(1));
+        assertTrue(session.canReplayAfter(2));
+        assertTrue(session.canReplayAfter(6));
+        assertFalse(session.canReplayAfter(7));
+    }
+
+    @Test
+    void followLiveEventsAfterAttach() {
+        GenerationSession session = new GenerationSession(1L, "t", 4, () -> {
+        });
+        List<String> received = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        session.attach(0).subscribe(event -> received.add(event.id()), error -> {
+        }, () -> completed.set(true));
+        session.append(null, "e1");
+        session.append(null, "e2");
+        assertFalse(completed.get());
+        session.complete();
+        assertEquals(List.of("t:1", "t:2"), received);
+        assertTrue(completed.get());
+    }
+
+    @Test
+    void failCursorThatFallsBehindRing() {
+        GenerationSession session = new GenerationSession(1L, "t", 2, () -> {
+        });
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        BaseSubscriber<ServerSentEvent<String>> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // 先不请求，模拟慢客户端
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                error.set(throwable);
+            }
+        };
+        session.attach(0).subscribe(subscriber);
+        for (int i = 1; i <= 4; i++) {
+            session.append(null, "e" + i);
+        }
+        subscriber.request(1);
+        assertInstanceOf(BusinessException.class, error.get());
+    }
+
+    @Test
+    void notifyWhenLastSubscriberDetaches() {
+        AtomicBoolean detached = new AtomicBoolean();
+        GenerationSession session = new GenerationSession(1L, "t", 4, () -> detached.set(true));
+        session.attach(0).subscribe().dispose();
+        assertTrue(detached.get());
+    }
+}
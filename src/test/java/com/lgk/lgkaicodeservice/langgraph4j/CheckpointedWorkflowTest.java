@@ -0,0 +1,209 @@
+package com.lgk.lgkaicodeservice.langgraph4j;
+
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.langgraph4j.model.GenerationAttempt;
+import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
+import com.lgk.lgkaicodeservice.langgraph4j.node.CheckpointedNode;
+import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
+import com.lgk.lgkaicodeservice.utils.SpringContextUtil;
+import org.bsc.langgraph4j.CompiledGraph;
+import org.bsc.langgraph4j.NodeOutput;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.bsc.langgraph4j.prebuilt.MessagesStateGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 检查点节点的跳过与恢复路由，使用与标准工作流相同的质检路由
+ */
+class CheckpointedWorkflowTest {
+
+    private final List<String> executed = new ArrayList<>();
+
+    private final List<String> checkpoints = new ArrayList<>();
+
+    /**
+     * 质检节点依次返回的结果
+     */
+    private final Deque<Boolean> qualityResults = new ArrayDeque<>();
+
+    private Object previousApplicationContext;
+
+    @BeforeEach
+    void setUp() {
+        previousApplicationContext = ReflectionTestUtils.getField(SpringContextUtil.class, "applicationContext");
+        WorkflowCheckpointStore checkpointStore = mock(WorkflowCheckpointStore.class);
+        doAnswer(invocation -> {
+            String nodeId = invocation.getArgument(0);
+            checkpoints.add(nodeId);
+            invocation.<WorkflowContext>getArgument(1).setLastCompletedNode(nodeId);
+            return null;
+        }).when(checkpointStore).save(anyString(), any());
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBean(WorkflowCheckpointStore.class)).thenReturn(checkpointStore);
+        new SpringContextUtil().setApplicationContext(applicationContext);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(SpringContextUtil.class, "applicationContext", previousApplicationContext);
+    }
+
+    @Test
+    void freshRunCheckpointsEveryNodeAndRegeneratesAfterFailedQualityCheck() throws Exception {
+        qualityResults.add(false);
+        qualityResults.add(true);
+        WorkflowContext context = run(context(CodeGenTypeEnum.VUE_PROJECT, 3, 0));
+
+        List<String> expected = List.of("prompt_enhancer", "code_generator", "code_quality_check",
+                "code_generator", "code_quality_check", "project_builder");
+        assertEquals(expected, executed);
+        assertEquals(expected, checkpoints);
+        assertEquals("project_builder", context.getLastCompletedNode());
+    }
+
+    @Test
+    void resumeAfterPassedQualityCheckRetriesOnlyTheBuild() throws Exception {
+        WorkflowContext context = run(checkpoint(CodeGenTypeEnum.VUE_PROJECT, "code_quality_check", true, 3, 1));
+
+        assertEquals(List.of("project_builder"), executed);
+        assertNull(context.getResumeFromNode());
+    }
+
+    @Test
+    void resumeAfterFailedQualityCheckReturnsToCodeGenerator() throws Exception {
+        qualityResults.add(true);
+        WorkflowContext context = run(checkpoint(CodeGenTypeEnum.VUE_PROJECT, "code_quality_check", false, 3, 1));
+
+        assertEquals(List.of("code_generator", "code_quality_check", "project_builder"), executed);
+        assertEquals(2, context.getGenerationAttempts().size());
+    }
+
+    @Test
+    void resumeWithExhaustedAttemptsFollowsBuildOrSkipRouting() throws Exception {
+        // 生成次数已用完，质检未通过也不再重新生成；HTML 无需构建，直接结束
+        run(checkpoint(CodeGenTypeEnum.HTML, "code_quality_check", false, 2, 2));
+
+        assertTrue(executed.isEmpty());
+        assertTrue(checkpoints.isEmpty());
+    }
+
+    @Test
+    void resumeWithExhaustedAttemptsBuildsVueProject() throws Exception {
+        run(checkpoint(CodeGenTypeEnum.VUE_PROJECT, "code_quality_check", false, 2, 2));
+
+        assertEquals(List.of("project_builder"), executed);
+    }
+
+    @Test
+    void freshRunStopsRegeneratingOnceAttemptsAreExhausted() throws Exception {
+        qualityResults.add(false);
+        qualityResults.add(false);
+        WorkflowContext context = run(context(CodeGenTypeEnum.VUE_PROJECT, 2, 0));
+
+        assertEquals(List.of("prompt_enhancer", "code_generator", "code_quality_check",
+                "code_generator", "code_quality_check", "project_builder"), executed);
+        assertEquals(2, context.getGenerationAttempts().size());
+    }
+
+    @Test
+    void resumeAfterCodeGeneratorRunsQualityCheckNext() throws Exception {
+        qualityResults.add(true);
+        run(checkpoint(CodeGenTypeEnum.VUE_PROJECT, "code_generator", null, 3, 1));
+
+        assertEquals(List.of("code_quality_check", "project_builder"), executed);
+    }
+
+    /**
+     * 执行到结束，返回最后一步的上下文
+     */
+    private WorkflowContext run(WorkflowContext context) throws Exception {
+        WorkflowContext finalContext = context;
+        for (NodeOutput<MessagesState<String>> step : workflow().stream(
+                Map.of(WorkflowContext.WORKFLOW_CONTEXT_KEY, context))) {
+            finalContext = WorkflowContext.getContext(step.state());
+        }
+        return finalContext;
+    }
+
+    private CompiledGraph<MessagesState<String>> workflow() throws Exception {
+        CodeGenWorkflow codeGenWorkflow = new CodeGenWorkflow();
+        return new MessagesStateGraph<String>()
+                .addNode("prompt_enhancer", node("prompt_enhancer", context -> {
+                }))
+                .addNode("code_generator", node("code_generator", context -> context.getGenerationAttempts()
+                        .add(GenerationAttempt.builder().attempt(context.getGenerationAttempts().size() + 1).build())))
+                .addNode("code_quality_check", node("code_quality_check", context -> context.setQualityResult(
+                        QualityResult.builder().isValid(qualityResults.poll()).build())))
+                .addNode("project_builder", node("project_builder", context -> {
+                }))
+                .addEdge(START, "prompt_enhancer")
+                .addEdge("prompt_enhancer", "code_generator")
+                .addEdge("code_generator", "code_quality_check")
+                .addConditionalEdges("code_quality_check",
+                        edge_async(codeGenWorkflow::routeAfterQualityCheck),
+                        Map.of(
+                                "build", "project_builder",
+                                "skip_build", END,
+                                "fail", "code_generator"
+                        ))
+                .addEdge("project_builder", END)
+                .compile();
+    }
+
+    private AsyncNodeAction<MessagesState<String>> node(String nodeId, Consumer<WorkflowContext> action) {
+        return CheckpointedNode.wrap(nodeId, node_async(state -> {
+            WorkflowContext context = WorkflowContext.getContext(state);
+            executed.add(nodeId);
+            action.accept(context);
+            return WorkflowContext.saveContext(context);
+        }));
+    }
+
+    private static WorkflowContext context(CodeGenTypeEnum generationType, int maxAttempts, int attempts) {
+        List<GenerationAttempt> generationAttempts = new ArrayList<>();
+        for (int i = 1; i <= attempts; i++) {
+            generationAttempts.add(GenerationAttempt.builder().attempt(i).build());
+        }
+        return WorkflowContext.builder()
+                .runId(1L)
+                .generationType(generationType)
+                .maxGenerationAttempts(maxAttempts)
+                .generationAttempts(generationAttempts)
+                .build();
+    }
+
+    /**
+     * 与 resumeWorkflow 一致：从最后完成的节点恢复
+     */
+    private static WorkflowContext checkpoint(CodeGenTypeEnum generationType, String lastCompletedNode,
+                                              Boolean qualityValid, int maxAttempts, int attempts) {
+        WorkflowContext checkpoint = context(generationType, maxAttempts, attempts);
+        if (qualityValid != null) {
+            checkpoint.setQualityResult(QualityResult.builder().isValid(qualityValid).build());
+        }
+        checkpoint.setLastCompletedNode(lastCompletedNode);
+        checkpoint.setResumeFromNode(lastCompletedNode);
+        return checkpoint;
+    }
+}
@@ -0,0 +1,79 @@
+package com.lgk.lgkaicodeservice.langgraph4j;
+
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.DownstreamApiEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelNodeExecutorTest {
+
+    @Test
+    void boundsConcurrencyAndRejectsBeyondQueueLimit() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try (ParallelNodeExecutor executor = new ParallelNodeExecutor(1, 3, Map.of(), 5, meterRegistry)) {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    finished.countDown();
+                });
+                if (i == 0) {
+                    assertTrue(started.await(5, TimeUnit.SECONDS));
+                }
+            }
+            // 一个分支在执行，两个在排队，再提交两个时排队数超过上限
+            executor.execute(finished::countDown);
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+            assertEquals(1, meterRegistry.counter("workflow.parallel.rejected").count());
+
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            assertEquals(1, maxRunning.get());
+        }
+    }
+
+    @Test
+    void limitsCallsPerDownstreamApi() throws Exception {
+        try (ParallelNodeExecutor executor = new ParallelNodeExecutor(4, 16,
+                Map.of(DownstreamApiEnum.PEXELS, 1), 5, new SimpleMeterRegistry())) {
+            CountDownLatch done = new CountDownLatch(4);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            for (int i = 0; i < 4; i++) {
+                executor.execute(() -> {
+                    try {
+                        executor.callWithPermit(DownstreamApiEnum.PEXELS, () -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            Thread.sleep(20);
+                            return running.decrementAndGet();
+                        });
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(1, maxRunning.get());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.lgk.lgkaicodeservice.langgraph4j;
+
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.langgraph4j.model.GenerationAttempt;
+import com.lgk.lgkaicodeservice.langgraph4j.model.ImageCollectionPlan;
+import com.lgk.lgkaicodeservice.langgraph4j.model.ImageResource;
+import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.GenerationModeEnum;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.ImageCategoryEnum;
+import com.lgk.lgkaicodeservice.langgraph4j.state.WorkflowContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WorkflowCheckpointStoreTest {
+
+    private final AtomicReference<String> stored = new AtomicReference<>();
+
+    private final WorkflowCheckpointStore checkpointStore = new WorkflowCheckpointStore();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RBucket<String> bucket = mock(RBucket.class);
+        doAnswer(invocation -> {
+            stored.set(invocation.getArgument(0));
+            return null;
+        }).when(bucket).set(anyString(), any(Duration.class));
+        when(bucket.get()).thenAnswer(invocation -> stored.get());
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.<String>getBucket(anyString(), eq(StringCodec.INSTANCE))).thenReturn(bucket);
+        ReflectionTestUtils.setField(checkpointStore, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(checkpointStore, "ttlMinutes", 120L);
+    }
+
+    @Test
+    void storesCheckpointAsJson() {
+        ImageCollectionPlan plan = new ImageCollectionPlan();
+        plan.setContentImageTasks(List.of(new ImageCollectionPlan.ImageSearchTask("咖啡")));
+        WorkflowContext context = WorkflowContext.builder()
+                .runId(42L)
+                .generationType(CodeGenTypeEnum.VUE_PROJECT)
+                .imageList(List.of(ImageResource.builder().category(ImageCategoryEnum.LOGO).url("https://a/logo.png").build()))
+                .imageCollectionPlan(plan)
+                .qualityResult(QualityResult.builder().isValid(false).errors(List.of("缺少路由")).failingFiles(List.of("src/App.vue")).build())
+                .maxGenerationAttempts(3)
+                .generationAttempts(List.of(GenerationAttempt.builder().attempt(1).mode(GenerationModeEnum.REPAIR)
+                        .repairedFiles(List.of("src/App.vue")).durationMillis(1200L).build()))
+                .build();
+
+        checkpointStore.save("code_quality_check", context);
+
+        assertTrue(stored.get().startsWith("{"));
+        WorkflowContext loaded = checkpointStore.load(42L);
+        assertEquals(context, loaded);
+        assertEquals("code_quality_check", loaded.getLastCompletedNode());
+    }
+
+    @Test
+    void ignoresUnreadableCheckpoint() {
+        stored.set("¬í\u0000\u0005sr");
+
+        assertNull(checkpointStore.load(42L));
+    }
+
+    @Test
+    void returnsNullWithoutCheckpoint() {
+        assertNull(checkpointStore.load(42L));
+    }
+}
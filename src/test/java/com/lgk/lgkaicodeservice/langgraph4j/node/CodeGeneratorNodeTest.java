@@ -0,0 +1,71 @@
+package com.lgk.lgkaicodeservice.langgraph4j.node;
+
+import com.lgk.lgkaicodeservice.ai.model.enums.CodeGenTypeEnum;
+import com.lgk.lgkaicodeservice.langgraph4j.model.QualityResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeGeneratorNodeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path projectDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        projectDir = Files.createDirectories(tempDir.resolve("app"));
+    }
+
+    @Test
+    void resolvesOnlyExistingFilesInsideTheProject() throws IOException {
+        Files.createDirectories(projectDir.resolve("src"));
+        Files.writeString(projectDir.resolve("src/App.vue"), "<template/>");
+        Files.writeString(projectDir.resolve("index.html"), "<html/>");
+        Files.writeString(tempDir.resolve("secret.txt"), "secret");
+
+        List<String> repairFiles = CodeGeneratorNode.resolveRepairFiles(List.of(
+                " src/App.vue ", "./src/../index.html", "src/App.vue",
+                "../secret.txt", tempDir.resolve("secret.txt").toString(),
+                "src/missing.js", "src", "  "), projectDir.toString());
+
+        // 去重并统一为相对路径；越出项目目录、不存在的文件和目录都忽略
+        assertEquals(List.of("src/App.vue", "index.html"), repairFiles);
+    }
+
+    @Test
+    void resolvesNothingWithoutFailingFiles() {
+        assertTrue(CodeGeneratorNode.resolveRepairFiles(null, projectDir.toString()).isEmpty());
+        assertTrue(CodeGeneratorNode.resolveRepairFiles(List.of(), projectDir.toString()).isEmpty());
+        assertTrue(CodeGeneratorNode.resolveRepairFiles(List.of("missing.js"), projectDir.toString()).isEmpty());
+    }
+
+    @Test
+    void repairPromptTruncatesLongFiles() throws IOException {
+        Files.writeString(projectDir.resolve("script.js"), "a".repeat(30) + "b".repeat(30));
+        Files.writeString(projectDir.resolve("style.css"), "body{}");
+        QualityResult qualityResult = QualityResult.builder()
+                .isValid(false)
+                .errors(List.of("脚本报错"))
+                .suggestions(List.of("检查变量"))
+                .build();
+
+        String prompt = CodeGeneratorNode.buildRepairPrompt(qualityResult, List.of("script.js", "style.css"),
+                projectDir.toString(), CodeGenTypeEnum.MULTI_FILE, 30);
+
+        assertTrue(prompt.contains("- 脚本报错"));
+        assertTrue(prompt.contains("- 检查变量"));
+        assertTrue(prompt.contains("### 文件: script.js\n```\n" + "a".repeat(30) + "\n...（文件过长，仅附带前 30 字符）"));
+        assertFalse(prompt.contains("b"));
+        assertTrue(prompt.contains("### 文件: style.css\n```\nbody{}\n```"));
+        assertTrue(prompt.contains("只输出需要修改的文件"));
+    }
+}
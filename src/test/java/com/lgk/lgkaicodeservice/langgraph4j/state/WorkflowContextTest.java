@@ -0,0 +1,34 @@
+package com.lgk.lgkaicodeservice.langgraph4j.state;
+
+import com.lgk.lgkaicodeservice.langgraph4j.model.GenerationAttempt;
+import com.lgk.lgkaicodeservice.langgraph4j.model.enums.GenerationModeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkflowContextTest {
+
+    @Test
+    void stopsRetryingOnceMaxGenerationAttemptsIsReached() {
+        List<GenerationAttempt> attempts = new ArrayList<>();
+        WorkflowContext context = WorkflowContext.builder()
+                .maxGenerationAttempts(2)
+                .generationAttempts(attempts)
+                .build();
+        assertTrue(context.canRetryGeneration());
+
+        attempts.add(GenerationAttempt.builder().attempt(1).mode(GenerationModeEnum.FULL).build());
+        assertTrue(context.canRetryGeneration());
+
+        attempts.add(GenerationAttempt.builder().attempt(2).mode(GenerationModeEnum.REPAIR).build());
+        assertFalse(context.canRetryGeneration());
+    }
+
+    @Test
+    void allowsRetryBeforeFirstGeneration() {
+        assertTrue(new WorkflowContext().canRetryGeneration());
+    }
+}
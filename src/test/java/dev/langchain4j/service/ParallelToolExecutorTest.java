@@ -0,0 +1,391 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.internal.StreamingCancellation;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelToolExecutorTest {
+
+    private static final String CANCELLED = "cancelled";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void deliversResultsInRequestOrder() {
+        CountDownLatch secondDone = new CountDownLatch(1);
+        ParallelToolExecutor executor = parallel(4);
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            if (request.arguments().contains("a.js")) {
+                // 第一个请求等第二个请求执行完才返回
+                await(secondDone);
+            } else {
+                secondDone.countDown();
+            }
+            return request.id();
+        }));
+
+        List<String> results = execute(executor, tools, new StreamingCancellation(),
+                request("1", "readFile", "a.js"), request("2", "readFile", "b.js"), request("3", "readFile", "c.js"));
+
+        assertEquals(List.of("1", "2", "3"), results);
+        assertEquals(3, meterRegistry.timer("ai.tool.execution", "tool", "readFile", "outcome", "success").count());
+        assertEquals(1, meterRegistry.timer("ai.tool.batch").count());
+    }
+
+    @Test
+    void boundsConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ParallelToolExecutor executor = parallel(2);
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(50);
+            running.decrementAndGet();
+            return "ok";
+        }));
+
+        List<ToolExecutionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(request(String.valueOf(i), "readFile", "file" + i + ".js"));
+        }
+        execute(executor, tools, new StreamingCancellation(), requests.toArray(ToolExecutionRequest[]::new));
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void serializesWritesToTheSamePath() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        ParallelToolExecutor executor = parallel(4);
+        ToolExecutor tool = executor.bind((request, memoryId) -> {
+            if (request.id().equals("1")) {
+                sleep(100);
+            }
+            order.add(request.id());
+            return "ok";
+        });
+        Map<String, ToolExecutor> tools = Map.of("writeFile", tool, "readFile", tool);
+
+        execute(executor, tools, new StreamingCancellation(),
+                request("1", "writeFile", "src/App.vue"), request("2", "readFile", "src/App.vue"),
+                request("3", "readFile", "src/main.js"));
+
+        // 读取同一路径的请求等写入完成，其他路径不等
+        assertTrue(order.indexOf("1") < order.indexOf("2"));
+        assertTrue(order.indexOf("3") < order.indexOf("1"));
+    }
+
+    @Test
+    void propagatesFailureAfterEarlierResults() {
+        ParallelToolExecutor executor = parallel(4);
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            if (request.id().equals("2")) {
+                throw new IllegalStateException("boom");
+            }
+            return request.id();
+        }));
+        List<String> delivered = new ArrayList<>();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> executor.execute(tools, 1L,
+                new StreamingCancellation(), CANCELLED,
+                List.of(request("1", "readFile", "a.js"), request("2", "readFile", "b.js"),
+                        request("3", "readFile", "c.js")),
+                (request, result) -> delivered.add(result)));
+
+        assertEquals("boom", e.getMessage());
+        assertEquals(List.of("1"), delivered);
+    }
+
+    @Test
+    void answersCancelledRequestsWithoutExecuting() {
+        AtomicInteger executed = new AtomicInteger();
+        ParallelToolExecutor executor = parallel(4);
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            executed.incrementAndGet();
+            return "ok";
+        }));
+        StreamingCancellation cancellation = new StreamingCancellation();
+        cancellation.cancel();
+
+        List<String> results = execute(executor, tools, cancellation,
+                request("1", "readFile", "a.js"), request("2", "readFile", "b.js"));
+
+        assertEquals(List.of(CANCELLED, CANCELLED), results);
+        assertEquals(0, executed.get());
+    }
+
+    @Test
+    void truncatesLongOutput() {
+        ParallelToolExecutor executor = ParallelToolExecutor.builder()
+                .maxOutputChars(10)
+                .meterRegistry(meterRegistry)
+                .build();
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> "a".repeat(50)));
+
+        String result = execute(executor, tools, new StreamingCancellation(), request("1", "readFile", "a.js")).get(0);
+
+        assertTrue(result.startsWith("a".repeat(10) + "\n"));
+        assertTrue(result.contains("of 50 characters"));
+        assertEquals(1, meterRegistry.counter("ai.tool.output.truncated", "tool", "readFile").count());
+    }
+
+    @Test
+    void interruptsSlowToolAfterTimeout() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ParallelToolExecutor executor = ParallelToolExecutor.builder()
+                .maxConcurrency(2)
+                .timeouts(toolName -> Duration.ofMillis(100))
+                .meterRegistry(meterRegistry)
+                .build();
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            if (request.id().equals("1")) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+            return "ok";
+        }));
+
+        List<String> results = execute(executor, tools, new StreamingCancellation(),
+                request("1", "readFile", "a.js"), request("2", "readFile", "b.js"));
+
+        assertTrue(results.get(0).contains("did not finish"));
+        assertEquals("ok", results.get(1));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.timer("ai.tool.execution", "tool", "readFile", "outcome", "timeout").count());
+        assertEquals(1, meterRegistry.timer("ai.tool.execution", "tool", "readFile", "outcome", "success").count());
+    }
+
+    @Test
+    void boundsConcurrencyPerMemoryAcrossResponses() throws Exception {
+        Map<Object, AtomicInteger> runningByMemory = new ConcurrentHashMap<>();
+        Map<Object, AtomicInteger> maxRunningByMemory = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ParallelToolExecutor executor = ParallelToolExecutor.builder()
+                .maxConcurrency(4)
+                .perMemoryMaxConcurrency(1)
+                .meterRegistry(meterRegistry)
+                .build();
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            AtomicInteger memoryRunning = runningByMemory.computeIfAbsent(memoryId, key -> new AtomicInteger());
+            maxRunningByMemory.computeIfAbsent(memoryId, key -> new AtomicInteger())
+                    .accumulateAndGet(memoryRunning.incrementAndGet(), Math::max);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(100);
+            running.decrementAndGet();
+            memoryRunning.decrementAndGet();
+            return "ok";
+        }));
+
+        // 两个应用各有两轮对话同时执行工具
+        runConcurrently(executor, tools, 1L, 1L, 2L, 2L);
+
+        assertEquals(1, maxRunningByMemory.get(1L).get());
+        assertEquals(1, maxRunningByMemory.get(2L).get());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void boundsConcurrencyGloballyAcrossMemories() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ParallelToolExecutor executor = ParallelToolExecutor.builder()
+                .maxConcurrency(4)
+                .globalMaxConcurrency(2)
+                .meterRegistry(meterRegistry)
+                .build();
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(100);
+            running.decrementAndGet();
+            return "ok";
+        }));
+
+        runConcurrently(executor, tools, 1L, 2L, 3L, 4L);
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void rejectsRequestsThatCannotGetAPermitInTime() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ParallelToolExecutor executor = ParallelToolExecutor.builder()
+                .perMemoryMaxConcurrency(1)
+                .permitTimeout(Duration.ofMillis(50))
+                .meterRegistry(meterRegistry)
+                .build();
+        Map<String, ToolExecutor> tools = Map.of("readFile", executor.bind((request, memoryId) -> {
+            started.countDown();
+            await(release);
+            return "ok";
+        }));
+
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<List<String>> first = threads.submit(() -> execute(executor, tools, new StreamingCancellation(),
+                    request("1", "readFile", "a.js")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            String rejected = execute(executor, tools, new StreamingCancellation(), request("2", "readFile", "b.js")).get(0);
+            release.countDown();
+
+            assertTrue(rejected.contains("too many tools are running"));
+            assertEquals(List.of("ok"), first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, meterRegistry.counter("ai.tool.bulkhead.rejected", "tool", "readFile", "bulkhead", "memory").count());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void laterWritesWaitForATimedOutToolToActuallyFinish() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        ParallelToolExecutor executor = ParallelToolExecutor.builder()
+                .maxConcurrency(2)
+                .timeouts(toolName -> Duration.ofMillis(100))
+                .meterRegistry(meterRegistry)
+                .build();
+        Map<String, ToolExecutor> tools = Map.of("writeFile", executor.bind((request, memoryId) -> {
+            if (request.id().equals("1")) {
+                // 不响应中断的工具
+                awaitUninterruptibly(release);
+            }
+            order.add(request.id());
+            return "ok";
+        }));
+
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            // 同一次响应中写同一路径的请求
+            Future<List<String>> sameResponse = threads.submit(() -> execute(executor, tools, new StreamingCancellation(),
+                    request("1", "writeFile", "src/App.vue"), request("2", "writeFile", "src/App.vue")));
+            sleep(300);
+            // 下一次响应中写同一路径的请求
+            Future<List<String>> nextResponse = threads.submit(() -> execute(executor, tools, new StreamingCancellation(),
+                    request("3", "writeFile", "src/App.vue")));
+            sleep(200);
+            assertTrue(order.isEmpty());
+
+            release.countDown();
+            List<String> results = sameResponse.get(5, TimeUnit.SECONDS);
+            nextResponse.get(5, TimeUnit.SECONDS);
+
+            assertTrue(results.get(0).contains("did not finish"));
+            assertEquals("ok", results.get(1));
+            assertEquals("1", order.get(0));
+            assertEquals(3, order.size());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void resolvesTheBoundInstance() {
+        ParallelToolExecutor executor = parallel(4);
+        ToolExecutor raw = (request, memoryId) -> "ok";
+
+        assertSame(executor, ParallelToolExecutor.of(Map.of("readFile", executor.bind(raw))));
+        assertNotSame(executor, ParallelToolExecutor.of(Map.of("readFile", raw)));
+        assertThrows(IllegalArgumentException.class, () -> ParallelToolExecutor.builder().maxConcurrency(0).build());
+        assertThrows(IllegalArgumentException.class, () -> ParallelToolExecutor.builder().globalMaxConcurrency(0).build());
+        assertThrows(IllegalArgumentException.class, () -> ParallelToolExecutor.builder().perMemoryMaxConcurrency(0).build());
+    }
+
+    private ParallelToolExecutor parallel(int maxConcurrency) {
+        return ParallelToolExecutor.builder()
+                .maxConcurrency(maxConcurrency)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    private static List<String> execute(ParallelToolExecutor executor, Map<String, ToolExecutor> tools,
+                                        StreamingCancellation cancellation, ToolExecutionRequest... requests) {
+        List<String> results = new ArrayList<>();
+        executor.execute(tools, 1L, cancellation, CANCELLED, List.of(requests), (request, result) -> results.add(result));
+        return results;
+    }
+
+    /**
+     * 每个 memoryId 在独立线程中执行一次只有一个请求的响应
+     */
+    private static void runConcurrently(ParallelToolExecutor executor, Map<String, ToolExecutor> tools,
+                                        Object... memoryIds) throws Exception {
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < memoryIds.length; i++) {
+                Object memoryId = memoryIds[i];
+                ToolExecutionRequest request = request(String.valueOf(i), "readFile", "file" + i + ".js");
+                futures.add(threads.submit(() -> executor.execute(tools, memoryId, new StreamingCancellation(), CANCELLED,
+                        List.of(request), (ignored, result) -> assertEquals("ok", result))));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static ToolExecutionRequest request(String id, String name, String path) {
+        return ToolExecutionRequest.builder()
+                .id(id)
+                .name(name)
+                .arguments("{\"relativeFilePath\":\"" + path + "\"}")
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}